@@ -5,13 +5,16 @@ import com.alpeerkaraca.authservice.dto.UserRegisterRequest;
 import com.alpeerkaraca.authservice.service.AuthService;
 import com.alpeerkaraca.common.annotation.RateLimit;
 import com.alpeerkaraca.common.dto.ApiResponse;
+import com.alpeerkaraca.common.dto.RefreshTokenRequest;
 import com.alpeerkaraca.common.dto.TokenPair;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -39,4 +42,15 @@ public class AuthController {
         TokenPair tokenPair = authService.login(request);
         return ResponseEntity.ok(ApiResponse.success(tokenPair, "Login successful."));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logoutUser(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(accessToken, request);
+        return ResponseEntity.ok(ApiResponse.success(null, "Logout successful."));
+    }
 }
@@ -1,9 +1,10 @@
 package com.alpeerkaraca.authservice.infra.kafka;
 
-import com.alpeerkaraca.authservice.model.AuthInbox;
 import com.alpeerkaraca.authservice.repository.AuthInboxRepository;
 import com.alpeerkaraca.authservice.service.AuthService;
-import com.alpeerkaraca.common.model.InboxStatus;
+import com.alpeerkaraca.common.inbox.IdempotentConsumer;
+import com.alpeerkaraca.common.inbox.InboxRepository;
+import com.alpeerkaraca.common.kafka.SagaRetryableTopic;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -16,11 +17,12 @@ import java.util.UUID;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class UserEventConsumer {
+public class UserEventConsumer extends IdempotentConsumer {
 
     private final AuthService authService;
     private final AuthInboxRepository authInboxRepository;
 
+    @SagaRetryableTopic
     @KafkaListener(topics = "user_events", groupId = "auth-service-group")
     @Transactional
     public void consumeUserEvent(
@@ -29,11 +31,7 @@ public class UserEventConsumer {
             @Header(value = "aggregateId", required = false) String aggregateId) {
 
         log.info("Saga Reply received. Type: {}, ID: {}", eventType, messageId);
-        if (messageId != null && authInboxRepository.existsById(messageId)) {
-            log.info("Message already processed: {}", messageId);
-            return;
-        }
-        try {
+        consumeOnce(messageId, eventType, () -> {
             UUID userId = aggregateId != null ? UUID.fromString(aggregateId) : null;
 
             if ("ProfileCreated".equals(eventType)) {
@@ -41,15 +39,11 @@ public class UserEventConsumer {
             } else if ("ProfileCreateFailed".equals(eventType)) {
                 authService.rollbackUser(userId);
             }
-
-            AuthInbox inboxEvent = new AuthInbox();
-            inboxEvent.setMessageId(messageId);
-            inboxEvent.setStatus(InboxStatus.COMPLETED);
-            inboxEvent.setEventType(eventType);
-            authInboxRepository.save(inboxEvent);
-        } catch (Exception e) {
-            log.error("Error processing message ID {}: {}", messageId, e.getMessage());
-        }
+        });
     }
 
+    @Override
+    protected InboxRepository<?> inboxRepository() {
+        return authInboxRepository;
+    }
 }
@@ -1,5 +1,6 @@
 package com.alpeerkaraca.authservice.model;
 
+import com.alpeerkaraca.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.*;
@@ -17,7 +18,7 @@ import java.util.UUID;
 @Setter
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID userId;
 
     @Email
@@ -1,9 +1,25 @@
 package com.alpeerkaraca.authservice.repository;
 
+import com.alpeerkaraca.common.inbox.InboxRepository;
 import com.alpeerkaraca.authservice.model.AuthInbox;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
 
 @Repository
-public interface AuthInboxRepository extends JpaRepository<AuthInbox, String> {
+public interface AuthInboxRepository extends InboxRepository<AuthInbox> {
+
+    @Override
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO auth_inbox (message_id, event_type, status, processed_at, message_day) "
+            + "SELECT :messageId, :eventType, " + COMPLETED_STATUS + ", now(), :messageDay "
+            + "WHERE NOT EXISTS (SELECT 1 FROM auth_inbox WHERE message_id = :messageId) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("messageId") String messageId, @Param("eventType") String eventType,
+              @Param("messageDay") LocalDate messageDay);
 }
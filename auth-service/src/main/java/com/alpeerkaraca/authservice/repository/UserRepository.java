@@ -9,5 +9,9 @@ import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+    /**
+     * Not read-only on purpose, so it always reads from the primary: login checks the account status right after the
+     * registration saga activates it, and a saga write carries no user for the replica router to track.
+     */
     Optional<User> findByEmail(String email);
 }
@@ -11,8 +11,10 @@ import com.alpeerkaraca.authservice.repository.UserRepository;
 import com.alpeerkaraca.common.dto.RefreshTokenRequest;
 import com.alpeerkaraca.common.dto.TokenPair;
 import com.alpeerkaraca.common.exception.*;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
 import com.alpeerkaraca.common.security.JWTService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +47,7 @@ public class AuthService {
     private final UserDetailsService userDetailsService;
     private final AuthenticationManager authenticationManager;
     private final AuthOutboxRepository authOutboxRepository;
+    private final OutboxWriter outboxWriter;
     private final ObjectMapper objectMapper;
 
     /**
@@ -86,7 +89,7 @@ public class AuthService {
             outboxEvent.setAggregateId(savedUser.getUserId().toString());
             outboxEvent.setEventType("UserCreated");
             outboxEvent.setPayload(objectMapper.writeValueAsString(userRegisterMessage));
-            authOutboxRepository.save(outboxEvent);
+            outboxWriter.publish(authOutboxRepository, outboxEvent);
 
             log.info("Saga Initiated: User {} created (inactive). Outbox event saved.", savedUser.getUserId());
             return savedUser;
@@ -179,4 +182,24 @@ public class AuthService {
         return jwtService.generateTokenPair(authentication, user.getUserId());
     }
 
-}
\ No newline at end of file
+    /**
+     * Logs a user out by revoking the given tokens until they expire.
+     *
+     * @param accessToken The access token from the {@code Authorization} header, may be {@code null}.
+     * @param request     Request containing the refresh token, may be {@code null}.
+     * @throws InvalidTokenException If a provided token cannot be verified.
+     */
+    public void logout(String accessToken, RefreshTokenRequest request) {
+        try {
+            if (accessToken != null) {
+                jwtService.revoke(accessToken);
+            }
+            if (request != null && request.refreshToken() != null) {
+                jwtService.revoke(request.refreshToken());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Credentials could not be verified. Please login again.");
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.alpeerkaraca.authservice.integration;
+
+import com.alpeerkaraca.authservice.AbstractIntegrationTest;
+import com.alpeerkaraca.authservice.dto.UserRegisterRequest;
+import com.alpeerkaraca.authservice.repository.AuthOutboxRepository;
+import com.alpeerkaraca.authservice.repository.UserRepository;
+import com.alpeerkaraca.authservice.service.AuthService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Auth JDBC Batching Tests")
+class AuthBatchingIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthOutboxRepository authOutboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        authOutboxRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should check the email, insert the user and the outbox row, and delete the row in four statements")
+    void registerUser_NewUser_FourStatements() {
+        statistics.clear();
+
+        authService.registerUser(UserRegisterRequest.builder()
+                .email("batching@test.com")
+                .password("Password123!")
+                .firstName("Batching")
+                .lastName("Test")
+                .phoneNumber("+905551234567")
+                .build());
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(userRepository.findByEmail("batching@test.com")).isPresent();
+        assertThat(authOutboxRepository.count()).isZero();
+    }
+}
@@ -12,6 +12,7 @@ import com.alpeerkaraca.common.exception.ConflictException;
 import com.alpeerkaraca.common.exception.InvalidCredentialsException;
 import com.alpeerkaraca.common.exception.InvalidTokenException;
 import com.alpeerkaraca.common.security.JWTService;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -264,5 +265,27 @@ class AuthServiceTest {
         verify(userDetailsService, never()).loadUserByUsername(anyString());
     }
 
-}
+    @Test
+    @DisplayName("Should revoke both access and refresh token on logout")
+    void logout_WithBothTokens_RevokesBoth() {
+        // Act
+        authService.logout("accessToken", new RefreshTokenRequest("refreshToken"));
+
+        // Assert
+        verify(jwtService).revoke("accessToken");
+        verify(jwtService).revoke("refreshToken");
+    }
 
+    @Test
+    @DisplayName("Should throw InvalidTokenException when a token to revoke cannot be verified")
+    void logout_InvalidToken_ThrowsInvalidTokenException() {
+        // Arrange
+        doThrow(new MalformedJwtException("bad token")).when(jwtService).revoke("garbage");
+
+        // Act & Assert
+        assertThatThrownBy(() -> authService.logout("garbage", null))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("Credentials could not be verified");
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.alpeerkaraca.driverservice.dto;
+
+import com.alpeerkaraca.driverservice.model.DriverStatus;
+
+import java.util.UUID;
+
+public record DriverStatusChange(
+        UUID driverId,
+        DriverStatus status,
+        Double longitude,
+        Double latitude
+) {
+}
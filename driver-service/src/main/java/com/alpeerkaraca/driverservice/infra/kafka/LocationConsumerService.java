@@ -1,6 +1,6 @@
 package com.alpeerkaraca.driverservice.infra.kafka;
 
-import com.alpeerkaraca.driverservice.dto.DriverLocationMessage;
+import com.alpeerkaraca.common.event.DriverLocationMessage;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
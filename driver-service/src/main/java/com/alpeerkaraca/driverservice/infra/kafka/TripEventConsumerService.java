@@ -1,58 +1,136 @@
 package com.alpeerkaraca.driverservice.infra.kafka;
 
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
 import com.alpeerkaraca.common.event.TripMessage;
-import com.alpeerkaraca.common.model.InboxStatus;
+import com.alpeerkaraca.common.inbox.IdempotentConsumer;
+import com.alpeerkaraca.common.inbox.InboxBatchClaimer;
+import com.alpeerkaraca.common.inbox.InboxRepository;
+import com.alpeerkaraca.common.kafka.BatchKafkaConfig;
+import com.alpeerkaraca.common.kafka.DeadLetterPublisher;
+import com.alpeerkaraca.common.kafka.KeyOrderedDispatcher;
+import com.alpeerkaraca.common.kafka.SagaRetryableTopic;
 import com.alpeerkaraca.common.model.TripEventTypes;
-import com.alpeerkaraca.driverservice.model.DriverInbox;
+import com.alpeerkaraca.driverservice.dto.DriverStatusChange;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
 import com.alpeerkaraca.driverservice.repository.DriverInboxRepository;
 import com.alpeerkaraca.driverservice.repository.DriverOutboxRepository;
 import com.alpeerkaraca.driverservice.service.DriverStatusService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.EnumUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class TripEventConsumerService {
+public class TripEventConsumerService extends IdempotentConsumer {
     private static final String TOPIC_TRIP_EVENTS = "trip_events";
     private final DriverStatusService driverStatusService;
     private final DriverInboxRepository driverInboxRepository;
     private final DriverOutboxRepository driverOutboxRepository;
-    private final ObjectMapper objectMapper;
+    private final InboxBatchClaimer inboxBatchClaimer;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final OutboxEventDecoder eventDecoder;
 
-    @KafkaListener(topics = TOPIC_TRIP_EVENTS, groupId = "driver-service-group")
-    @Transactional
+    /**
+     * Handles a trip event through the {@link KeyOrderedDispatcher}, which runs it in its own transaction; with
+     * {@code kafka.key-ordered.enabled=true} events of different trips are applied in parallel, while the events of
+     * one trip stay in order. A failed event is retried from the {@link SagaRetryableTopic} delay topics, or
+     * dead-lettered by the dispatcher.
+     */
+    @SagaRetryableTopic
+    @KafkaListener(topics = TOPIC_TRIP_EVENTS, groupId = "driver-service-group",
+            containerFactory = KeyOrderedDispatcher.CONTAINER_FACTORY,
+            autoStartup = "#{!${trip-events.batch.enabled:false}}")
     public void handleTripEvent(
             @Payload String messagePayload,
             @Header("id") String messageId,
-            @Header("eventType") String eventType
+            @Header("eventType") String eventType,
+            ConsumerRecord<?, ?> record,
+            Acknowledgment acknowledgment
     ) {
         log.info("Event received: Type={}, ID={}", eventType, messageId);
-        if (driverInboxRepository.existsById(messageId)) {
-            log.info("Message already processed: {}", messageId);
-            return;
+        keyOrderedDispatcher.dispatch(record, acknowledgment,
+                () -> consumeOnce(messageId, eventType, () -> applyTripEvent(messageId, messagePayload, eventType)));
+    }
+
+    /**
+     * Batch mode of {@link #handleTripEvent}, enabled with {@code trip-events.batch.enabled=true}.
+     * <p>
+     * A poll's worth of trip events is claimed in the inbox with one query and one JDBC batch, and the resulting
+     * driver status changes are written to Redis in one pipeline, all in one transaction. An event that cannot be
+     * read or applied is marked FAILED without holding up the rest of the batch, and sent to the dead-letter topic
+     * once the transaction commits. A failure of the whole batch, such as a Redis error, rolls it back without having
+     * dead-lettered anything; the {@link BatchKafkaConfig} error handler then retries the batch with a backoff and
+     * finally sends all of its records to the dead-letter topic.
+     * </p>
+     *
+     * @param records The polled records; their size is bounded by {@code spring.kafka.consumer.max-poll-records}.
+     */
+    @KafkaListener(id = "driver-trip-events-batch", topics = TOPIC_TRIP_EVENTS, groupId = "driver-service-group",
+            containerFactory = BatchKafkaConfig.CONTAINER_FACTORY, batch = "true",
+            autoStartup = "${trip-events.batch.enabled:false}")
+    @Transactional
+    public void handleTripEvents(List<ConsumerRecord<String, String>> records) {
+        List<ConsumerRecord<String, String>> claimed = inboxBatchClaimer.claim(driverInboxRepository, records,
+                record -> header(record, "id"), record -> header(record, "eventType"));
+
+        List<DriverStatusChange> changes = new ArrayList<>(claimed.size());
+        for (ConsumerRecord<String, String> record : claimed) {
+            String messageId = header(record, "id");
+            try {
+                DriverStatusChange change = statusChange(messageId, record.value(), header(record, "eventType"));
+                if (change != null) {
+                    driverStatusService.validate(change);
+                    changes.add(change);
+                }
+            } catch (Exception e) {
+                log.error("Error occurred while processing trip event: {}", messageId, e);
+                markFailed(messageId);
+                deadLetterPublisher.publishAfterCommit(record, e);
+            }
+        }
+        driverStatusService.updateDriverStatuses(changes);
+        log.info("Processed {} of {} trip events, {} driver status changes", claimed.size(), records.size(), changes.size());
+    }
+
+    @Override
+    protected InboxRepository<?> inboxRepository() {
+        return driverInboxRepository;
+    }
+
+    private void applyTripEvent(String messageId, String messagePayload, String eventType) {
+        DriverStatusChange change = statusChange(messageId, messagePayload, eventType);
+        if (change != null) {
+            driverStatusService.updateDriverStatus(change.driverId(), change.status(), change.longitude(), change.latitude());
         }
+    }
+
+    /**
+     * Maps a trip event to the status its driver moves to.
+     *
+     * @return The status change, or {@code null} if the event does not change the driver's status.
+     */
+    private DriverStatusChange statusChange(String messageId, String messagePayload, String eventType) {
         try {
-            JsonNode rootNode = objectMapper.readTree(messagePayload);
-            if (!rootNode.has("payload") || rootNode.get("payload").isNull()) {
+            TripMessage event = eventDecoder.decode(messagePayload, TripMessage.class);
+            if (event == null) {
                 log.warn("Payload is empty, skipping.");
-                return;
+                return null;
             }
-            String innerJson = rootNode.get("payload").asText();
-
-            TripMessage event = objectMapper.readValue(innerJson, TripMessage.class);
             UUID driverId = event.getDriverId();
             TripEventTypes type = EnumUtils.getEnum(TripEventTypes.class, eventType);
 
@@ -60,27 +138,24 @@ public class TripEventConsumerService {
                 switch (event.getEventType()) {
                     case TRIP_ACCEPTED, TRIP_STARTED:
                         log.info("Trip accepted/started event received. Driver {} setting as BUSY .", driverId);
-                        driverStatusService.updateDriverStatus(driverId, DriverStatus.BUSY, event.getCurrentLongitude(), event.getCurrentLatitude());
-                        break;
+                        return new DriverStatusChange(driverId, DriverStatus.BUSY, event.getCurrentLongitude(), event.getCurrentLatitude());
                     case TRIP_COMPLETED, TRIP_CANCELLED:
                         log.info("Trip completed/cancelled event received. Driver {} setting as ONLINE .", driverId);
-                        driverStatusService.updateDriverStatus(driverId, DriverStatus.ONLINE, event.getCurrentLongitude(), event.getCurrentLatitude());
-                        break;
+                        return new DriverStatusChange(driverId, DriverStatus.ONLINE, event.getCurrentLongitude(), event.getCurrentLatitude());
                     default:
                         log.warn("Unknown trip event type received: {}", eventType);
                 }
             } else {
                 log.warn("Event type mismatch: expected {}, but got {}", event.getEventType(), eventType);
             }
-
-            DriverInbox inboxEntry = new DriverInbox();
-            inboxEntry.setMessageId(messageId);
-            inboxEntry.setEventType(eventType);
-            inboxEntry.setProcessedAt(Instant.now());
-            inboxEntry.setStatus(InboxStatus.COMPLETED);
-            driverInboxRepository.save(inboxEntry);
-        } catch (Exception e) {
-            log.error("Error occurred while processing trip event: {}", eventType, e);
+            return null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable trip event " + messageId, e);
         }
     }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        var header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
 }
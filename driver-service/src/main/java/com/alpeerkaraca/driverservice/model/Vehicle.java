@@ -1,6 +1,7 @@
 package com.alpeerkaraca.driverservice.model;
 
 import com.alpeerkaraca.common.model.BaseClass;
+import com.alpeerkaraca.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,7 +18,7 @@ import java.util.UUID;
 public class Vehicle extends BaseClass {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID vehicleId;
 
     private String brand;
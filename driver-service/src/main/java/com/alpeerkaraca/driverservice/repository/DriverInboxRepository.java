@@ -1,9 +1,25 @@
 package com.alpeerkaraca.driverservice.repository;
 
+import com.alpeerkaraca.common.inbox.InboxRepository;
 import com.alpeerkaraca.driverservice.model.DriverInbox;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
 
 @Repository
-public interface DriverInboxRepository extends JpaRepository<DriverInbox, String> {
+public interface DriverInboxRepository extends InboxRepository<DriverInbox> {
+
+    @Override
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO driver_inbox (message_id, event_type, status, processed_at, message_day) "
+            + "SELECT :messageId, :eventType, " + COMPLETED_STATUS + ", now(), :messageDay "
+            + "WHERE NOT EXISTS (SELECT 1 FROM driver_inbox WHERE message_id = :messageId) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("messageId") String messageId, @Param("eventType") String eventType,
+              @Param("messageDay") LocalDate messageDay);
 }
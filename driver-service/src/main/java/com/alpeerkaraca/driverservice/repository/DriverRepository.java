@@ -3,11 +3,13 @@ package com.alpeerkaraca.driverservice.repository;
 import com.alpeerkaraca.driverservice.model.Driver;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface DriverRepository extends JpaRepository<Driver, UUID> {
+    @Transactional(readOnly = true)
     Optional<Driver> findDriverByDriverId(UUID driverId);
 }
@@ -1,6 +1,6 @@
 package com.alpeerkaraca.driverservice.service;
 
-import com.alpeerkaraca.driverservice.dto.DriverLocationMessage;
+import com.alpeerkaraca.common.event.DriverLocationMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -1,12 +1,16 @@
 package com.alpeerkaraca.driverservice.service;
 
 import com.alpeerkaraca.common.exception.InvalidStatusException;
+import com.alpeerkaraca.driverservice.dto.DriverStatusChange;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.geo.Point;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -41,30 +45,77 @@ public class DriverStatusService {
      * @throws InvalidStatusException If location data is missing when switching to ONLINE or BUSY.
      */
     public void updateDriverStatus(UUID driverId, DriverStatus status, Double longitude, Double latitude) {
+        validate(status, longitude, latitude);
+        apply(redisTemplate, driverId, status, longitude, latitude);
+    }
+
+    /**
+     * Applies several status changes in one pipelined round trip to Redis, in the given order.
+     * <p>
+     * Every change is validated before anything is sent, so an invalid change leaves all drivers untouched.
+     * Used by the batch consumer of trip events, which checks each change with {@link #validate(DriverStatusChange)}
+     * first so that one bad event does not fail the whole batch.
+     * </p>
+     *
+     * @param changes The status changes, in the order they happened.
+     * @throws InvalidStatusException If a change to ONLINE or BUSY has no location.
+     */
+    public void updateDriverStatuses(List<DriverStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.forEach(this::validate);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                changes.forEach(change -> apply(redis, change.driverId(), change.status(),
+                        change.longitude(), change.latitude()));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Checks that a status change can be applied.
+     *
+     * @param change The status change.
+     * @throws InvalidStatusException If a change to ONLINE or BUSY has no location.
+     */
+    public void validate(DriverStatusChange change) {
+        validate(change.status(), change.longitude(), change.latitude());
+    }
+
+    private static void validate(DriverStatus status, Double longitude, Double latitude) {
+        if (status == DriverStatus.ONLINE && (latitude == null || longitude == null)) {
+            throw new InvalidStatusException("Location data is required when going online.");
+        }
+        if (status == DriverStatus.BUSY && (latitude == null || longitude == null)) {
+            throw new InvalidStatusException("Location data is required when status is busy.");
+        }
+    }
+
+    private static void apply(RedisOperations<String, String> redis, UUID driverId, DriverStatus status,
+                              Double longitude, Double latitude) {
         String driverIdStr = driverId.toString();
         String statusKey = KEY_DRIVER_STATUS + driverIdStr;
 
         switch (status) {
             case ONLINE -> {
-                if (latitude == null || longitude == null) {
-                    throw new InvalidStatusException("Location data is required when going online.");
-                }
-                redisTemplate.opsForValue().set(statusKey, status.name());
+                redis.opsForValue().set(statusKey, status.name());
                 // Add to available drivers map
-                redisTemplate.opsForGeo().add(
+                redis.opsForGeo().add(
                         KEY_ONLINE_DRIVERS_GEO,
                         new Point(longitude, latitude),
                         driverIdStr
                 );
             }
             case BUSY -> {
-                if (latitude == null || longitude == null) {
-                    throw new InvalidStatusException("Location data is required when status is busy.");
-                }
-                redisTemplate.opsForValue().set(statusKey, status.name());
+                redis.opsForValue().set(statusKey, status.name());
                 // Remove from available list, add to busy list (for analytics or tracking)
-                redisTemplate.opsForGeo().remove(KEY_ONLINE_DRIVERS_GEO, driverIdStr);
-                redisTemplate.opsForGeo().add(
+                redis.opsForGeo().remove(KEY_ONLINE_DRIVERS_GEO, driverIdStr);
+                redis.opsForGeo().add(
                         KEY_BUSY_DRIVERS_GEO,
                         new Point(longitude, latitude),
                         driverIdStr
@@ -72,10 +123,10 @@ public class DriverStatusService {
             }
             case null, default -> {
                 // Remove from everywhere when offline
-                redisTemplate.delete(statusKey);
-                redisTemplate.opsForGeo().remove(KEY_ONLINE_DRIVERS_GEO, driverIdStr);
-                redisTemplate.opsForGeo().remove(KEY_BUSY_DRIVERS_GEO, driverIdStr);
+                redis.delete(statusKey);
+                redis.opsForGeo().remove(KEY_ONLINE_DRIVERS_GEO, driverIdStr);
+                redis.opsForGeo().remove(KEY_BUSY_DRIVERS_GEO, driverIdStr);
             }
         }
     }
-}
\ No newline at end of file
+}
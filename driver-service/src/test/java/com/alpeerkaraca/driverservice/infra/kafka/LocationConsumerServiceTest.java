@@ -1,6 +1,6 @@
 package com.alpeerkaraca.driverservice.infra.kafka;
 
-import com.alpeerkaraca.driverservice.dto.DriverLocationMessage;
+import com.alpeerkaraca.common.event.DriverLocationMessage;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
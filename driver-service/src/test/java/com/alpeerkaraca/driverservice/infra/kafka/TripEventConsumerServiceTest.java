@@ -1,25 +1,36 @@
 // file: driver-service/src/test/java/com/alpeerkaraca/driverservice/infra/kafka/TripEventConsumerServiceTest.java
 package com.alpeerkaraca.driverservice.infra.kafka;
 
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
 import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.exception.InvalidStatusException;
+import com.alpeerkaraca.common.inbox.InboxBatchClaimer;
+import com.alpeerkaraca.common.kafka.DeadLetterPublisher;
+import com.alpeerkaraca.common.kafka.KeyOrderedDispatcher;
+import com.alpeerkaraca.common.model.InboxStatus;
 import com.alpeerkaraca.common.model.TripEventTypes;
+import com.alpeerkaraca.driverservice.dto.DriverStatusChange;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
 import com.alpeerkaraca.driverservice.repository.DriverInboxRepository;
 import com.alpeerkaraca.driverservice.service.DriverStatusService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -27,25 +38,30 @@ import static org.mockito.Mockito.*;
 @DisplayName("TripEventConsumerService Tests")
 class TripEventConsumerServiceTest {
 
+    private static final ConsumerRecord<String, String> TRIP_RECORD =
+            new ConsumerRecord<>("trip_events", 0, 0L, "trip-1", "OUTER");
+
     private final double TEST_LATITUDE = 1.23;
     private final double TEST_LONGITUDE = 0.56;
 
     @Mock
     private DriverStatusService driverStatusService;
     @Mock
-    private ObjectMapper objectMapper;
+    private OutboxEventDecoder eventDecoder;
     @Mock
     private DriverInboxRepository driverInboxRepository;
+    @Mock
+    private InboxBatchClaimer inboxBatchClaimer;
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+    @Mock
+    private Acknowledgment acknowledgment;
+    @Spy
+    private KeyOrderedDispatcher keyOrderedDispatcher = new KeyOrderedDispatcher(null, null, null, false, 1, 1, 0);
 
     @InjectMocks
     private TripEventConsumerService tripEventConsumerService;
 
-    private JsonNode wrappedPayloadJson(String innerJson) {
-        ObjectNode root = new ObjectMapper().createObjectNode();
-        root.put("payload", innerJson);
-        return root;
-    }
-
     @Test
     @DisplayName("Should set driver status to BUSY when trip is accepted")
     void handleTripEvent_WhenTripAccepted_SetsDriverToBusy() throws Exception {
@@ -64,11 +80,10 @@ class TripEventConsumerServiceTest {
                 TEST_LONGITUDE
         );
 
-        when(driverInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
-        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_ACCEPTED");
+        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_ACCEPTED", TRIP_RECORD, acknowledgment);
 
         verify(driverStatusService).updateDriverStatus(
                 driverId,
@@ -76,6 +91,7 @@ class TripEventConsumerServiceTest {
                 message.getCurrentLongitude(),
                 message.getCurrentLatitude()
         );
+        verify(acknowledgment).acknowledge();
     }
 
     @Test
@@ -96,11 +112,10 @@ class TripEventConsumerServiceTest {
                 TEST_LONGITUDE
         );
 
-        when(driverInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
-        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_STARTED");
+        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_STARTED", TRIP_RECORD, acknowledgment);
 
         verify(driverStatusService).updateDriverStatus(
                 driverId,
@@ -128,11 +143,10 @@ class TripEventConsumerServiceTest {
                 TEST_LONGITUDE
         );
 
-        when(driverInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
-        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_COMPLETED");
+        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_COMPLETED", TRIP_RECORD, acknowledgment);
 
         verify(driverStatusService).updateDriverStatus(
                 driverId,
@@ -160,11 +174,10 @@ class TripEventConsumerServiceTest {
                 TEST_LONGITUDE
         );
 
-        when(driverInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
-        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_CANCELLED");
+        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_CANCELLED", TRIP_RECORD, acknowledgment);
 
         verify(driverStatusService).updateDriverStatus(
                 driverId,
@@ -192,18 +205,17 @@ class TripEventConsumerServiceTest {
                 TEST_LONGITUDE
         );
 
-        when(driverInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
-        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "UNKNOWN_EVENT");
+        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "UNKNOWN_EVENT", TRIP_RECORD, acknowledgment);
 
         verify(driverStatusService, never()).updateDriverStatus(any(), any(), anyDouble(), anyDouble());
     }
 
     @Test
-    @DisplayName("Should handle exceptions gracefully")
-    void handleTripEvent_WhenExceptionOccurs_HandlesGracefully() throws Exception {
+    @DisplayName("Should rethrow a failure so the record is retried from the retry topics")
+    void handleTripEvent_WhenExceptionOccurs_Rethrows() throws Exception {
         UUID driverId = UUID.randomUUID();
         UUID tripId = UUID.randomUUID();
         UUID passengerId = UUID.randomUUID();
@@ -219,9 +231,8 @@ class TripEventConsumerServiceTest {
                 TEST_LONGITUDE
         );
 
-        when(driverInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
         doThrow(new RuntimeException("Redis connection failed"))
                 .when(driverStatusService)
@@ -232,7 +243,10 @@ class TripEventConsumerServiceTest {
                         message.getCurrentLatitude()
                 );
 
-        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_ACCEPTED");
+        String messageId = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> tripEventConsumerService.handleTripEvent(
+                "OUTER", messageId, "TRIP_ACCEPTED", TRIP_RECORD, acknowledgment))
+                .hasMessage("Redis connection failed");
 
         verify(driverStatusService).updateDriverStatus(
                 driverId,
@@ -240,5 +254,92 @@ class TripEventConsumerServiceTest {
                 message.getCurrentLongitude(),
                 message.getCurrentLatitude()
         );
+        verify(driverInboxRepository, never()).updateStatus(any(), any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("Should skip a message whose id was already claimed")
+    void handleTripEvent_WhenAlreadyClaimed_SkipsProcessing() throws Exception {
+        when(driverInboxRepository.claim(anyString(), anyString(), any())).thenReturn(0);
+
+        tripEventConsumerService.handleTripEvent("OUTER", UUID.randomUUID().toString(), "TRIP_ACCEPTED", TRIP_RECORD, acknowledgment);
+
+        verify(eventDecoder, never()).decode(anyString(), any());
+        verifyNoInteractions(driverStatusService);
+    }
+
+    @Test
+    @DisplayName("Should apply the status changes of a claimed batch in one call")
+    void handleTripEvents_ClaimedBatch_UpdatesStatusesTogether() throws Exception {
+        UUID acceptedDriver = UUID.randomUUID();
+        UUID completedDriver = UUID.randomUUID();
+        when(inboxBatchClaimer.claim(eq(driverInboxRepository), anyList(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(eventDecoder.decode("V1", TripMessage.class)).thenReturn(tripMessage(TripEventTypes.TRIP_ACCEPTED, acceptedDriver));
+        when(eventDecoder.decode("V2", TripMessage.class)).thenReturn(tripMessage(TripEventTypes.TRIP_COMPLETED, completedDriver));
+
+        tripEventConsumerService.handleTripEvents(List.of(
+                record("m1", "TRIP_ACCEPTED", "V1"),
+                record("m2", "TRIP_COMPLETED", "V2")));
+
+        verify(driverStatusService).updateDriverStatuses(List.of(
+                new DriverStatusChange(acceptedDriver, DriverStatus.BUSY, TEST_LONGITUDE, TEST_LATITUDE),
+                new DriverStatusChange(completedDriver, DriverStatus.ONLINE, TEST_LONGITUDE, TEST_LATITUDE)));
+        verify(driverStatusService, never()).updateDriverStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should mark an unreadable event of a batch FAILED, dead-letter it after commit and apply the others")
+    void handleTripEvents_UnreadableEvent_MarksFailedAndContinues() throws Exception {
+        UUID driverId = UUID.randomUUID();
+        when(inboxBatchClaimer.claim(eq(driverInboxRepository), anyList(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(eventDecoder.decode("BROKEN", TripMessage.class)).thenThrow(new JsonParseException(null, "broken"));
+        when(eventDecoder.decode("V2", TripMessage.class)).thenReturn(tripMessage(TripEventTypes.TRIP_STARTED, driverId));
+
+        tripEventConsumerService.handleTripEvents(List.of(
+                record("m1", "TRIP_STARTED", "BROKEN"),
+                record("m2", "TRIP_STARTED", "V2")));
+
+        verify(driverInboxRepository).updateStatus("m1", InboxStatus.FAILED);
+        verify(deadLetterPublisher).publishAfterCommit(argThat(record -> "BROKEN".equals(record.value())), any());
+        verify(driverStatusService).updateDriverStatuses(List.of(
+                new DriverStatusChange(driverId, DriverStatus.BUSY, TEST_LONGITUDE, TEST_LATITUDE)));
+    }
+
+    @Test
+    @DisplayName("Should dead-letter only the event of a batch whose status change is invalid")
+    void handleTripEvents_InvalidStatusChange_DeadLettersOnlyThatEvent() throws Exception {
+        UUID invalidDriver = UUID.randomUUID();
+        UUID driverId = UUID.randomUUID();
+        when(inboxBatchClaimer.claim(eq(driverInboxRepository), anyList(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(eventDecoder.decode("V1", TripMessage.class)).thenReturn(tripMessage(TripEventTypes.TRIP_STARTED, invalidDriver));
+        when(eventDecoder.decode("V2", TripMessage.class)).thenReturn(tripMessage(TripEventTypes.TRIP_COMPLETED, driverId));
+        lenient().doThrow(new InvalidStatusException("Location data is required when status is busy."))
+                .when(driverStatusService).validate(argThat(change -> invalidDriver.equals(change.driverId())));
+
+        tripEventConsumerService.handleTripEvents(List.of(
+                record("m1", "TRIP_STARTED", "V1"),
+                record("m2", "TRIP_COMPLETED", "V2")));
+
+        verify(driverInboxRepository).updateStatus("m1", InboxStatus.FAILED);
+        verify(deadLetterPublisher).publishAfterCommit(argThat(record -> "V1".equals(record.value())),
+                isA(InvalidStatusException.class));
+        verify(driverStatusService).updateDriverStatuses(List.of(
+                new DriverStatusChange(driverId, DriverStatus.ONLINE, TEST_LONGITUDE, TEST_LATITUDE)));
+    }
+
+    private TripMessage tripMessage(TripEventTypes type, UUID driverId) {
+        return new TripMessage(type, UUID.randomUUID(), driverId, Instant.now(), BigDecimal.ZERO,
+                UUID.randomUUID(), TEST_LONGITUDE, TEST_LATITUDE);
+    }
+
+    private static ConsumerRecord<String, String> record(String messageId, String eventType, String value) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("trip_events", 0, 0L, "key", value);
+        record.headers().add("id", messageId.getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,9 @@
 package com.alpeerkaraca.driverservice.integration;
 
+import com.alpeerkaraca.common.event.DriverLocationMessage;
 import com.alpeerkaraca.common.event.TripMessage;
 import com.alpeerkaraca.common.model.TripEventTypes;
 import com.alpeerkaraca.driverservice.AbstractIntegrationTest;
-import com.alpeerkaraca.driverservice.dto.DriverLocationMessage;
 import com.alpeerkaraca.driverservice.dto.DriverUpdateStatus;
 import com.alpeerkaraca.driverservice.model.Driver;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
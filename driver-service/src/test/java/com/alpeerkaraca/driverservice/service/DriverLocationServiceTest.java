@@ -1,6 +1,6 @@
 package com.alpeerkaraca.driverservice.service;
 
-import com.alpeerkaraca.driverservice.dto.DriverLocationMessage;
+import com.alpeerkaraca.common.event.DriverLocationMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -1,19 +1,23 @@
 package com.alpeerkaraca.driverservice.service;
 
 import com.alpeerkaraca.common.exception.InvalidStatusException;
+import com.alpeerkaraca.driverservice.dto.DriverStatusChange;
 import com.alpeerkaraca.driverservice.model.DriverStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.core.GeoOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -111,5 +115,41 @@ class DriverStatusServiceTest {
                 point.getX() == longitude && point.getY() == latitude
         ), eq(testDriverId.toString()));
     }
-}
 
+    @Test
+    @DisplayName("Should apply a batch of status changes in one pipeline, in order")
+    @SuppressWarnings("unchecked")
+    void updateDriverStatuses_Batch_AppliesInOnePipeline() {
+        // Arrange
+        UUID otherDriverId = UUID.randomUUID();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<Object>>getArgument(0).execute(redisTemplate);
+            return List.of();
+        });
+
+        // Act
+        driverStatusService.updateDriverStatuses(List.of(
+                new DriverStatusChange(testDriverId, DriverStatus.BUSY, 28.97, 41.01),
+                new DriverStatusChange(otherDriverId, DriverStatus.ONLINE, 29.02, 41.05),
+                new DriverStatusChange(testDriverId, DriverStatus.ONLINE, 28.98, 41.02)));
+
+        // Assert
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        InOrder inOrder = inOrder(valueOperations);
+        inOrder.verify(valueOperations).set("driver:status:" + testDriverId, DriverStatus.BUSY.name());
+        inOrder.verify(valueOperations).set("driver:status:" + otherDriverId, DriverStatus.ONLINE.name());
+        inOrder.verify(valueOperations).set("driver:status:" + testDriverId, DriverStatus.ONLINE.name());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch with a change missing its location before writing any of it")
+    void updateDriverStatuses_MissingLocation_WritesNothing() {
+        // Act & Assert
+        assertThatThrownBy(() -> driverStatusService.updateDriverStatuses(List.of(
+                new DriverStatusChange(testDriverId, DriverStatus.ONLINE, 28.97, 41.01),
+                new DriverStatusChange(UUID.randomUUID(), DriverStatus.BUSY, null, null))))
+                .isInstanceOf(InvalidStatusException.class);
+
+        verify(redisTemplate, never()).executePipelined(any(SessionCallback.class));
+    }
+}
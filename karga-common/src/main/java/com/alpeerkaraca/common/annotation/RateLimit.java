@@ -1,5 +1,7 @@
 package com.alpeerkaraca.common.annotation;
 
+import com.alpeerkaraca.common.ratelimit.RateLimitAlgorithm;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -16,4 +18,17 @@ public @interface RateLimit {
     String key() default ""; // How to specify limit (login, register?)
 
     TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * {@link RateLimitAlgorithm#GCRA} and {@link RateLimitAlgorithm#SLIDING_WINDOW_COUNTER} keep constant memory
+     * per key; the default sliding log is exact but stores one entry per request.
+     */
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.SLIDING_LOG;
+
+    /**
+     * Share of {@link #limit()} each instance leases from Redis at once and spends locally, e.g. {@code 0.1}.
+     * The default {@code 0} asks Redis on every request. Larger values save Redis calls on high-QPS endpoints at
+     * the cost of accuracy (see {@link com.alpeerkaraca.common.ratelimit.LeasedRateLimiter}).
+     */
+    double leaseFraction() default 0;
 }
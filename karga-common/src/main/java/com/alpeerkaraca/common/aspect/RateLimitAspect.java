@@ -3,28 +3,34 @@ package com.alpeerkaraca.common.aspect;
 
 import com.alpeerkaraca.common.annotation.RateLimit;
 import com.alpeerkaraca.common.exception.RateLimitExceededException;
+import com.alpeerkaraca.common.ratelimit.LeasedRateLimiter;
+import com.alpeerkaraca.common.ratelimit.RateLimitDecision;
+import com.alpeerkaraca.common.ratelimit.RateLimitFilter;
+import com.alpeerkaraca.common.ratelimit.RateLimitKeys;
+import com.alpeerkaraca.common.ratelimit.RedisRateLimiter;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.util.concurrent.TimeUnit;
 
 @Aspect
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class RateLimitAspect {
-    private final RedisTemplate<String, String> redisTemplate;
+    private static final String HEADER_LIMIT = "X-RateLimit-Limit";
+    private static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+
+    private final RedisRateLimiter rateLimiter;
+    private final LeasedRateLimiter leasedRateLimiter;
     @Value("${rate-limit.enabled:true}")
     private boolean rateLimitEnabled;
 
@@ -33,6 +39,16 @@ public class RateLimitAspect {
      * If the number of requests from a single user exceeds the allowed limit within the specified time frame,
      * a {@link RateLimitExceededException} will be thrown.
      *
+     * <p>
+     * The check is a single atomic Redis script call using the annotation's algorithm (see
+     * {@link RedisRateLimiter}), or a local lease when the annotation sets a {@code leaseFraction} (see
+     * {@link LeasedRateLimiter}). The remaining quota is returned in the {@code X-RateLimit-Remaining} header and
+     * rejections carry a {@code Retry-After}.
+     * If Redis is unavailable the request is let through. Limits already enforced by {@link RateLimitFilter}
+     * for the current request are skipped, and so are calls outside a servlet request without an authenticated
+     * user, since there is no caller to count them against.
+     * </p>
+     *
      * @param joinPoint the join point representing the method being intercepted
      * @param rateLimit the rate limit configuration specified by the {@code @RateLimit} annotation
      * @throws RateLimitExceededException if the rate limit is exceeded for the identified user
@@ -42,51 +58,55 @@ public class RateLimitAspect {
         if (!rateLimitEnabled) {
             return;
         }
-        String identifier = getIdentifier();
-        String key = "rate_limit:" + rateLimit.key() + ":" + identifier;
-        long limit = rateLimit.limit();
+        HttpServletRequest request = currentRequest();
+        if (request != null && rateLimit.key().equals(request.getAttribute(RateLimitFilter.APPLIED_RULE_ATTRIBUTE))) {
+            return;
+        }
+        String caller = RateLimitKeys.identify(request);
+        if (caller == null) {
+            log.debug("No request or authenticated user to rate limit {} by, skipping", rateLimit.key());
+            return;
+        }
+        String key = RateLimitKeys.of(rateLimit.key(), caller);
         long windowSizeMillis = rateLimit.unit().toMillis(rateLimit.duration());
-        long currentTime = System.currentTimeMillis();
 
+        RateLimitDecision decision;
         try {
-            redisTemplate.opsForZSet().removeRangeByScore(key, 0, currentTime - windowSizeMillis);
-
-            Long currentCount = redisTemplate.opsForZSet().zCard(key);
-
-            if (currentCount != null && currentCount >= limit) {
-                log.warn("Rate limit exceeded! User: {}, Key: {}", identifier, key);
-                throw new RateLimitExceededException("You've sent too many requests. Please try again later.");
+            if (rateLimit.leaseFraction() > 0) {
+                decision = leasedRateLimiter.tryAcquire(key, rateLimit.limit(), windowSizeMillis,
+                        rateLimit.algorithm(), rateLimit.leaseFraction());
+            } else {
+                decision = rateLimiter.tryAcquire(key, rateLimit.limit(), windowSizeMillis, rateLimit.algorithm());
             }
-
-            redisTemplate.opsForZSet().add(key, String.valueOf(currentTime), currentTime);
-
-            redisTemplate.expire(key, windowSizeMillis, TimeUnit.MILLISECONDS);
-        } catch (RateLimitExceededException e) {
-            throw e;
         } catch (Exception e) {
             log.error("Rate limit check failed:", e);
+            return;
         }
-    }
 
+        HttpServletResponse response = currentResponse();
+        if (response != null) {
+            response.setHeader(HEADER_LIMIT, String.valueOf(rateLimit.limit()));
+            response.setHeader(HEADER_REMAINING, String.valueOf(decision.remaining()));
+        }
+        if (!decision.allowed()) {
+            log.warn("Rate limit exceeded! Key: {}", key);
+            throw new RateLimitExceededException("You've sent too many requests. Please try again later.",
+                    decision.retryAfterMillis());
+        }
+    }
 
-    /**
-     * Retrieves the identifier for the current user or client. If the user is authenticated, their username is returned.
-     * Otherwise, it attempts to extract the identifier from the "X-Forwarded-For" header or the remote address of the request.
-     *
-     * @return the identifier for the user or client, derived from the authenticated principal,
-     * the "X-Forwarded-For" header, or the remote address of the request
-     */
-    private String getIdentifier() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
-            return auth.getName();
+    private HttpServletRequest currentRequest() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest();
         }
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null) {
-            return xForwardedFor.split(",")[0];
+        return null;
+    }
+
+    private HttpServletResponse currentResponse() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getResponse();
         }
-        return request.getRemoteAddr();
+        return null;
     }
 
 }
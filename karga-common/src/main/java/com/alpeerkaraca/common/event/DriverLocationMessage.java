@@ -1,4 +1,4 @@
-package com.alpeerkaraca.driverservice.dto;
+package com.alpeerkaraca.common.event;
 
 import java.sql.Timestamp;
 import java.util.UUID;
@@ -0,0 +1,110 @@
+package com.alpeerkaraca.common.event;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+
+/**
+ * An outbox event as read from Kafka, decoded in one pass.
+ *
+ * <p>
+ * Debezium's outbox router publishes the {@code payload} column of the outbox row. Three shapes of record value are
+ * accepted, so consumers keep working while connectors are switched over:
+ * </p>
+ * <ul>
+ * <li>{@code {"schema":{...},"payload":"{\"tripId\":...}"}}: a {@code TEXT} payload behind a schema-enabled
+ * {@code JsonConverter}. The event is JSON inside a JSON string and has to be parsed a second time.</li>
+ * <li>{@code {"schema":{...},"payload":{"tripId":...}}}: a {@code jsonb} payload expanded by the router
+ * ({@code table.expand.json.payload}).</li>
+ * <li>{@code {"tripId":...}}: the expanded payload behind a {@code JsonConverter} without schemas, which is how the
+ * connectors in {@code debezium-connectors} are configured.</li>
+ * </ul>
+ * <p>
+ * A value whose first field is {@code schema} or {@code payload} is read as an envelope; anything else is the event
+ * itself. Consumers decode through {@link OutboxEventDecoder}, which keeps one reader per event type.
+ * </p>
+ *
+ * @param payload The event, or {@code null} if the envelope carried none.
+ * @param <T>     The event type.
+ */
+@JsonDeserialize(using = OutboxEnvelope.Deserializer.class)
+public record OutboxEnvelope<T>(T payload) {
+
+    /**
+     * @return The type binding {@code OutboxEnvelope<eventType>}.
+     */
+    public static JavaType type(Class<?> eventType) {
+        return TypeFactory.defaultInstance().constructParametricType(OutboxEnvelope.class, eventType);
+    }
+
+    static final class Deserializer extends JsonDeserializer<OutboxEnvelope<?>> implements ContextualDeserializer {
+
+        private final JsonDeserializer<Object> payloadDeserializer;
+
+        Deserializer() {
+            this(null);
+        }
+
+        private Deserializer(JsonDeserializer<Object> payloadDeserializer) {
+            this.payloadDeserializer = payloadDeserializer;
+        }
+
+        /**
+         * Resolves the deserializer of the event type once, so readers cached per type skip the lookup per message.
+         */
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property)
+                throws JsonMappingException {
+            JavaType envelopeType = property != null ? property.getType() : ctxt.getContextualType();
+            return new Deserializer(ctxt.findRootValueDeserializer(envelopeType.containedTypeOrUnknown(0)));
+        }
+
+        @Override
+        public OutboxEnvelope<?> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken() == JsonToken.START_OBJECT ? p.nextToken() : p.currentToken();
+            if (token == JsonToken.FIELD_NAME && isEnvelopeField(p.currentName())) {
+                return new OutboxEnvelope<>(readEnvelope(p, ctxt));
+            }
+            if (token == JsonToken.END_OBJECT) {
+                return new OutboxEnvelope<>(null);
+            }
+            // The value is the event itself; bean deserializers continue from its first field name.
+            return new OutboxEnvelope<>(payloadDeserializer.deserialize(p, ctxt));
+        }
+
+        private Object readEnvelope(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Object payload = null;
+            for (JsonToken token = p.currentToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!"payload".equals(field)) {
+                    p.skipChildren();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    // Parsed from the parser's own buffer; the payload is never copied into a String.
+                    try (JsonParser inner = p.getCodec().getFactory().createParser(
+                            p.getTextCharacters(), p.getTextOffset(), p.getTextLength())) {
+                        JsonToken first = inner.nextToken();
+                        payload = first == null || first == JsonToken.VALUE_NULL
+                                ? null : payloadDeserializer.deserialize(inner, ctxt);
+                    }
+                } else if (value != JsonToken.VALUE_NULL) {
+                    payload = payloadDeserializer.deserialize(p, ctxt);
+                }
+            }
+            return payload;
+        }
+
+        private static boolean isEnvelopeField(String name) {
+            return "schema".equals(name) || "payload".equals(name);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.alpeerkaraca.common.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decodes outbox events from Kafka record values with Jackson's streaming parser.
+ *
+ * <p>
+ * Each event type gets one {@link ObjectReader} for {@code OutboxEnvelope<type>}, created on first use and reused
+ * afterwards; the reader holds the resolved deserializers, so decoding a message neither looks them up nor builds a
+ * {@code JsonNode} tree. The parser goes straight to the {@code payload} field, or binds the value directly when it
+ * is the event itself. The readers for {@link TripMessage} and {@link PaymentMessage} are created up front.
+ * </p>
+ */
+@Component
+public class OutboxEventDecoder {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public OutboxEventDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        reader(TripMessage.class);
+        reader(PaymentMessage.class);
+    }
+
+    /**
+     * Decodes the event carried by a Kafka record value.
+     *
+     * @param message   The record value.
+     * @param eventType The event class.
+     * @return The event, or {@code null} if the record carried none.
+     * @throws JsonProcessingException If the value is not a readable event.
+     */
+    public <T> T decode(String message, Class<T> eventType) throws JsonProcessingException {
+        OutboxEnvelope<T> envelope = reader(eventType).readValue(message);
+        return envelope == null ? null : envelope.payload();
+    }
+
+    private ObjectReader reader(Class<?> eventType) {
+        return readers.computeIfAbsent(eventType, type -> objectMapper.readerFor(OutboxEnvelope.type(type)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.alpeerkaraca.common.event.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Reads values by their {@code contentType} header: binary events with the {@link EventCodec} of their
+ * {@code schemaFingerprint}, everything else with a fallback deserializer, {@link StringDeserializer} unless
+ * {@code karga.codec.fallback} names another.
+ *
+ * <p>
+ * Producers can therefore switch a topic to the binary format while JSON records are still in it. A binary value
+ * whose fingerprint no registered codec has fails with a {@link SerializationException} instead of being guessed at.
+ * </p>
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private EventCodecs codecs;
+    private Deserializer<Object> fallback;
+
+    @SuppressWarnings("unchecked")
+    public BinaryEventDeserializer() {
+        this(EventCodecs.defaults(), (Deserializer<Object>) (Deserializer<?>) new StringDeserializer());
+    }
+
+    public BinaryEventDeserializer(EventCodecs codecs, Deserializer<Object> fallback) {
+        this.codecs = codecs;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (configs.containsKey(EventCodecs.CODEC_CLASSES_CONFIG)) {
+            codecs = EventCodecs.fromConfig(configs);
+        }
+        fallback = EventCodecs.fallback(configs, fallback);
+        fallback.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return fallback.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || !EventCodecs.isBinary(headers)) {
+            return fallback.deserialize(topic, headers, data);
+        }
+        Header fingerprintHeader = headers.lastHeader(EventCodecs.FINGERPRINT_HEADER);
+        if (fingerprintHeader == null || fingerprintHeader.value().length != Long.BYTES) {
+            throw new SerializationException("Binary event on " + topic + " has no schema fingerprint");
+        }
+        long fingerprint = ByteBuffer.wrap(fingerprintHeader.value()).getLong();
+        EventCodec<?> codec = codecs.forFingerprint(fingerprint);
+        if (codec == null) {
+            throw new SerializationException("No codec for schema fingerprint "
+                    + Long.toHexString(fingerprint) + " on " + topic);
+        }
+        BinaryEventReader reader = new BinaryEventReader(data);
+        Object event = codec.decode(reader);
+        if (!reader.isExhausted()) {
+            throw new SerializationException("Binary " + codec.type().getSimpleName() + " on " + topic
+                    + " has trailing bytes");
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        fallback.close();
+    }
+}
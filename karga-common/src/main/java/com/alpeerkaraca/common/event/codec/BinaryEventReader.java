@@ -0,0 +1,122 @@
+package com.alpeerkaraca.common.event.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Reads the fields {@link BinaryEventWriter} wrote, in the same order. A read that runs past the end of the data or
+ * finds a malformed value throws Kafka's {@link SerializationException}.
+ */
+public final class BinaryEventReader {
+
+    private final byte[] data;
+    private int position;
+
+    public BinaryEventReader(byte[] data) {
+        this.data = data;
+    }
+
+    public long readLong() {
+        require(Long.BYTES);
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public int readInt() {
+        require(Integer.BYTES);
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            byte b = data[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed variable-length int at " + position);
+    }
+
+    public UUID readUuid() {
+        return readPresence() ? new UUID(readLong(), readLong()) : null;
+    }
+
+    public Instant readInstant() {
+        if (!readPresence()) {
+            return null;
+        }
+        long micros = readLong();
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    public double readCoordinate() {
+        return readInt() / BinaryEventWriter.COORDINATE_SCALE;
+    }
+
+    public BigDecimal readDecimal() {
+        if (!readPresence()) {
+            return null;
+        }
+        int zigZag = readVarInt();
+        int scale = (zigZag >>> 1) ^ -(zigZag & 1);
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    public String readString() {
+        return readPresence() ? new String(readBytes(), StandardCharsets.UTF_8) : null;
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        int value = readVarInt();
+        if (value == 0) {
+            return null;
+        }
+        E[] constants = type.getEnumConstants();
+        if (value > constants.length) {
+            throw new SerializationException("No " + type.getSimpleName() + " with ordinal " + (value - 1));
+        }
+        return constants[value - 1];
+    }
+
+    /**
+     * @return {@code true} once every byte of the data has been read.
+     */
+    public boolean isExhausted() {
+        return position == data.length;
+    }
+
+    private byte[] readBytes() {
+        int length = readVarInt();
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(data, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    private boolean readPresence() {
+        require(1);
+        return data[position++] != 0;
+    }
+
+    private void require(int bytes) {
+        if (bytes < 0 || position + bytes > data.length) {
+            throw new SerializationException("Binary event truncated at " + position + " of " + data.length + " bytes");
+        }
+    }
+}
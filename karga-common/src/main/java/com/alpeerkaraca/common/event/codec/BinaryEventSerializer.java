@@ -0,0 +1,79 @@
+package com.alpeerkaraca.common.event.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Writes events that have an {@link EventCodec} in the binary event format and everything else with a fallback
+ * serializer, {@link JsonSerializer} unless {@code karga.codec.fallback} names another.
+ *
+ * <p>
+ * A binary value is marked with the {@code contentType} and {@code schemaFingerprint} headers described in
+ * {@link EventCodecs}, which {@link BinaryEventDeserializer} negotiates on. Set {@code karga.codec.write-binary} to
+ * {@code false} to write JSON only, e.g. while consumers without the deserializer still read the topic.
+ * </p>
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    private EventCodecs codecs;
+    private Serializer<Object> fallback;
+    private boolean writeBinary = true;
+
+    public BinaryEventSerializer() {
+        this(EventCodecs.defaults(), new JsonSerializer<>());
+    }
+
+    public BinaryEventSerializer(EventCodecs codecs, Serializer<Object> fallback) {
+        this.codecs = codecs;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (configs.containsKey(EventCodecs.CODEC_CLASSES_CONFIG)) {
+            codecs = EventCodecs.fromConfig(configs);
+        }
+        fallback = EventCodecs.fallback(configs, fallback);
+        fallback.configure(configs, isKey);
+        Object writeBinaryConfig = configs.get(EventCodecs.WRITE_BINARY_CONFIG);
+        if (writeBinaryConfig != null) {
+            writeBinary = Boolean.parseBoolean(writeBinaryConfig.toString());
+        }
+    }
+
+    /**
+     * Without headers to mark the format in, values are always written by the fallback.
+     */
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return fallback.serialize(topic, data);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        EventCodec<Object> codec = data == null || !writeBinary ? null : (EventCodec<Object>) codecs.forType(data.getClass());
+        if (EventCodecs.isBinary(headers)) {
+            // Headers copied from a binary record, e.g. when a failed record is forwarded to a retry topic.
+            headers.remove(EventCodecs.CONTENT_TYPE_HEADER);
+            headers.remove(EventCodecs.FINGERPRINT_HEADER);
+        }
+        if (codec == null) {
+            return fallback.serialize(topic, headers, data);
+        }
+        BinaryEventWriter writer = new BinaryEventWriter();
+        codec.encode(data, writer);
+        headers.add(EventCodecs.CONTENT_TYPE_HEADER, EventCodecs.binaryContentType());
+        headers.add(EventCodecs.FINGERPRINT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(codec.fingerprint()).array());
+        return writer.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        fallback.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.alpeerkaraca.common.event.codec;
+
+import com.alpeerkaraca.common.event.DriverLocationMessage;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+public class DriverLocationMessageCodec implements EventCodec<DriverLocationMessage> {
+
+    private static final String SCHEMA =
+            "DriverLocationMessage{driverId:uuid,latitude:coordinate,longitude:coordinate,timestamp:instant}";
+
+    @Override
+    public Class<DriverLocationMessage> type() {
+        return DriverLocationMessage.class;
+    }
+
+    @Override
+    public String schema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public void encode(DriverLocationMessage event, BinaryEventWriter writer) {
+        writer.writeUuid(event.driverId())
+                .writeCoordinate(event.latitude())
+                .writeCoordinate(event.longitude())
+                .writeInstant(event.timestamp() == null ? null : event.timestamp().toInstant());
+    }
+
+    @Override
+    public DriverLocationMessage decode(BinaryEventReader reader) {
+        return new DriverLocationMessage(
+                reader.readUuid(),
+                reader.readCoordinate(),
+                reader.readCoordinate(),
+                toTimestamp(reader.readInstant()));
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+}
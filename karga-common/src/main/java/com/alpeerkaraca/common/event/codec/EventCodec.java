@@ -0,0 +1,52 @@
+package com.alpeerkaraca.common.event.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Binary form of one event class, used by {@link BinaryEventSerializer} and {@link BinaryEventDeserializer}.
+ *
+ * <p>
+ * The {@link #schema()} describes the fields in the order they are written. Its {@link #fingerprint()} travels with
+ * every record, so a consumer only decodes values written with the schema it knows. A change to the fields, their
+ * order or encoding, or the constants of an enum field, must change the schema; the old codec can stay registered
+ * next to the new one until the topic has drained.
+ * </p>
+ *
+ * @param <T> The event class.
+ */
+public interface EventCodec<T> {
+
+    Class<T> type();
+
+    /**
+     * @return The field list, e.g. {@code TripMessage{tripId:uuid,fare:decimal}}.
+     */
+    String schema();
+
+    void encode(T event, BinaryEventWriter writer);
+
+    T decode(BinaryEventReader reader);
+
+    /**
+     * @return The 64-bit FNV-1a hash of the schema.
+     */
+    default long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : schema().getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @return The schema type of an enum field, listing its constants in ordinal order.
+     */
+    static String enumSchema(Class<? extends Enum<?>> type) {
+        return Arrays.stream(type.getEnumConstants())
+                .map(Enum::name)
+                .collect(Collectors.joining("|", "enum(", ")"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.alpeerkaraca.common.event.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The codecs a {@link BinaryEventSerializer} or {@link BinaryEventDeserializer} knows, by event class and by
+ * fingerprint, and the headers that mark a binary record.
+ *
+ * <p>
+ * A binary record carries {@code contentType: application/vnd.karga.event+binary} and the codec's fingerprint as an
+ * 8-byte {@code schemaFingerprint} header; records without them are left to the fallback (de)serializer. The codecs
+ * are configured with {@code karga.codec.classes}, a comma-separated list of {@link EventCodec} classes with a public
+ * no-argument constructor, and default to those of {@code TripMessage}, {@code PaymentMessage} and
+ * {@code DriverLocationMessage}.
+ * </p>
+ */
+public final class EventCodecs {
+
+    public static final String CONTENT_TYPE_HEADER = "contentType";
+    public static final String FINGERPRINT_HEADER = "schemaFingerprint";
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.karga.event+binary";
+
+    public static final String CODEC_CLASSES_CONFIG = "karga.codec.classes";
+    public static final String FALLBACK_CONFIG = "karga.codec.fallback";
+    public static final String WRITE_BINARY_CONFIG = "karga.codec.write-binary";
+
+    private static final byte[] BINARY_CONTENT_TYPE_BYTES = BINARY_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8);
+
+    private final Map<Class<?>, EventCodec<?>> byType = new HashMap<>();
+    private final Map<Long, EventCodec<?>> byFingerprint = new HashMap<>();
+
+    public EventCodecs(Collection<? extends EventCodec<?>> codecs) {
+        for (EventCodec<?> codec : codecs) {
+            byType.put(codec.type(), codec);
+            EventCodec<?> clash = byFingerprint.put(codec.fingerprint(), codec);
+            if (clash != null && clash != codec) {
+                throw new IllegalArgumentException("Codecs " + clash.getClass().getName() + " and "
+                        + codec.getClass().getName() + " have the same fingerprint");
+            }
+        }
+    }
+
+    public static EventCodecs defaults() {
+        return new EventCodecs(List.of(new TripMessageCodec(), new PaymentMessageCodec(), new DriverLocationMessageCodec()));
+    }
+
+    /**
+     * @return The codecs listed in {@code karga.codec.classes}, or the defaults.
+     */
+    public static EventCodecs fromConfig(Map<String, ?> configs) {
+        Object classes = configs.get(CODEC_CLASSES_CONFIG);
+        if (classes == null) {
+            return defaults();
+        }
+        Collection<?> names = classes instanceof Collection<?> list
+                ? list
+                : List.of(StringUtils.commaDelimitedListToTrimmedArray(classes.toString()));
+        return new EventCodecs(names.stream()
+                .map(name -> name instanceof Class<?> type ? type : ClassUtils.resolveClassName(
+                        name.toString().trim(), ClassUtils.getDefaultClassLoader()))
+                .<EventCodec<?>>map(type -> (EventCodec<?>) BeanUtils.instantiateClass(type))
+                .toList());
+    }
+
+    /**
+     * @return The codec of a class, or {@code null} if it has none. Subclasses do not inherit their parent's codec.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EventCodec<T> forType(Class<T> type) {
+        return (EventCodec<T>) byType.get(type);
+    }
+
+    public EventCodec<?> forFingerprint(long fingerprint) {
+        return byFingerprint.get(fingerprint);
+    }
+
+    /**
+     * @return {@code true} if the headers mark a value written by a {@link BinaryEventSerializer}.
+     */
+    static boolean isBinary(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(CONTENT_TYPE_HEADER);
+        return header != null && Arrays.equals(header.value(), BINARY_CONTENT_TYPE_BYTES);
+    }
+
+    static byte[] binaryContentType() {
+        return BINARY_CONTENT_TYPE_BYTES.clone();
+    }
+
+    /**
+     * @return The fallback (de)serializer named by {@code karga.codec.fallback}, or {@code defaultFallback}.
+     */
+    @SuppressWarnings("unchecked")
+    static <S> S fallback(Map<String, ?> configs, S defaultFallback) {
+        Object configured = configs.get(FALLBACK_CONFIG);
+        if (configured == null) {
+            return defaultFallback;
+        }
+        Class<?> type = configured instanceof Class<?> c
+                ? c
+                : ClassUtils.resolveClassName(configured.toString().trim(), ClassUtils.getDefaultClassLoader());
+        return (S) BeanUtils.instantiateClass(type);
+    }
+}
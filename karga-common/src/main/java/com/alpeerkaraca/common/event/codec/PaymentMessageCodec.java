@@ -0,0 +1,43 @@
+package com.alpeerkaraca.common.event.codec;
+
+import com.alpeerkaraca.common.event.PaymentMessage;
+import com.alpeerkaraca.common.model.TripEventTypes;
+
+public class PaymentMessageCodec implements EventCodec<PaymentMessage> {
+
+    private static final String SCHEMA = "PaymentMessage{paymentId:string,tripId:uuid,passengerId:uuid,amount:decimal"
+            + ",eventType:" + EventCodec.enumSchema(TripEventTypes.class) + ",failureReason:string,createdAt:instant}";
+
+    @Override
+    public Class<PaymentMessage> type() {
+        return PaymentMessage.class;
+    }
+
+    @Override
+    public String schema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public void encode(PaymentMessage event, BinaryEventWriter writer) {
+        writer.writeString(event.getPaymentId())
+                .writeUuid(event.getTripId())
+                .writeUuid(event.getPassengerId())
+                .writeDecimal(event.getAmount())
+                .writeEnum(event.getEventType())
+                .writeString(event.getFailureReason())
+                .writeInstant(event.getCreatedAt());
+    }
+
+    @Override
+    public PaymentMessage decode(BinaryEventReader reader) {
+        return new PaymentMessage(
+                reader.readString(),
+                reader.readUuid(),
+                reader.readUuid(),
+                reader.readDecimal(),
+                reader.readEnum(TripEventTypes.class),
+                reader.readString(),
+                reader.readInstant());
+    }
+}
@@ -0,0 +1,46 @@
+package com.alpeerkaraca.common.event.codec;
+
+import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.model.TripEventTypes;
+
+public class TripMessageCodec implements EventCodec<TripMessage> {
+
+    private static final String SCHEMA = "TripMessage{eventType:" + EventCodec.enumSchema(TripEventTypes.class)
+            + ",tripId:uuid,driverId:uuid,createdAt:instant,fare:decimal,passengerId:uuid"
+            + ",currentLongitude:coordinate,currentLatitude:coordinate}";
+
+    @Override
+    public Class<TripMessage> type() {
+        return TripMessage.class;
+    }
+
+    @Override
+    public String schema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public void encode(TripMessage event, BinaryEventWriter writer) {
+        writer.writeEnum(event.getEventType())
+                .writeUuid(event.getTripId())
+                .writeUuid(event.getDriverId())
+                .writeInstant(event.getCreatedAt())
+                .writeDecimal(event.getFare())
+                .writeUuid(event.getPassengerId())
+                .writeCoordinate(event.getCurrentLongitude())
+                .writeCoordinate(event.getCurrentLatitude());
+    }
+
+    @Override
+    public TripMessage decode(BinaryEventReader reader) {
+        return new TripMessage(
+                reader.readEnum(TripEventTypes.class),
+                reader.readUuid(),
+                reader.readUuid(),
+                reader.readInstant(),
+                reader.readDecimal(),
+                reader.readUuid(),
+                reader.readCoordinate(),
+                reader.readCoordinate());
+    }
+}
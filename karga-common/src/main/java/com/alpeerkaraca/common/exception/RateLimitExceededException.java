@@ -1,12 +1,24 @@
 package com.alpeerkaraca.common.exception;
 
 
+import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+@Getter
 @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
 public class RateLimitExceededException extends RuntimeException {
+    /**
+     * How long the caller should wait before retrying, in milliseconds; {@code 0} if unknown.
+     */
+    private final long retryAfterMillis;
+
     public RateLimitExceededException(String message) {
+        this(message, 0);
+    }
+
+    public RateLimitExceededException(String message, long retryAfterMillis) {
         super(message);
+        this.retryAfterMillis = retryAfterMillis;
     }
 }
@@ -0,0 +1,88 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.model.InboxStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Base class of Kafka consumers that must process each message once.
+ *
+ * <p>
+ * Instead of {@code existsById} followed by a {@code save} of the inbox entity, which costs two round trips and
+ * lets two redeliveries both pass the check, the message id is claimed up front with one insert-if-absent statement
+ * ({@link InboxRepository#claim}). Only the caller whose insert went through runs the handler. Ids seen recently are kept in memory, so a quick redelivery is dropped without
+ * touching the database.
+ * </p>
+ *
+ * <p>
+ * Listeners should call {@link #consumeOnce} inside their transaction: the claim then commits or rolls back
+ * together with the handler's writes, and a message whose handler threw is delivered again. Subclasses only
+ * supply their {@link InboxRepository} and the handler.
+ * </p>
+ */
+@Slf4j
+public abstract class IdempotentConsumer {
+
+    private static final int RECENT_IDS_CAPACITY = 1024;
+
+    private final RecentMessageIds recentIds = new RecentMessageIds(RECENT_IDS_CAPACITY);
+
+    /**
+     * @return The inbox of the consuming service.
+     */
+    protected abstract InboxRepository<?> inboxRepository();
+
+    /**
+     * Runs {@code handler} unless {@code messageId} has been processed before.
+     *
+     * @param messageId The Kafka message id; messages without one are always handled.
+     * @param eventType The event type header, stored with the claim.
+     * @param handler   The service's processing of the message.
+     * @return {@code true} if the handler ran, {@code false} for a duplicate.
+     */
+    protected boolean consumeOnce(String messageId, String eventType, Runnable handler) {
+        if (messageId == null) {
+            handler.run();
+            return true;
+        }
+        if (recentIds.contains(messageId) || claim(messageId, eventType) == 0) {
+            // A claim that lost the insert conflicts with a committed row, so the id is safe to remember.
+            recentIds.add(messageId);
+            log.info("Message already processed: {}", messageId);
+            return false;
+        }
+        handler.run();
+        rememberAfterCommit(messageId);
+        return true;
+    }
+
+    /**
+     * Marks a claimed message as {@link InboxStatus#FAILED}, for handlers that give up instead of throwing.
+     *
+     * @param messageId The Kafka message id; ignored when {@code null}.
+     */
+    protected void markFailed(String messageId) {
+        if (messageId != null) {
+            inboxRepository().updateStatus(messageId, InboxStatus.FAILED);
+        }
+    }
+
+    private int claim(String messageId, String eventType) {
+        return inboxRepository().claim(messageId, eventType, InboxPartitions.messageDay(messageId));
+    }
+
+    private void rememberAfterCommit(String messageId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentIds.add(messageId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentIds.add(messageId);
+            }
+        });
+    }
+}
@@ -0,0 +1,160 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.model.BaseInboxEntity;
+import com.alpeerkaraca.common.model.EntityTables;
+import com.alpeerkaraca.common.model.InboxStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Claims a poll's worth of Kafka messages in the inbox at once, for batch listeners.
+ *
+ * <p>
+ * Where {@link IdempotentConsumer#consumeOnce} costs a statement per message, a batch costs two: one query finds
+ * the ids that were already processed and one JDBC batch inserts the rest with the same insert-if-absent statement
+ * as {@link InboxRepository#claim}. A row the batch
+ * could not insert was claimed concurrently, e.g. by the previous owner of a partition during a rebalance, and its
+ * message is dropped like the ones found by the query.
+ * </p>
+ *
+ * <p>
+ * Call it inside the listener's transaction, before any side effect, so the claims commit or roll back together
+ * with the batch. The inbox table is resolved from the entity type of the repository.
+ * </p>
+ */
+@Component
+@Slf4j
+public class InboxBatchClaimer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<Class<?>, String> claimStatements = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InboxBatchClaimer(@Autowired(required = false) DataSource dataSource) {
+        this(dataSource == null ? null : new JdbcTemplate(dataSource));
+    }
+
+    InboxBatchClaimer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claims the messages of a batch that have not been processed before.
+     *
+     * @param inbox     The inbox of the consuming service.
+     * @param messages  The batch, in delivery order.
+     * @param messageId The Kafka message id of a message; messages without one are always returned.
+     * @param eventType The event type header of a message, stored with the claim.
+     * @return The messages to process, in delivery order; a message id repeated in the batch is kept once.
+     */
+    public <T> List<T> claim(InboxRepository<?> inbox, List<T> messages,
+                             Function<T, String> messageId, Function<T, String> eventType) {
+        Set<String> ids = new LinkedHashSet<>();
+        List<T> candidates = new ArrayList<>(messages.size());
+        for (T message : messages) {
+            String id = messageId.apply(message);
+            if (id == null || ids.add(id)) {
+                candidates.add(message);
+            }
+        }
+        if (ids.isEmpty()) {
+            return candidates;
+        }
+
+        Set<String> processed = new HashSet<>(inbox.findClaimedIds(ids));
+        List<T> fresh = new ArrayList<>(candidates.size());
+        List<T> unclaimed = new ArrayList<>(candidates.size());
+        for (T message : candidates) {
+            String id = messageId.apply(message);
+            if (id == null) {
+                fresh.add(message);
+            } else if (!processed.contains(id)) {
+                fresh.add(message);
+                unclaimed.add(message);
+            }
+        }
+        if (!unclaimed.isEmpty()) {
+            Set<String> lost = insert(inbox, unclaimed, messageId, eventType);
+            if (!lost.isEmpty()) {
+                fresh.removeIf(message -> lost.contains(messageId.apply(message)));
+            }
+        }
+
+        int skipped = messages.size() - fresh.size();
+        if (skipped > 0) {
+            log.info("Skipped {} already processed messages of a batch of {}", skipped, messages.size());
+        }
+        return fresh;
+    }
+
+    /**
+     * Inserts the claims in one JDBC batch.
+     *
+     * @return The ids whose insert found an existing claim.
+     */
+    private <T> Set<String> insert(InboxRepository<?> inbox, List<T> messages,
+                                   Function<T, String> messageId, Function<T, String> eventType) {
+        if (jdbcTemplate == null) {
+            throw new IllegalStateException("Batch inbox claims need a DataSource");
+        }
+        String sql = claimStatements.computeIfAbsent(inbox.getClass(), InboxBatchClaimer::claimStatement);
+        int[][] counts = jdbcTemplate.batchUpdate(sql, messages, messages.size(), (statement, message) -> {
+            String id = messageId.apply(message);
+            statement.setString(1, id);
+            statement.setString(2, eventType.apply(message));
+            statement.setInt(3, InboxStatus.COMPLETED.ordinal());
+            statement.setObject(4, InboxPartitions.messageDay(id));
+            statement.setString(5, id);
+        });
+
+        Set<String> lost = new HashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers that do not report counts return SUCCESS_NO_INFO, which counts as claimed.
+                if (count == 0) {
+                    lost.add(messageId.apply(messages.get(index)));
+                }
+                index++;
+            }
+        }
+        return lost;
+    }
+
+    private static String claimStatement(Class<?> repositoryType) {
+        String table = EntityTables.table(inboxEntity(repositoryType));
+        return "INSERT INTO " + table + " (message_id, event_type, status, processed_at, message_day) "
+                + "SELECT ?, ?, ?, now(), ? WHERE NOT EXISTS (SELECT 1 FROM " + table + " WHERE message_id = ?) "
+                + "ON CONFLICT DO NOTHING";
+    }
+
+    /**
+     * @return The entity type a repository (or a proxy implementing it) binds {@link InboxRepository} to.
+     */
+    static Class<?> inboxEntity(Class<?> repositoryType) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(repositoryType)) {
+            if (type == InboxRepository.class || !InboxRepository.class.isAssignableFrom(type)) {
+                continue;
+            }
+            Class<?> entity = ResolvableType.forClass(type).as(InboxRepository.class).resolveGeneric(0);
+            if (entity != null && entity != BaseInboxEntity.class) {
+                return entity;
+            }
+        }
+        throw new IllegalArgumentException("Cannot resolve the inbox entity of " + repositoryType.getName());
+    }
+}
@@ -0,0 +1,331 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.model.BaseInboxEntity;
+import com.alpeerkaraca.common.model.EntityTables;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the inbox tables of a service partitioned by day and drops the days that are past retention.
+ *
+ * <p>
+ * The inbox tables are the tables of the service's {@link BaseInboxEntity} subclasses, partitioned by
+ * {@code message_day} (see {@link InboxPartitions}). A table that is still a plain table is converted at startup: its
+ * rows become the {@code <table>_before_<day>} partition and new rows go to daily partitions, or to the
+ * {@code <table>_default} partition for a day that has none. The conversion renames the table under an
+ * {@code ACCESS EXCLUSIVE} lock, so it only runs on its own for an empty table, e.g. one just created by Hibernate; a
+ * table that already holds rows is converted when {@code inbox.partitions.convert-existing} is set, which is meant
+ * for a maintenance window.
+ * </p>
+ *
+ * <p>
+ * At startup, before the Kafka listeners start, and then every {@code inbox.partitions.maintenance-interval-ms} the
+ * manager
+ * </p>
+ * <ul>
+ * <li>creates the partitions of today and the next {@code inbox.partitions.ahead-days} days as stand-alone tables and
+ * attaches them, which only takes a {@code SHARE UPDATE EXCLUSIVE} lock on the inbox table; rows of that day found in
+ * the default partition are moved in the same transaction, and</li>
+ * <li>detaches and drops partitions older than {@code inbox.retention.days}, and deletes rows that old from the
+ * default partition. PostgreSQL cannot detach concurrently from a table with a default partition, so the detach
+ * briefly takes an {@code ACCESS EXCLUSIVE} lock; it gives up after {@code inbox.partitions.lock-timeout-ms} rather
+ * than queue the consumers' inserts behind it, and is retried on the next run.</li>
+ * </ul>
+ *
+ * <p>
+ * {@code inbox.retention.days} must be at least the retention of the consumed topics: a message redelivered after
+ * its partition was dropped is processed again. Instances of a service share the work through a PostgreSQL advisory
+ * lock; other databases are left alone. Exported meters are {@code inbox.partitions.created} and
+ * {@code inbox.partitions.dropped}, tagged with the table.
+ * </p>
+ */
+@Component
+@Slf4j
+public class InboxPartitionManager {
+
+    private static final String METRIC_PREFIX = "inbox.partitions";
+    private static final String LOCK_KEY = "hashtext('inbox-partition-maintenance')";
+
+    private final DataSource dataSource;
+    private final List<String> tables;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean convertExisting;
+    private final int retentionDays;
+    private final int aheadDays;
+    private final long maintenanceIntervalMs;
+    private final long lockTimeoutMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inbox-partition-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public InboxPartitionManager(
+            @Autowired(required = false) DataSource dataSource,
+            @Autowired(required = false) EntityManagerFactory entityManagerFactory,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Value("${inbox.partitions.enabled:true}") boolean enabled,
+            @Value("${inbox.partitions.convert-existing:false}") boolean convertExisting,
+            @Value("${inbox.retention.days:7}") int retentionDays,
+            @Value("${inbox.partitions.ahead-days:3}") int aheadDays,
+            @Value("${inbox.partitions.maintenance-interval-ms:3600000}") long maintenanceIntervalMs,
+            @Value("${inbox.partitions.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        this(dataSource, entityManagerFactory == null
+                        ? List.of() : EntityTables.of(entityManagerFactory, BaseInboxEntity.class),
+                meterRegistry == null ? Metrics.globalRegistry : meterRegistry, enabled, convertExisting,
+                retentionDays, aheadDays, maintenanceIntervalMs, lockTimeoutMs);
+    }
+
+    InboxPartitionManager(DataSource dataSource, List<String> tables, MeterRegistry meterRegistry, boolean enabled,
+                          boolean convertExisting, int retentionDays, int aheadDays, long maintenanceIntervalMs,
+                          long lockTimeoutMs) {
+        this.dataSource = dataSource;
+        this.tables = tables;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.convertExisting = convertExisting;
+        this.retentionDays = retentionDays;
+        this.aheadDays = aheadDays;
+        this.maintenanceIntervalMs = maintenanceIntervalMs;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    /**
+     * Runs the first maintenance on the calling thread, so today's partitions exist before any listener consumes,
+     * and schedules the next ones.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled || dataSource == null || tables.isEmpty()) {
+            return;
+        }
+        if (maintain(true)) {
+            scheduler.scheduleWithFixedDelay(() -> maintain(false), maintenanceIntervalMs, maintenanceIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    boolean maintain(boolean startup) {
+        return maintain(startup, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Converts, extends and prunes every inbox table; failures are logged and retried on the next run.
+     *
+     * @param startup Whether this is the run at startup, which waits for the advisory lock instead of skipping when
+     *                another instance holds it, and is the only run that converts plain tables.
+     * @param today   The current UTC day.
+     * @return {@code false} if the database is not PostgreSQL and maintenance should stop.
+     */
+    boolean maintain(boolean startup, LocalDate today) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                log.info("Inbox partitioning needs PostgreSQL, skipping {}", tables);
+                return false;
+            }
+            connection.setAutoCommit(true);
+            execute(connection, "SET lock_timeout = " + lockTimeoutMs);
+            try {
+                if (!lock(connection, startup)) {
+                    return true;
+                }
+                try {
+                    for (String table : tables) {
+                        try {
+                            maintain(connection, table, today, startup);
+                        } catch (SQLException e) {
+                            log.warn("Inbox partition maintenance of {} failed: {}", table, e.getMessage());
+                        }
+                    }
+                } finally {
+                    execute(connection, "SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            } finally {
+                execute(connection, "RESET lock_timeout");
+            }
+        } catch (Exception e) {
+            log.warn("Inbox partition maintenance failed: {}", e.getMessage());
+        }
+        return true;
+    }
+
+    private void maintain(Connection connection, String table, LocalDate today, boolean startup) throws SQLException {
+        String kind = queryString(connection, "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", table);
+        if (kind == null) {
+            return;
+        }
+        if ("r".equals(kind)) {
+            if (!startup) {
+                return;
+            }
+            if (!convertExisting && !queryBoolean(connection, "SELECT NOT EXISTS (SELECT 1 FROM " + table + ")")) {
+                log.info("Inbox table {} holds rows and stays unpartitioned; set inbox.partitions.convert-existing "
+                        + "to convert it", table);
+                return;
+            }
+            partition(connection, table, today.plusDays(1));
+        }
+
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass(?)")) {
+            query.setString(1, table);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    partitions.add(rows.getString(1));
+                }
+            }
+        }
+
+        String defaultPartition = InboxPartitions.defaultName(table);
+        if (!partitions.contains(defaultPartition)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + defaultPartition
+                    + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            execute(connection, "ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+            log.info("Created default inbox partition {}", defaultPartition);
+        }
+
+        for (LocalDate day : InboxPartitions.missingDays(table, partitions, today, aheadDays)) {
+            createPartition(connection, table, day);
+        }
+
+        LocalDate cutoff = today.minusDays(retentionDays);
+        for (String partition : InboxPartitions.expired(table, partitions, cutoff)) {
+            inTransaction(connection, () -> {
+                execute(connection, "ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                execute(connection, "DROP TABLE " + partition);
+            });
+            meterRegistry.counter(METRIC_PREFIX + ".dropped", "table", table).increment();
+            log.info("Dropped inbox partition {}", partition);
+        }
+        execute(connection, "DELETE FROM " + defaultPartition
+                + " WHERE message_day < " + InboxPartitions.bound(cutoff));
+    }
+
+    /**
+     * Turns a plain inbox table into a partitioned one with a default partition; its rows stay in place as the
+     * partition holding everything before {@code firstDay}. Runs in one transaction, so consumers wait for it once
+     * instead of seeing half a table.
+     */
+    private void partition(Connection connection, String table, LocalDate firstDay) throws SQLException {
+        String legacy = InboxPartitions.legacyName(table, firstDay);
+        String primaryKey = queryString(connection,
+                "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'p'", table);
+        inTransaction(connection, () -> {
+            execute(connection, "ALTER TABLE " + table + " RENAME TO " + legacy);
+            if (primaryKey != null) {
+                execute(connection, "ALTER TABLE " + legacy + " RENAME CONSTRAINT " + primaryKey + " TO " + legacy + "_pkey");
+            }
+            execute(connection, "UPDATE " + legacy + " SET message_day = "
+                    + "(coalesce(processed_at, now()) AT TIME ZONE 'UTC')::date WHERE message_day IS NULL");
+            execute(connection, "ALTER TABLE " + legacy + " ALTER COLUMN message_day SET NOT NULL");
+            execute(connection, "CREATE TABLE " + table + " (LIKE " + legacy
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (message_day)");
+            execute(connection, "ALTER TABLE " + table + " ADD PRIMARY KEY (message_id, message_day)");
+            execute(connection, "ALTER TABLE " + table + " ATTACH PARTITION " + legacy
+                    + " FOR VALUES FROM (MINVALUE) TO (" + InboxPartitions.bound(firstDay) + ")");
+            execute(connection, "CREATE TABLE " + InboxPartitions.defaultName(table) + " PARTITION OF " + table
+                    + " DEFAULT");
+        });
+        log.info("Partitioned inbox table {}, existing rows kept in {}", table, legacy);
+    }
+
+    /**
+     * Creates the partition of {@code day} and moves the rows of that day out of the default partition, which
+     * attaching would otherwise refuse. Attaching locks the default partition while it is checked; it is empty
+     * unless maintenance fell behind.
+     */
+    private void createPartition(Connection connection, String table, LocalDate day) throws SQLException {
+        String partition = InboxPartitions.name(table, day);
+        String from = InboxPartitions.bound(day);
+        String to = InboxPartitions.bound(day.plusDays(1));
+        inTransaction(connection, () -> {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + partition
+                    + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            execute(connection, "WITH moved AS (DELETE FROM " + InboxPartitions.defaultName(table)
+                    + " WHERE message_day >= " + from + " AND message_day < " + to + " RETURNING *) "
+                    + "INSERT INTO " + partition + " SELECT * FROM moved");
+            execute(connection, "ALTER TABLE " + table + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+        });
+        meterRegistry.counter(METRIC_PREFIX + ".created", "table", table).increment();
+        log.info("Created inbox partition {}", partition);
+    }
+
+    private static boolean lock(Connection connection, boolean wait) throws SQLException {
+        if (wait) {
+            execute(connection, "SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            return true;
+        }
+        return queryBoolean(connection, "SELECT pg_try_advisory_lock(" + LOCK_KEY + ")");
+    }
+
+    private static void inTransaction(Connection connection, SqlWork work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            return rows.next() && rows.getBoolean(1);
+        }
+    }
+
+    private static String queryString(Connection connection, String sql, String parameter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, parameter);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getString(1) : null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+}
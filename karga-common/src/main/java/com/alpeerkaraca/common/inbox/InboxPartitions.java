@@ -0,0 +1,121 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.persistence.TimeOrderedUuid;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Naming and bounds of the daily partitions of an inbox table.
+ *
+ * <p>
+ * Rows are partitioned by {@code message_day}, the UTC day a message was created on according to its id
+ * ({@link #messageDay}), so every redelivery of a message lands in the same partition and
+ * {@code (message_id, message_day)} is unique. A partition {@code <table>_pYYYYMMDD} holds the messages of that day.
+ * The rows the table held before it was partitioned live in {@code <table>_before_YYYYMMDD}, which covers everything
+ * up to that day. Rows of a day that has no partition land in {@code <table>_default}.
+ * </p>
+ */
+final class InboxPartitions {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern SUFFIX = Pattern.compile("_(p|before_)(\\d{8})$");
+
+    private InboxPartitions() {
+    }
+
+    static String name(String table, LocalDate day) {
+        return table + "_p" + DAY.format(day);
+    }
+
+    static String defaultName(String table) {
+        return table + "_default";
+    }
+
+    static String legacyName(String table, LocalDate until) {
+        return table + "_before_" + DAY.format(until);
+    }
+
+    /**
+     * @return The SQL literal of {@code day}, e.g. {@code '2026-10-16'}.
+     */
+    static String bound(LocalDate day) {
+        return "'" + day + "'";
+    }
+
+    /**
+     * The partition key of a message: the UTC day in the timestamp of a version 7 UUID id, which the outbox assigns
+     * to every event. Other ids fall back to the current day; their redeliveries on a later day are still found by
+     * the {@code NOT EXISTS} probe of the claim.
+     *
+     * @param messageId The Kafka message id.
+     * @return The {@code message_day} to store with the claim.
+     */
+    static LocalDate messageDay(String messageId) {
+        try {
+            UUID id = UUID.fromString(messageId);
+            if (id.version() == 7) {
+                return LocalDate.ofInstant(TimeOrderedUuid.timestamp(id), ZoneOffset.UTC);
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a UUID.
+        }
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * @return The exclusive upper bound of a partition of {@code table}, or {@code null} if the partition was not
+     * created by {@link InboxPartitionManager}.
+     */
+    static LocalDate upperBound(String table, String partition) {
+        if (!partition.startsWith(table)) {
+            return null;
+        }
+        Matcher matcher = SUFFIX.matcher(partition);
+        if (!matcher.find() || matcher.start() != table.length()) {
+            return null;
+        }
+        LocalDate day = LocalDate.parse(matcher.group(2), DAY);
+        return "p".equals(matcher.group(1)) ? day.plusDays(1) : day;
+    }
+
+    /**
+     * @return The days from {@code today} to {@code today + aheadDays} that no existing partition covers.
+     */
+    static List<LocalDate> missingDays(String table, Collection<String> partitions, LocalDate today, int aheadDays) {
+        LocalDate coveredUntil = partitions.stream()
+                .filter(partition -> partition.startsWith(table + "_before_"))
+                .map(partition -> upperBound(table, partition))
+                .filter(bound -> bound != null)
+                .max(LocalDate::compareTo)
+                .orElse(LocalDate.MIN);
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(aheadDays)); day = day.plusDays(1)) {
+            if (day.isBefore(coveredUntil) || partitions.contains(name(table, day))) {
+                continue;
+            }
+            missing.add(day);
+        }
+        return missing;
+    }
+
+    /**
+     * @return The partitions whose rows were all processed before {@code cutoff}.
+     */
+    static List<String> expired(String table, Collection<String> partitions, LocalDate cutoff) {
+        return partitions.stream()
+                .filter(partition -> {
+                    LocalDate upperBound = upperBound(table, partition);
+                    return upperBound != null && !upperBound.isAfter(cutoff);
+                })
+                .sorted()
+                .toList();
+    }
+}
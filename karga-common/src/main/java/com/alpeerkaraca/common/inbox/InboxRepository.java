@@ -0,0 +1,81 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.model.BaseInboxEntity;
+import com.alpeerkaraca.common.model.InboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Base repository of a service's inbox table, used by {@link IdempotentConsumer}.
+ *
+ * <p>
+ * Each service redeclares {@link #claim(String, String, LocalDate)} with the insert-if-absent statement for its own
+ * table:
+ * </p>
+ *
+ * <pre>
+ * &#64;Override
+ * &#64;Transactional
+ * &#64;Modifying
+ * &#64;Query(value = "INSERT INTO trip_inbox (message_id, event_type, status, processed_at, message_day) "
+ *         + "SELECT :messageId, :eventType, " + InboxRepository.COMPLETED_STATUS + ", now(), :messageDay "
+ *         + "WHERE NOT EXISTS (SELECT 1 FROM trip_inbox WHERE message_id = :messageId) "
+ *         + "ON CONFLICT DO NOTHING", nativeQuery = true)
+ * int claim(&#64;Param("messageId") String messageId, &#64;Param("eventType") String eventType,
+ *           &#64;Param("messageDay") LocalDate messageDay);
+ * </pre>
+ *
+ * <p>
+ * Inbox tables are partitioned by {@code message_day} ({@link InboxPartitionManager}), which is the same on every
+ * redelivery of a message, so the primary key {@code (message_id, message_day)} makes {@code ON CONFLICT} catch two
+ * transactions claiming the same message at once. The {@code NOT EXISTS} probe finds claims stored under another
+ * day, i.e. rows from before the table was partitioned and messages whose id carries no timestamp.
+ * </p>
+ *
+ * @param <E> The service's inbox entity.
+ */
+@NoRepositoryBean
+public interface InboxRepository<E extends BaseInboxEntity> extends JpaRepository<E, String> {
+
+    /**
+     * SpEL parameter binding the stored value of {@link InboxStatus#COMPLETED} in native claim statements.
+     */
+    String COMPLETED_STATUS = ":#{T(com.alpeerkaraca.common.model.InboxStatus).COMPLETED.ordinal()}";
+
+    /**
+     * Records {@code messageId} as processed unless it already is, in one statement.
+     *
+     * @param messageId  The Kafka message id.
+     * @param eventType  The event type header of the message.
+     * @param messageDay The partition key of the message: the UTC day its version 7 UUID id was generated on.
+     * @return {@code 1} if this call claimed the message, {@code 0} if it had been claimed before.
+     */
+    int claim(String messageId, String eventType, LocalDate messageDay);
+
+    /**
+     * Looks up which of {@code messageIds} have been claimed, in one query; used to deduplicate a batch of messages
+     * before it is claimed with {@link InboxBatchClaimer}.
+     *
+     * @return The ids found in the inbox.
+     */
+    @Query("SELECT i.messageId FROM #{#entityName} i WHERE i.messageId IN :messageIds")
+    List<String> findClaimedIds(@Param("messageIds") Collection<String> messageIds);
+
+    /**
+     * Changes the status of a claimed message, e.g. to {@link InboxStatus#FAILED} when its handler gave up.
+     *
+     * @return The number of updated rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE #{#entityName} i SET i.status = :status WHERE i.messageId = :messageId")
+    int updateStatus(@Param("messageId") String messageId, @Param("status") InboxStatus status);
+}
@@ -0,0 +1,38 @@
+package com.alpeerkaraca.common.inbox;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded set of recently processed message ids; the oldest id is forgotten first.
+ */
+final class RecentMessageIds {
+
+    private final int capacity;
+    private final Set<String> ids = ConcurrentHashMap.newKeySet();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    RecentMessageIds(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean contains(String messageId) {
+        return ids.contains(messageId);
+    }
+
+    void add(String messageId) {
+        if (!ids.add(messageId)) {
+            return;
+        }
+        order.add(messageId);
+        while (ids.size() > capacity) {
+            String oldest = order.poll();
+            if (oldest == null) {
+                return;
+            }
+            ids.remove(oldest);
+        }
+    }
+}
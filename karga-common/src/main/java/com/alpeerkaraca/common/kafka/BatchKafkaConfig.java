@@ -0,0 +1,65 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+/**
+ * Registers the listener container factory of batch listeners, {@value #CONTAINER_FACTORY}.
+ *
+ * <p>
+ * The factory is configured from {@code spring.kafka.listener.*} like Boot's default one. A batch listener that
+ * throws, e.g. because Redis or the database failed for the whole batch, has its transaction rolled back and the
+ * batch is polled again, up to {@code kafka.batch.retry.attempts} times with an exponential backoff
+ * ({@code kafka.batch.retry.initial-delay-ms}, {@code kafka.batch.retry.multiplier} and
+ * {@code kafka.batch.retry.max-delay-ms}; 1s, 2s and 4s by default). Then every record of the batch goes to its
+ * dead-letter topic through the {@link DeadLetterPublisher} and the offsets move past it; if the dead-letter topic
+ * does not take them, the batch is polled again. The backoffs are spent on the listener thread, so together they
+ * must stay well below {@code max.poll.interval.ms}. In contexts without Kafka, such as web slice tests, the factory
+ * is left unconfigured.
+ * </p>
+ */
+@Configuration
+public class BatchKafkaConfig {
+
+    public static final String CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+
+    @Bean(name = CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ObjectProvider<ConcurrentKafkaListenerContainerFactoryConfigurer> configurers,
+            ObjectProvider<ConsumerFactory<Object, Object>> consumerFactories,
+            ObjectProvider<DeadLetterPublisher> deadLetterPublishers,
+            @Value("${kafka.batch.retry.attempts:4}") int attempts,
+            @Value("${kafka.batch.retry.initial-delay-ms:1000}") long initialDelayMs,
+            @Value("${kafka.batch.retry.multiplier:2}") double multiplier,
+            @Value("${kafka.batch.retry.max-delay-ms:10000}") long maxDelayMs) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        ConcurrentKafkaListenerContainerFactoryConfigurer configurer = configurers.getIfAvailable();
+        ConsumerFactory<Object, Object> consumerFactory = consumerFactories.getIfAvailable();
+        if (configurer != null && consumerFactory != null) {
+            configurer.configure(factory, consumerFactory);
+        }
+        factory.setBatchListener(true);
+        DeadLetterPublisher deadLetterPublisher = deadLetterPublishers.getIfAvailable();
+        if (deadLetterPublisher != null) {
+            factory.setCommonErrorHandler(
+                    errorHandler(deadLetterPublisher, attempts, initialDelayMs, multiplier, maxDelayMs));
+        }
+        return factory;
+    }
+
+    static DefaultErrorHandler errorHandler(DeadLetterPublisher deadLetterPublisher, int attempts,
+                                            long initialDelayMs, double multiplier, long maxDelayMs) {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(Math.max(attempts - 1, 0));
+        backOff.setInitialInterval(initialDelayMs);
+        backOff.setMultiplier(multiplier);
+        backOff.setMaxInterval(maxDelayMs);
+        return new DefaultErrorHandler(deadLetterPublisher::publish, backOff);
+    }
+}
@@ -0,0 +1,216 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Exports the consumer lag of every partition the service's listeners are assigned, as {@code kafka.consumer.lag}
+ * tagged with {@code group}, {@code topic} and {@code partition}.
+ *
+ * <p>
+ * Every {@code kafka.metrics.lag.interval-ms} the committed offsets of each consumer group and the end offsets of its
+ * partitions are read through the admin client. The lag is measured against the committed offset rather than read
+ * from the consumers, so a listener stuck on a record still shows its lag growing. Each replica only reports the
+ * partitions assigned to it, so the gauges of a group can be summed across replicas, and a partition that is revoked
+ * loses its gauge. Partitions without a committed offset are not reported.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ConsumerLagMonitor {
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> endpointRegistry;
+    private final Supplier<Admin> adminFactory;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final long timeoutMs;
+
+    private final Map<GroupPartition, Lag> lags = new HashMap<>();
+    private Admin admin;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ConsumerLagMonitor(
+            ObjectProvider<KafkaListenerEndpointRegistry> endpointRegistry,
+            ObjectProvider<KafkaAdmin> kafkaAdmin,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Value("${kafka.metrics.lag.enabled:true}") boolean enabled,
+            @Value("${kafka.metrics.lag.interval-ms:15000}") long intervalMs,
+            @Value("${kafka.metrics.lag.timeout-ms:5000}") long timeoutMs) {
+        this(endpointRegistry, () -> {
+            KafkaAdmin admin = kafkaAdmin.getIfAvailable();
+            return admin == null ? null : Admin.create(admin.getConfigurationProperties());
+        }, meterRegistry == null ? Metrics.globalRegistry : meterRegistry, enabled, intervalMs, timeoutMs);
+    }
+
+    ConsumerLagMonitor(ObjectProvider<KafkaListenerEndpointRegistry> endpointRegistry, Supplier<Admin> adminFactory,
+                       MeterRegistry meterRegistry, boolean enabled, long intervalMs, long timeoutMs) {
+        this.endpointRegistry = endpointRegistry;
+        this.adminFactory = adminFactory;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.intervalMs = intervalMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || endpointRegistry.getIfAvailable() == null) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::update, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        if (admin != null) {
+            admin.close();
+        }
+    }
+
+    /**
+     * Refreshes the lag of every assigned partition; a group whose offsets cannot be read keeps its last values.
+     */
+    void update() {
+        Map<String, Set<TopicPartition>> assignments = assignments();
+        if (assignments.isEmpty()) {
+            retainOnly(Set.of());
+            return;
+        }
+        if (admin == null) {
+            admin = adminFactory.get();
+            if (admin == null) {
+                return;
+            }
+        }
+
+        Set<GroupPartition> reported = new HashSet<>();
+        for (Map.Entry<String, Set<TopicPartition>> assignment : assignments.entrySet()) {
+            String group = assignment.getKey();
+            try {
+                Map<TopicPartition, Long> groupLags = readLags(group, assignment.getValue());
+                groupLags.forEach((partition, lag) -> {
+                    GroupPartition key = new GroupPartition(group, partition);
+                    lags.computeIfAbsent(key, this::register).value().set(lag);
+                    reported.add(key);
+                });
+            } catch (Exception e) {
+                log.warn("Could not read the consumer lag of {}: {}", group, e.getMessage());
+                for (GroupPartition key : lags.keySet()) {
+                    if (key.group().equals(group)) {
+                        reported.add(key);
+                    }
+                }
+            }
+        }
+        retainOnly(reported);
+    }
+
+    /**
+     * @return The lag of each partition with a committed offset: its end offset minus the committed one.
+     */
+    private Map<TopicPartition, Long> readLags(String group, Set<TopicPartition> partitions) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata().get(timeoutMs, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            if (committed.get(partition) != null) {
+                latest.put(partition, OffsetSpec.latest());
+            }
+        }
+        if (latest.isEmpty()) {
+            return Map.of();
+        }
+        Map<TopicPartition, ListOffsetsResultInfo> ends = admin.listOffsets(latest).all()
+                .get(timeoutMs, TimeUnit.MILLISECONDS);
+
+        Map<TopicPartition, Long> groupLags = new HashMap<>();
+        ends.forEach((partition, end) ->
+                groupLags.put(partition, Math.max(0, end.offset() - committed.get(partition).offset())));
+        return groupLags;
+    }
+
+    /**
+     * @return The partitions assigned to the listener containers of this instance, by consumer group.
+     */
+    private Map<String, Set<TopicPartition>> assignments() {
+        KafkaListenerEndpointRegistry registry = endpointRegistry.getIfAvailable();
+        Map<String, Set<TopicPartition>> assignments = new TreeMap<>();
+        if (registry == null) {
+            return assignments;
+        }
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            Collection<TopicPartition> partitions = container.getAssignedPartitions();
+            String group = container.getGroupId();
+            if (group != null && partitions != null && !partitions.isEmpty()) {
+                assignments.computeIfAbsent(group, k -> new HashSet<>()).addAll(partitions);
+            }
+        }
+        return assignments;
+    }
+
+    private Lag register(GroupPartition key) {
+        AtomicLong value = new AtomicLong();
+        Gauge gauge = Gauge.builder("kafka.consumer.lag", value, AtomicLong::get)
+                .description("Records between a partition's end and the consumer group's committed offset")
+                .tag("group", key.group())
+                .tag("topic", key.partition().topic())
+                .tag("partition", String.valueOf(key.partition().partition()))
+                .register(meterRegistry);
+        return new Lag(value, gauge);
+    }
+
+    /**
+     * Removes the gauges of partitions that are no longer assigned here.
+     */
+    private void retainOnly(Set<GroupPartition> reported) {
+        lags.entrySet().removeIf(entry -> {
+            if (reported.contains(entry.getKey())) {
+                return false;
+            }
+            meterRegistry.remove(entry.getValue().gauge());
+            return true;
+        });
+    }
+
+    private record GroupPartition(String group, TopicPartition partition) {
+    }
+
+    private record Lag(AtomicLong value, Gauge gauge) {
+    }
+}
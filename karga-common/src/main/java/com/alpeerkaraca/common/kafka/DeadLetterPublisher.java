@@ -0,0 +1,85 @@
+package com.alpeerkaraca.common.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.regex.Pattern;
+
+/**
+ * Sends records that a listener gives up on outside the container's error handling to the dead-letter topic of
+ * {@link SagaRetryableTopic}, e.g. records of a batch that cannot be read, or records the {@link KeyOrderedDispatcher}
+ * ran out of attempts for.
+ *
+ * <p>
+ * A record of {@code <topic>} or of one of its retry topics goes to {@code <topic>-dlt}, with the same
+ * {@code kafka_dlt-*} headers the retry topics add, and is counted by {@link RetryMetricsInterceptor} like any other
+ * dead letter once the DLT listener reads it.
+ * </p>
+ */
+@Component
+@Slf4j
+public class DeadLetterPublisher {
+
+    static final Pattern RETRY_TOPIC = Pattern.compile(Pattern.quote(SagaRetryableTopic.RETRY_SUFFIX) + "(-\\d+)?$");
+
+    private final SingletonSupplier<DeadLetterPublishingRecoverer> recoverer;
+
+    public DeadLetterPublisher(@Lazy @Qualifier(KafkaRetryConfig.FORWARDING_TEMPLATE) KafkaOperations<Object, Object> template) {
+        this.recoverer = SingletonSupplier.of(() -> new DeadLetterPublishingRecoverer(template,
+                (record, e) -> new TopicPartition(deadLetterTopic(record.topic()), -1)));
+    }
+
+    /**
+     * Publishes a record to its dead-letter topic and waits for the broker to acknowledge it.
+     *
+     * @param record The record that failed.
+     * @param cause  Why it failed; recorded in the {@code kafka_dlt-exception-*} headers.
+     * @throws org.springframework.kafka.KafkaException If the record could not be published.
+     */
+    public void publish(ConsumerRecord<?, ?> record, Exception cause) {
+        recoverer.obtain().accept(record, cause);
+    }
+
+    /**
+     * Publishes a record once the current transaction has committed, or right away when there is none. Meant for
+     * records a listener gives up on inside a transaction that can still roll back: the rolled back batch is
+     * delivered again and would otherwise dead-letter the same record twice. A publish that fails after the commit
+     * is logged, as there is no caller left to handle it.
+     *
+     * @param record The record that failed.
+     * @param cause  Why it failed; recorded in the {@code kafka_dlt-exception-*} headers.
+     */
+    public void publishAfterCommit(ConsumerRecord<?, ?> record, Exception cause) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(record, cause);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    publish(record, cause);
+                } catch (Exception e) {
+                    log.error("Could not dead-letter record {}-{}@{}", record.topic(), record.partition(),
+                            record.offset(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return The dead-letter topic of a topic or of one of its retry topics.
+     */
+    static String deadLetterTopic(String topic) {
+        return RETRY_TOPIC.matcher(topic).replaceFirst("") + SagaRetryableTopic.DLT_SUFFIX;
+    }
+}
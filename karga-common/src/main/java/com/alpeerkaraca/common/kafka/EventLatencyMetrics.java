@@ -0,0 +1,115 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.TimestampType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long events take from their creation to their delivery to a listener.
+ *
+ * <p>
+ * The creation time is the {@code createdAt} header, which the outbox connectors and {@code OutboxRelay} copy from
+ * the outbox row, so the whole outbox, WAL, connector and broker path is covered without decoding the payload. Records
+ * without the header, such as the ones a service sends directly, fall back to their producer timestamp. The latency
+ * is the {@code kafka.event.latency} histogram, tagged with {@code topic}, {@code eventType} and {@code group}, the
+ * consumer group of the main listener; a record redelivered from a retry topic counts its retry delays too.
+ * </p>
+ *
+ * <p>
+ * {@link ListenerMetricsConfig} calls it for every record a listener container hands out, in record and batch mode.
+ * </p>
+ */
+@Component
+public class EventLatencyMetrics {
+
+    public static final String CREATED_AT_HEADER = "createdAt";
+
+    private static final String NONE = "none";
+
+    /**
+     * Epoch values above this are microseconds; Debezium writes {@code timestamp} columns as such.
+     */
+    private static final long EPOCH_MICROS_THRESHOLD = 100_000_000_000_000L;
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public EventLatencyMetrics(@Autowired(required = false) MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry == null ? Metrics.globalRegistry : meterRegistry;
+    }
+
+    /**
+     * Records the latency of a delivered record; records without a creation time are skipped.
+     */
+    public void record(ConsumerRecord<?, ?> record) {
+        Instant createdAt = createdAt(record);
+        if (createdAt == null) {
+            return;
+        }
+        long latencyMs = Math.max(0, System.currentTimeMillis() - createdAt.toEpochMilli());
+        timer(record.topic(), header(record, EventTypeFilter.EVENT_TYPE_HEADER), RetryMetricsInterceptor.listener())
+                .record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The {@code createdAt} header as an ISO-8601 instant or epoch number, else the producer timestamp.
+     */
+    static Instant createdAt(ConsumerRecord<?, ?> record) {
+        String header = header(record, CREATED_AT_HEADER);
+        if (header != null) {
+            try {
+                return parse(header);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                // Unreadable; fall back to the record timestamp.
+            }
+        }
+        if (record.timestampType() == TimestampType.CREATE_TIME && record.timestamp() >= 0) {
+            return Instant.ofEpochMilli(record.timestamp());
+        }
+        return null;
+    }
+
+    private static Instant parse(String value) {
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            long epoch = Long.parseLong(value);
+            return epoch > EPOCH_MICROS_THRESHOLD ? Instant.EPOCH.plus(epoch, ChronoUnit.MICROS) : Instant.ofEpochMilli(epoch);
+        }
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value, Instant::from);
+    }
+
+    private Timer timer(String topic, String eventType, String group) {
+        MeterKey key = new MeterKey(topic, eventType == null ? NONE : eventType, group);
+        return timers.computeIfAbsent(key, k -> Timer.builder("kafka.event.latency")
+                .description("Time from an event's creation to its delivery to a listener")
+                .tag("topic", k.topic())
+                .tag("eventType", k.eventType())
+                .tag("group", k.group())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(meterRegistry));
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private record MeterKey(String topic, String eventType, String group) {
+    }
+}
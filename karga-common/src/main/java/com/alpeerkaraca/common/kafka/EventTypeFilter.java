@@ -0,0 +1,80 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Discards records by their {@code eventType} header, so a listener only sees the event types it acts on.
+ *
+ * <p>
+ * The header is compared as raw bytes against the accepted types, without decoding it or the payload. Records
+ * without the header are kept and left to the listener. With no accepted types every record is kept.
+ * </p>
+ *
+ * <p>
+ * Registered by {@link EventTypeFilterConfig} from {@code kafka.event-filter.accepted-types}, and applied to
+ * a listener with {@code @KafkaListener(filter = EventTypeFilter.BEAN)}. The same rule runs in the consumer's value
+ * deserializer ({@link EventTypeFilteringDeserializer}), so discarded records are never deserialized either.
+ * </p>
+ */
+public class EventTypeFilter implements RecordFilterStrategy<Object, Object> {
+
+    public static final String BEAN = "eventTypeFilter";
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    private final byte[][] acceptedTypes;
+
+    public EventTypeFilter(Collection<String> acceptedTypes) {
+        this.acceptedTypes = acceptedTypes.stream()
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .map(type -> type.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+    }
+
+    @Override
+    public boolean filter(ConsumerRecord<Object, Object> record) {
+        return !accepts(record.headers());
+    }
+
+    /**
+     * A batch whose records were all discarded is not handed to the listener.
+     */
+    @Override
+    public boolean ignoreEmptyBatch() {
+        return true;
+    }
+
+    /**
+     * @return {@code true} if no accepted types are configured, so no record is discarded.
+     */
+    public boolean acceptsAll() {
+        return acceptedTypes.length == 0;
+    }
+
+    /**
+     * @return {@code true} if a record with these headers is to be processed.
+     */
+    public boolean accepts(Headers headers) {
+        if (acceptedTypes.length == 0 || headers == null) {
+            return true;
+        }
+        Header header = headers.lastHeader(EVENT_TYPE_HEADER);
+        if (header == null) {
+            return true;
+        }
+        byte[] eventType = header.value();
+        for (byte[] acceptedType : acceptedTypes) {
+            if (Arrays.equals(acceptedType, eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
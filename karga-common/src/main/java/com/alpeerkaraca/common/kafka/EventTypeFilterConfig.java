@@ -0,0 +1,55 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Registers the {@link EventTypeFilter} of the service, from {@code kafka.event-filter.accepted-types}.
+ *
+ * <p>
+ * With accepted types set, Boot's consumer factory also wraps its configured value deserializer in an
+ * {@link EventTypeFilteringDeserializer}, so the payloads of other event types are never deserialized. That applies
+ * to every consumer of the service; listeners still opt in with {@code @KafkaListener(filter = EventTypeFilter.BEAN)}
+ * to have the skipped records dropped and acknowledged. Without the property the filter keeps every record.
+ * </p>
+ */
+@Configuration
+public class EventTypeFilterConfig {
+
+    @Bean(name = EventTypeFilter.BEAN)
+    public EventTypeFilter eventTypeFilter(@Value("${kafka.event-filter.accepted-types:}") String[] acceptedTypes) {
+        return new EventTypeFilter(List.of(acceptedTypes));
+    }
+
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer eventTypeFilteringConsumerFactoryCustomizer(EventTypeFilter eventTypeFilter) {
+        return consumerFactory -> {
+            if (!eventTypeFilter.acceptsAll()) {
+                wrapValueDeserializer(consumerFactory, eventTypeFilter);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void wrapValueDeserializer(DefaultKafkaConsumerFactory<?, ?> consumerFactory, EventTypeFilter filter) {
+        Object configured = consumerFactory.getConfigurationProperties().get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+        if (consumerFactory.getValueDeserializer() != null || configured == null) {
+            return;
+        }
+        Class<?> deserializerClass = configured instanceof Class<?> type
+                ? type
+                : ClassUtils.resolveClassName(configured.toString(), ClassUtils.getDefaultClassLoader());
+        ((DefaultKafkaConsumerFactory<Object, Object>) consumerFactory).setValueDeserializerSupplier(() ->
+                new EventTypeFilteringDeserializer<>(filter,
+                        (Deserializer<Object>) BeanUtils.instantiateClass(deserializerClass)));
+    }
+}
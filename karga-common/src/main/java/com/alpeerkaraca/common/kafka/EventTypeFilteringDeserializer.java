@@ -0,0 +1,46 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer that skips the records an {@link EventTypeFilter} discards: their value is returned as
+ * {@code null} without handing the bytes to the delegate, and the filter drops the record before the listener.
+ *
+ * @param <T> The type the delegate produces.
+ */
+public class EventTypeFilteringDeserializer<T> implements Deserializer<T> {
+
+    private final EventTypeFilter filter;
+    private final Deserializer<T> delegate;
+
+    public EventTypeFilteringDeserializer(EventTypeFilter filter, Deserializer<T> delegate) {
+        this.filter = filter;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (!filter.accepts(headers)) {
+            return null;
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.alpeerkaraca.common.kafka;
+
+import com.alpeerkaraca.common.event.codec.BinaryEventSerializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serializes forwarded records back into the form they were read in.
+ *
+ * <p>
+ * Listeners read outbox events as strings, which the services' default {@link JsonSerializer} would write as a JSON
+ * string literal, so a retried event would no longer decode. Strings and byte arrays are written as they are; events
+ * a {@link com.alpeerkaraca.common.event.codec.BinaryEventDeserializer} produced are written in the binary format
+ * again, and other values a JSON deserializer produced as JSON.
+ * </p>
+ */
+public class ForwardingSerializer extends DelegatingByTypeSerializer {
+
+    public ForwardingSerializer() {
+        super(delegates(), true);
+    }
+
+    private static Map<Class<?>, Serializer<?>> delegates() {
+        // Checked in order, the first assignable type wins.
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(String.class, new StringSerializer());
+        delegates.put(Object.class, new BinaryEventSerializer());
+        return delegates;
+    }
+}
@@ -0,0 +1,49 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Map;
+
+/**
+ * Registers the template that forwards failed records to the retry and dead-letter topics of
+ * {@link SagaRetryableTopic} listeners.
+ *
+ * <p>
+ * It shares the producer settings of the service's own template and only swaps the serializers for
+ * {@link ForwardingSerializer}. The bean is lazy and declared as {@link KafkaOperations}, so Boot still creates its
+ * default {@link KafkaTemplate}, and contexts without Kafka, such as web slice tests, never build it.
+ * </p>
+ *
+ * <p>
+ * The retry topics also need a scheduler to resume the paused delay-topic partitions. The services do not enable
+ * scheduling, so Boot registers none, and one of their own is wrapped here.
+ * </p>
+ */
+@Configuration
+public class KafkaRetryConfig {
+
+    public static final String FORWARDING_TEMPLATE = "kafkaRetryForwardingTemplate";
+
+    @Bean(name = FORWARDING_TEMPLATE)
+    @Lazy
+    public KafkaOperations<Object, Object> kafkaRetryForwardingTemplate(ProducerFactory<Object, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ForwardingSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ForwardingSerializer.class));
+    }
+
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+}
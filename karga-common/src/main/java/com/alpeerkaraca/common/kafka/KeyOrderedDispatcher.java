@@ -0,0 +1,212 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes the records of a Kafka listener on virtual threads, in parallel across message keys and in delivery
+ * order within a key.
+ *
+ * <p>
+ * A record listener handles one record of a partition at a time, so a slow handler, e.g. a Stripe call, holds up
+ * every other aggregate on that partition. With {@code kafka.key-ordered.enabled=true} the listener thread only hands
+ * the record over: records with the same key, the aggregate id the outbox routes by, are chained and run one after
+ * another, while records with different keys run side by side. Each record is acknowledged when its handler is done.
+ * Listeners on {@link #CONTAINER_FACTORY} acknowledge out of order, so the container commits a partition only up to
+ * its lowest record still in progress, and pauses it until the records of the previous poll are done.
+ * </p>
+ *
+ * <p>
+ * Handlers run in a transaction of their own. A handler that throws is retried up to
+ * {@code kafka.key-ordered.max-attempts} times, {@code kafka.key-ordered.backoff-ms} apart, while the later records of
+ * its key wait. Then, or at once if it threw an {@link IllegalArgumentException}, the record goes to the dead-letter
+ * topic through the {@link DeadLetterPublisher}, is counted in {@code kafka.key-ordered.dead-lettered} and
+ * acknowledged. A record the DLT does not take is left unacknowledged, so it is delivered again after the next
+ * rebalance. At most {@code kafka.key-ordered.max-in-flight} records are in progress, beyond that the listener thread
+ * waits. A record still running when its partition is revoked can be delivered to the new owner as well; the inbox
+ * claim of {@link com.alpeerkaraca.common.inbox.IdempotentConsumer} drops the second one.
+ * </p>
+ *
+ * <p>
+ * With the mode off, the handler runs on the listener thread and failures go to the container's error handler, i.e.
+ * the retry topics of a {@link SagaRetryableTopic} listener.
+ * </p>
+ */
+@Component
+@Slf4j
+public class KeyOrderedDispatcher {
+
+    /**
+     * The listener container factory for listeners that hand their records to this dispatcher.
+     */
+    public static final String CONTAINER_FACTORY = "keyOrderedKafkaListenerContainerFactory";
+
+    private static final String METRIC_PREFIX = "kafka.key-ordered";
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final Semaphore inFlight;
+    private final ConcurrentMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("key-ordered-", 0).factory());
+
+    public KeyOrderedDispatcher(
+            @Autowired(required = false) PlatformTransactionManager transactionManager,
+            DeadLetterPublisher deadLetterPublisher,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Value("${kafka.key-ordered.enabled:false}") boolean enabled,
+            @Value("${kafka.key-ordered.max-in-flight:256}") int maxInFlight,
+            @Value("${kafka.key-ordered.max-attempts:3}") int maxAttempts,
+            @Value("${kafka.key-ordered.backoff-ms:1000}") long backoffMs) {
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.meterRegistry = meterRegistry == null ? Metrics.globalRegistry : meterRegistry;
+        this.enabled = enabled;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.meterRegistry.gauge(METRIC_PREFIX + ".in-flight", inFlight, permits -> maxInFlight - permits.availablePermits());
+    }
+
+    /**
+     * Handles a record after the records of the same key that were dispatched before it.
+     *
+     * @param record         The record; records without a key are not ordered against any other record.
+     * @param acknowledgment The record's acknowledgment, called once the handler is done.
+     * @param handler        The service's processing of the record.
+     */
+    public void dispatch(ConsumerRecord<?, ?> record, Acknowledgment acknowledgment, Runnable handler) {
+        if (!enabled) {
+            inTransaction(handler);
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to dispatch a record", e);
+        }
+        Object key = record.key();
+        Runnable task = () -> {
+            try {
+                if (process(record, handler)) {
+                    acknowledgment.acknowledge();
+                }
+            } catch (Exception e) {
+                log.warn("Could not acknowledge a record with key {}: {}", key, e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        };
+
+        try {
+            if (key == null) {
+                executor.execute(task);
+                return;
+            }
+            CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                    ? CompletableFuture.runAsync(task, executor)
+                    : tail.handleAsync((ignored, e) -> {
+                        task.run();
+                        return null;
+                    }, executor));
+            next.whenComplete((ignored, e) -> tails.remove(key, next));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            log.warn("Records still in progress at shutdown are left unacknowledged and will be delivered again");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the handler, retrying it on failure and dead-lettering the record once the attempts are used up.
+     *
+     * @return {@code true} once the record is done with, {@code false} if it is to be delivered again.
+     */
+    private boolean process(ConsumerRecord<?, ?> record, Runnable handler) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                inTransaction(handler);
+                return true;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !retryable(e)) {
+                    return deadLetter(record, attempt, e);
+                }
+                log.warn("Record with key {} failed on attempt {} of {}: {}", record.key(), attempt, maxAttempts, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} for failures that another attempt cannot fix, the ones {@link SagaRetryableTopic} sends
+     * to the DLT directly.
+     */
+    private static boolean retryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean deadLetter(ConsumerRecord<?, ?> record, int attempts, Exception cause) {
+        log.error("Dead-lettering a record with key {} after {} failed attempts", record.key(), attempts, cause);
+        try {
+            deadLetterPublisher.publish(record, cause);
+        } catch (Exception e) {
+            log.error("Could not dead-letter the record at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return false;
+        }
+        meterRegistry.counter(METRIC_PREFIX + ".dead-lettered").increment();
+        return true;
+    }
+
+    private void inTransaction(Runnable handler) {
+        if (transactionTemplate == null) {
+            handler.run();
+        } else {
+            transactionTemplate.executeWithoutResult(status -> handler.run());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Registers the listener container factory of {@link KeyOrderedDispatcher}.
+ *
+ * <p>
+ * The factory is configured from {@code spring.kafka.listener.*} like Boot's default one, but its listeners
+ * acknowledge each record themselves and may do so out of order: the container keeps the acknowledgments of a
+ * partition until the gaps before them are filled and commits up to the lowest record that is not. Records a
+ * listener's filter discards, such as the {@link EventTypeFilter}, are acknowledged by the container and committed
+ * with the rest of the poll. In contexts without Kafka, such as web slice tests, the factory is left unconfigured.
+ * </p>
+ */
+@Configuration
+public class KeyOrderedKafkaConfig {
+
+    @Bean(name = KeyOrderedDispatcher.CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> keyOrderedKafkaListenerContainerFactory(
+            ObjectProvider<ConcurrentKafkaListenerContainerFactoryConfigurer> configurers,
+            ObjectProvider<ConsumerFactory<Object, Object>> consumerFactories) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        ConcurrentKafkaListenerContainerFactoryConfigurer configurer = configurers.getIfAvailable();
+        ConsumerFactory<Object, Object> consumerFactory = consumerFactories.getIfAvailable();
+        if (configurer != null && consumerFactory != null) {
+            configurer.configure(factory, consumerFactory);
+        }
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        factory.setAckDiscarded(true);
+        return factory;
+    }
+}
@@ -0,0 +1,43 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Registers the interceptors Boot installs on every listener container, for the listener metrics.
+ *
+ * <p>
+ * Boot only picks up an interceptor that is the single bean of its type, so the record interceptors are combined
+ * into one: {@link EventLatencyMetrics} for every record and {@link RetryMetricsInterceptor} for the retry and
+ * dead-letter topics. Batch listeners get the latency alone; they do not use retry topics.
+ * </p>
+ */
+@Configuration
+public class ListenerMetricsConfig {
+
+    @Bean
+    public RecordInterceptor<Object, Object> listenerMetricsRecordInterceptor(
+            EventLatencyMetrics eventLatencyMetrics,
+            @Autowired(required = false) MeterRegistry meterRegistry) {
+        RecordInterceptor<Object, Object> latency = (record, consumer) -> {
+            eventLatencyMetrics.record(record);
+            return record;
+        };
+        return new CompositeRecordInterceptor<>(latency,
+                new RetryMetricsInterceptor(meterRegistry == null ? Metrics.globalRegistry : meterRegistry));
+    }
+
+    @Bean
+    public BatchInterceptor<Object, Object> listenerMetricsBatchInterceptor(EventLatencyMetrics eventLatencyMetrics) {
+        return (records, consumer) -> {
+            records.forEach(eventLatencyMetrics::record);
+            return records;
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaUtils;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the records that reach the retry and dead-letter topics of {@link SagaRetryableTopic} listeners.
+ *
+ * <p>
+ * {@link ListenerMetricsConfig} installs it on every record listener container, including the ones of the retry and
+ * DLT endpoints. Meters are tagged with {@code listener}, the consumer group of the main listener, and {@code topic}:
+ * </p>
+ * <ul>
+ * <li>{@code kafka.retry.deliveries} counts the deliveries from retry topics,</li>
+ * <li>{@code kafka.retry.depth} records which retry each of them is, 1 for the first,</li>
+ * <li>{@code kafka.dlt.records} counts the records arriving in a dead-letter topic.</li>
+ * </ul>
+ */
+public class RetryMetricsInterceptor implements RecordInterceptor<Object, Object> {
+
+    private static final Pattern ENDPOINT_GROUP_SUFFIX = Pattern.compile("(" + Pattern.quote(SagaRetryableTopic.RETRY_SUFFIX)
+            + "(-\\d+)?|" + Pattern.quote(SagaRetryableTopic.DLT_SUFFIX) + ")$");
+
+    private final MeterRegistry meterRegistry;
+
+    public RetryMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry == null ? Metrics.globalRegistry : meterRegistry;
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        String topic = record.topic();
+        if (topic.endsWith(SagaRetryableTopic.DLT_SUFFIX)) {
+            meterRegistry.counter("kafka.dlt.records", "listener", listener(), "topic", topic).increment();
+        } else if (DeadLetterPublisher.RETRY_TOPIC.matcher(topic).find()) {
+            String listener = listener();
+            meterRegistry.counter("kafka.retry.deliveries", "listener", listener, "topic", topic).increment();
+            DistributionSummary.builder("kafka.retry.depth")
+                    .tag("listener", listener)
+                    .register(meterRegistry)
+                    .record(attempts(record) - 1);
+        }
+        return record;
+    }
+
+    /**
+     * @return The consumer group of the main listener, from the group of the endpoint on this thread.
+     */
+    static String listener() {
+        String group = KafkaUtils.getConsumerGroupId();
+        return group == null ? "unknown" : ENDPOINT_GROUP_SUFFIX.matcher(group).replaceFirst("");
+    }
+
+    /**
+     * @return The delivery attempt the retry topics recorded for the record, 1 for its first delivery.
+     */
+    static int attempts(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        if (header == null || header.value().length != Integer.BYTES) {
+            return 1;
+        }
+        return ByteBuffer.wrap(header.value()).getInt();
+    }
+}
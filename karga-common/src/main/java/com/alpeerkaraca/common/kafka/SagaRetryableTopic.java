@@ -0,0 +1,50 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.retry.annotation.Backoff;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Non-blocking retries for a saga listener: a record whose handler throws is forwarded to a delay topic and the
+ * partition moves on.
+ *
+ * <p>
+ * A record of {@code <topic>} that fails is retried from {@code <topic>-retry-0}, {@code -retry-1} and
+ * {@code -retry-2} after 1s, 10s and 60s by default ({@code kafka.retry.attempts}, {@code kafka.retry.initial-delay-ms},
+ * {@code kafka.retry.multiplier} and {@code kafka.retry.max-delay-ms}), each by a consumer of
+ * {@code <group>-retry-<n>} calling the same method. When the attempts are used up it goes to {@code <topic>-dlt}.
+ * Records that can never succeed, i.e. the handler threw an {@link IllegalArgumentException} such as an unreadable
+ * event, skip the delay topics and go to the DLT directly.
+ * </p>
+ *
+ * <p>
+ * Records are forwarded as they were read (see {@link ForwardingSerializer}). Handlers must throw instead of
+ * swallowing failures, and must stay idempotent: a retried record runs through the inbox claim again.
+ * </p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@RetryableTopic(
+        attempts = "${kafka.retry.attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                multiplierExpression = "${kafka.retry.multiplier:10}",
+                maxDelayExpression = "${kafka.retry.max-delay-ms:60000}"),
+        kafkaTemplate = KafkaRetryConfig.FORWARDING_TEMPLATE,
+        retryTopicSuffix = SagaRetryableTopic.RETRY_SUFFIX,
+        dltTopicSuffix = SagaRetryableTopic.DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        exclude = IllegalArgumentException.class,
+        traversingCauses = "true")
+public @interface SagaRetryableTopic {
+
+    String RETRY_SUFFIX = "-retry";
+    String DLT_SUFFIX = "-dlt";
+}
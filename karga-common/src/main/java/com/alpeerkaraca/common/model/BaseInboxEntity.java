@@ -5,6 +5,7 @@ import jakarta.persistence.MappedSuperclass;
 import lombok.Data;
 
 import java.time.Instant;
+import java.time.LocalDate;
 
 @MappedSuperclass
 @Data
@@ -14,6 +15,12 @@ public class BaseInboxEntity {
 
     private Instant processedAt = Instant.now();
 
+    /**
+     * The partition key of the inbox tables, taken from the message id so that it is the same on every redelivery;
+     * see {@link com.alpeerkaraca.common.inbox.InboxPartitionManager}.
+     */
+    private LocalDate messageDay;
+
     private InboxStatus status;
 
     private String eventType;
@@ -1,10 +1,13 @@
 package com.alpeerkaraca.common.model;
 
+import com.alpeerkaraca.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -16,17 +19,29 @@ import java.util.UUID;
 @AllArgsConstructor
 public class BaseOutboxEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     private String aggregateId;
     private String aggregateType;
     private String eventType;
 
-    @Column(columnDefinition = "TEXT")
+    /**
+     * The event as a JSON document. Stored as {@code jsonb} so the outbox router can publish it as a nested object
+     * instead of a JSON string; see {@link com.alpeerkaraca.common.event.OutboxEnvelope}.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
     private String payload;
 
     private Instant createdAt = Instant.now();
 
+    /**
+     * The W3C trace context of the span that wrote the event, published as the {@code traceparent} header; see
+     * {@link com.alpeerkaraca.common.tracing.TraceContext}.
+     */
+    @Column(length = 55)
+    private String traceparent;
+
     private boolean processed = false;
 }
@@ -0,0 +1,42 @@
+package com.alpeerkaraca.common.model;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+
+import java.util.List;
+
+/**
+ * Resolves the tables of the entities a service maps on top of the shared base classes, e.g. its inbox or outbox.
+ */
+public final class EntityTables {
+
+    private EntityTables() {
+    }
+
+    /**
+     * @param entityManagerFactory The service's persistence unit.
+     * @param baseClass            A mapped superclass such as {@link BaseInboxEntity}.
+     * @return The table names of the entities extending {@code baseClass}, sorted.
+     */
+    public static List<String> of(EntityManagerFactory entityManagerFactory, Class<?> baseClass) {
+        return entityManagerFactory.getMetamodel().getEntities().stream()
+                .map(EntityType::getJavaType)
+                .filter(baseClass::isAssignableFrom)
+                .map(EntityTables::table)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * @param entity An entity class.
+     * @return The table it is mapped to: its {@code @Table} name or the snake-cased class name.
+     */
+    public static String table(Class<?> entity) {
+        Table table = entity.getAnnotation(Table.class);
+        if (table != null && !table.name().isEmpty()) {
+            return table.name();
+        }
+        return entity.getSimpleName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+    }
+}
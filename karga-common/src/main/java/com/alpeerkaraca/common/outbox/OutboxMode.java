@@ -0,0 +1,21 @@
+package com.alpeerkaraca.common.outbox;
+
+/**
+ * How {@link OutboxWriter} stores outbox events, set with {@code outbox.mode}.
+ */
+public enum OutboxMode {
+    /**
+     * The row is inserted and deleted in the same transaction. Debezium still reads the insert from the WAL, and the
+     * table stays near-empty.
+     */
+    DELETE_AFTER_INSERT,
+    /**
+     * The row is kept as an audit trail until {@link OutboxPurger} removes it.
+     */
+    RETAIN,
+    /**
+     * The row is kept and published by the service itself through {@link OutboxRelay}, without Debezium. Published
+     * rows are marked {@code processed} and purged like in {@link #RETAIN}.
+     */
+    RELAY
+}
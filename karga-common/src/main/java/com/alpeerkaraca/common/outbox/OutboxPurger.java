@@ -0,0 +1,117 @@
+package com.alpeerkaraca.common.outbox;
+
+import com.alpeerkaraca.common.model.BaseOutboxEntity;
+import com.alpeerkaraca.common.model.EntityTables;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes outbox rows older than {@code outbox.purge.retention-days} when the outbox is kept as an audit trail
+ * ({@code outbox.mode=RETAIN}) or published by {@link OutboxRelay} ({@code outbox.mode=RELAY}). In relay mode only
+ * rows that were already published are deleted.
+ *
+ * <p>
+ * Every {@code outbox.purge.interval-ms} the rows of each {@link BaseOutboxEntity} table are deleted in batches of
+ * {@code outbox.purge.batch-size}, each in its own short transaction. Batches lock their rows with
+ * {@code SKIP LOCKED}, so the purger never waits on writers and instances of a service can purge side by side. The
+ * deleted rows are counted in {@code outbox.purged}, tagged with the table.
+ * </p>
+ */
+@Component
+@Slf4j
+public class OutboxPurger {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> tables;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean publishedOnly;
+    private final int retentionDays;
+    private final int batchSize;
+    private final long intervalMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxPurger(
+            @Autowired(required = false) DataSource dataSource,
+            @Autowired(required = false) EntityManagerFactory entityManagerFactory,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Value("${outbox.mode:DELETE_AFTER_INSERT}") OutboxMode mode,
+            @Value("${outbox.purge.retention-days:30}") int retentionDays,
+            @Value("${outbox.purge.batch-size:1000}") int batchSize,
+            @Value("${outbox.purge.interval-ms:600000}") long intervalMs) {
+        this.jdbcTemplate = dataSource == null ? null : new JdbcTemplate(dataSource);
+        this.tables = entityManagerFactory == null
+                ? List.of() : EntityTables.of(entityManagerFactory, BaseOutboxEntity.class);
+        this.meterRegistry = meterRegistry == null ? Metrics.globalRegistry : meterRegistry;
+        this.enabled = mode != OutboxMode.DELETE_AFTER_INSERT && retentionDays > 0;
+        this.publishedOnly = mode == OutboxMode.RELAY;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || jdbcTemplate == null || tables.isEmpty()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::purge, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Purges every outbox table; failures are logged and retried on the next run.
+     */
+    void purge() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        for (String table : tables) {
+            try {
+                long purged = purge(table, cutoff);
+                if (purged > 0) {
+                    log.info("Purged {} outbox rows from {}", purged, table);
+                }
+            } catch (Exception e) {
+                log.warn("Outbox purge of {} failed: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private long purge(String table, Timestamp cutoff) {
+        String sql = "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table
+                + " WHERE created_at < ?" + (publishedOnly ? " AND processed" : "") + " LIMIT ? FOR UPDATE SKIP LOCKED)";
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, cutoff, batchSize);
+            purged += deleted;
+            meterRegistry.counter("outbox.purged", "table", table).increment(deleted);
+        } while (deleted == batchSize && !Thread.currentThread().isInterrupted());
+        return purged;
+    }
+}
@@ -0,0 +1,295 @@
+package com.alpeerkaraca.common.outbox;
+
+import com.alpeerkaraca.common.kafka.EventLatencyMetrics;
+import com.alpeerkaraca.common.model.BaseOutboxEntity;
+import com.alpeerkaraca.common.model.EntityTables;
+import com.alpeerkaraca.common.tracing.TraceContext;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the outbox from within the service when {@code outbox.mode=RELAY}, replacing the Debezium connector.
+ *
+ * <p>
+ * Every {@code outbox.relay.interval-ms} each {@link BaseOutboxEntity} table is drained in batches of up to
+ * {@code outbox.relay.batch-size} rows. A batch is one transaction: the rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, sent through an idempotent producer, and marked {@code processed} in one statement
+ * once the broker has acknowledged all of them. If a send fails the transaction rolls back and the rows are claimed
+ * again on the next run, so events are published at least once; consumers drop the repeats by their {@code id}
+ * header.
+ * </p>
+ *
+ * <p>
+ * Replicas of a service relay side by side: rows claimed by one are skipped by the others instead of waited on. To
+ * keep the events of an aggregate in order across replicas, a row is only claimed once every older row of its
+ * aggregate has been published, so a burst on one aggregate takes a batch per event.
+ * </p>
+ *
+ * <p>
+ * Records look like the ones of the connectors: the payload as the value, {@code aggregate_id} as the key and the
+ * {@code eventType}, {@code id}, {@code aggregateId}, {@code createdAt} and {@code traceparent} headers. The topic of
+ * {@code <name>_outbox} is {@code <name>_events} unless {@code outbox.relay.topics.<table>} says otherwise. Exported
+ * meters are {@code outbox.relay.batch.size}, {@code outbox.relay.lag} (from the row's {@code created_at} to the
+ * broker's acknowledgement), {@code outbox.relay.published} and {@code outbox.relay.failures}, tagged with the table.
+ * </p>
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String METRIC_PREFIX = "outbox.relay";
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rows, rowNum) -> new OutboxRow(
+            rows.getObject("id", UUID.class),
+            rows.getString("aggregate_id"),
+            rows.getString("event_type"),
+            rows.getString("payload"),
+            rows.getTimestamp("created_at").toInstant(),
+            rows.getString("traceparent"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactions;
+    private final KafkaOperations<Object, Object> kafkaOperations;
+    private final Map<String, String> topics;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long intervalMs;
+    private final long sendTimeoutMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public OutboxRelay(
+            @Autowired(required = false) DataSource dataSource,
+            @Autowired(required = false) EntityManagerFactory entityManagerFactory,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            ObjectProvider<ProducerFactory<Object, Object>> producerFactory,
+            Environment environment,
+            @Value("${outbox.mode:DELETE_AFTER_INSERT}") OutboxMode mode,
+            @Value("${outbox.relay.batch-size:500}") int batchSize,
+            @Value("${outbox.relay.interval-ms:100}") long intervalMs,
+            @Value("${outbox.relay.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this(dataSource == null ? null : new JdbcTemplate(dataSource),
+                dataSource == null ? null : new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                mode == OutboxMode.RELAY ? idempotentTemplate(producerFactory.getIfAvailable()) : null,
+                topics(entityManagerFactory == null
+                        ? List.of() : EntityTables.of(entityManagerFactory, BaseOutboxEntity.class), environment),
+                meterRegistry == null ? Metrics.globalRegistry : meterRegistry,
+                mode == OutboxMode.RELAY, batchSize, intervalMs, sendTimeoutMs);
+    }
+
+    OutboxRelay(JdbcTemplate jdbcTemplate, TransactionOperations transactions,
+                KafkaOperations<Object, Object> kafkaOperations, Map<String, String> topics,
+                MeterRegistry meterRegistry, boolean enabled, int batchSize, long intervalMs, long sendTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactions = transactions;
+        this.kafkaOperations = kafkaOperations;
+        this.topics = topics;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || jdbcTemplate == null || kafkaOperations == null || topics.isEmpty()) {
+            return;
+        }
+        log.info("Relaying outbox tables {}", topics);
+        scheduler.execute(this::createIndexes);
+        scheduler.scheduleWithFixedDelay(this::relay, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Drains every outbox table; failures are logged and retried on the next run.
+     */
+    void relay() {
+        for (String table : topics.keySet()) {
+            try {
+                int relayed;
+                do {
+                    relayed = relay(table);
+                } while (relayed > 0 && !Thread.currentThread().isInterrupted());
+            } catch (Exception e) {
+                meterRegistry.counter(METRIC_PREFIX + ".failures", "table", table).increment();
+                log.warn("Outbox relay of {} failed: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Claims, publishes and marks one batch.
+     *
+     * @return The number of rows published.
+     */
+    int relay(String table) {
+        Integer relayed = transactions.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(claimStatement(table), ROW_MAPPER, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            publish(table, rows);
+            UUID[] ids = rows.stream().map(OutboxRow::id).toArray(UUID[]::new);
+            jdbcTemplate.update("UPDATE " + table + " SET processed = true WHERE id = ANY(?)",
+                    statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids)));
+            return rows.size();
+        });
+        if (relayed != null && relayed > 0) {
+            DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                    .tag("table", table)
+                    .register(meterRegistry)
+                    .record(relayed);
+            meterRegistry.counter(METRIC_PREFIX + ".published", "table", table).increment(relayed);
+        }
+        return relayed == null ? 0 : relayed;
+    }
+
+    /**
+     * Sends a batch and waits for the broker to acknowledge every record.
+     */
+    private void publish(String table, List<OutboxRow> rows) {
+        String topic = topics.get(table);
+        List<CompletableFuture<?>> sends = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            ProducerRecord<Object, Object> record = new ProducerRecord<>(
+                    topic, null, row.aggregateId(), row.payload(), headers(row));
+            // Sent under the writer's trace, so a tracing agent parents its producer span on it.
+            try (Scope scope = TraceContext.restore(row.traceparent())) {
+                sends.add(kafkaOperations.send(record).thenRun(() -> meterRegistry
+                        .timer(METRIC_PREFIX + ".lag", "table", table)
+                        .record(Duration.between(row.createdAt(), Instant.now()))));
+            }
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox events of " + table, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Publishing " + rows.size() + " outbox events of " + table + " failed", e);
+        }
+    }
+
+    /**
+     * Adds the partial indexes the claims scan; they only hold unpublished rows, so they stay small however long
+     * published rows are retained.
+     */
+    private void createIndexes() {
+        for (String table : topics.keySet()) {
+            try {
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table + "_unpublished_idx ON " + table
+                        + " (created_at) WHERE NOT processed");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table + "_unpublished_aggregate_idx ON " + table
+                        + " (aggregate_id, created_at) WHERE NOT processed");
+            } catch (Exception e) {
+                log.warn("Could not create the relay indexes of {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    static String claimStatement(String table) {
+        return "SELECT o.id, o.aggregate_id, o.event_type, o.payload::text AS payload, o.created_at, o.traceparent FROM " + table
+                + " o WHERE NOT o.processed AND NOT EXISTS (SELECT 1 FROM " + table + " p"
+                + " WHERE p.aggregate_id = o.aggregate_id AND NOT p.processed"
+                + " AND (p.created_at, p.id) < (o.created_at, o.id))"
+                + " ORDER BY o.created_at, o.id LIMIT ? FOR UPDATE SKIP LOCKED";
+    }
+
+    /**
+     * @return The topic of each table, in table order.
+     */
+    static Map<String, String> topics(List<String> tables, Environment environment) {
+        Map<String, String> topics = new LinkedHashMap<>();
+        for (String table : tables) {
+            String name = table.endsWith("_outbox") ? table.substring(0, table.length() - "_outbox".length()) : table;
+            topics.put(table, environment.getProperty("outbox.relay.topics." + table, name + "_events"));
+        }
+        return topics;
+    }
+
+    private static RecordHeaders headers(OutboxRow row) {
+        RecordHeaders headers = new RecordHeaders();
+        header(headers, "eventType", row.eventType());
+        header(headers, "id", row.id().toString());
+        header(headers, "aggregateId", row.aggregateId());
+        header(headers, EventLatencyMetrics.CREATED_AT_HEADER, row.createdAt().toString());
+        header(headers, TraceContext.TRACEPARENT_HEADER, row.traceparent());
+        return headers;
+    }
+
+    private static void header(RecordHeaders headers, String name, String value) {
+        if (value != null) {
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A template on the service's producer settings with string serdes and idempotence, so a send retried by the
+     * client is written once and in order.
+     */
+    private static KafkaOperations<Object, Object> idempotentTemplate(ProducerFactory<Object, Object> producerFactory) {
+        if (producerFactory == null) {
+            return null;
+        }
+        return new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.ACKS_CONFIG, "all"));
+    }
+
+    record OutboxRow(UUID id, String aggregateId, String eventType, String payload, Instant createdAt,
+                     String traceparent) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.alpeerkaraca.common.outbox;
+
+import com.alpeerkaraca.common.model.BaseOutboxEntity;
+import com.alpeerkaraca.common.tracing.TraceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes outbox events for Debezium, or {@link OutboxRelay}, to publish.
+ *
+ * <p>
+ * Debezium reads the outbox from the WAL, so a committed row is never read again. By default
+ * ({@link OutboxMode#DELETE_AFTER_INSERT}) the row is therefore deleted in the transaction that inserted it: the WAL
+ * carries the insert for the connector, whose outbox router skips the delete, and inserts and vacuum stay cheap
+ * because the table never grows. With {@code outbox.mode=RETAIN} rows are kept and {@link OutboxPurger} trims them.
+ * With {@code outbox.mode=RELAY} rows are kept until {@link OutboxRelay} has published them.
+ * </p>
+ *
+ * <p>
+ * In delete-after-insert mode the events of a transaction are only saved when published, so their inserts go out in
+ * one JDBC batch with the rest of the flush. Just before the transaction commits, the outbox is flushed and the
+ * events are deleted with one bulk statement per outbox repository.
+ * </p>
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxMode mode;
+
+    public OutboxWriter(@Value("${outbox.mode:DELETE_AFTER_INSERT}") OutboxMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Records {@code event} in the caller's transaction, with the trace context of the current span so the consumers'
+     * spans join the caller's trace.
+     *
+     * @param repository The service's outbox repository.
+     * @param event      The event to publish.
+     * @return The saved event.
+     */
+    @Transactional
+    public <E extends BaseOutboxEntity> E publish(JpaRepository<E, UUID> repository, E event) {
+        if (event.getTraceparent() == null) {
+            event.setTraceparent(TraceContext.current());
+        }
+        E saved = repository.save(event);
+        if (mode == OutboxMode.DELETE_AFTER_INSERT) {
+            deleteBeforeCommit(repository, saved.getId());
+        }
+        return saved;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deleteBeforeCommit(JpaRepository<?, UUID> repository, UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteInserted(repository, List.of(id));
+            return;
+        }
+        Map<JpaRepository<?, UUID>, List<UUID>> pending =
+                (Map<JpaRepository<?, UUID>, List<UUID>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<JpaRepository<?, UUID>, List<UUID>> created = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    created.forEach(OutboxWriter::deleteInserted);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+                }
+            });
+            pending = created;
+        }
+        pending.computeIfAbsent(repository, r -> new ArrayList<>()).add(id);
+    }
+
+    private static void deleteInserted(JpaRepository<?, UUID> repository, List<UUID> ids) {
+        // The inserts have to reach the database before the delete, or there would be nothing to delete.
+        repository.flush();
+        repository.deleteAllByIdInBatch(ids);
+    }
+}
@@ -0,0 +1,38 @@
+package com.alpeerkaraca.common.persistence;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sends each service's writes to the database as JDBC batches.
+ *
+ * <p>
+ * A saga step updates its entity and inserts an outbox row in one transaction. Hibernate queues both until the flush
+ * at commit; with a batch size and ordered inserts and updates, the flush sends one batch per statement instead of
+ * one round trip per row, and a transaction that writes several events of one type inserts them together. The ids
+ * are generated by Hibernate in the JVM, so nothing has to be read back between the statements.
+ * </p>
+ *
+ * <p>
+ * Settings a service configures itself under {@code spring.jpa.properties} take precedence. Set
+ * {@code persistence.batching.enabled=false} to send every statement on its own.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "persistence.batching", name = "enabled", matchIfMissing = true)
+public class JdbcBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${persistence.batching.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.alpeerkaraca.common.persistence;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link RecentWrites} kept in this JVM. Only correct while a user's requests all reach the instance that handled
+ * their write, so it is the fallback for services without Redis.
+ */
+class LocalRecentWrites implements RecentWrites {
+
+    /**
+     * Past this many tracked users, the ones whose window has closed are dropped on the next write.
+     */
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    LocalRecentWrites(Duration window, LongSupplier clock) {
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void record(String user) {
+        long now = clock.getAsLong();
+        lastWrites.put(user, now);
+        if (lastWrites.size() > MAX_TRACKED_WRITERS) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+    }
+
+    @Override
+    public boolean contains(String user) {
+        Long writtenAt = lastWrites.get(user);
+        return writtenAt != null && clock.getAsLong() - writtenAt < windowMillis;
+    }
+}
@@ -0,0 +1,94 @@
+package com.alpeerkaraca.common.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Adds a read replica pool next to the primary one when {@code persistence.replica.url} is set. A
+ * {@link LazyConnectionDataSourceProxy} sends read-only connections to the replica and the rest to the primary, and
+ * {@link ReplicaRoutingDataSource} keeps a user's reads on the primary right after their own write.
+ *
+ * <p>
+ * Work marked {@code @Transactional(readOnly = true)}, including the {@code findById} and {@code findAll} methods of
+ * Spring Data repositories called outside a transaction, reads from the replica. The primary pool keeps its
+ * {@code spring.datasource} settings. The replica uses the primary's credentials unless
+ * {@code persistence.replica.username} and {@code persistence.replica.password} are set, and its pool is tuned under
+ * {@code persistence.replica.hikari}. Both pools report the Hikari meters, tagged {@code pool=primary} and
+ * {@code pool=replica}.
+ * </p>
+ *
+ * <p>
+ * {@code persistence.replica.read-your-writes-ms} sets how long a user's reads stay on the primary after a write and
+ * should be at least the replica's worst lag. The marker lives in Redis when the service has a
+ * {@code RedisTemplate<String, String>}, so it holds across instances; otherwise each instance only knows its own
+ * writes.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "persistence.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("persistence.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${persistence.replica.url}") String url,
+                                              @Value("${persistence.replica.username:}") String username,
+                                              @Value("${persistence.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${persistence.replica.read-your-writes-ms:5000}") long readYourWritesMillis,
+                                 ObjectProvider<RedisTemplate<String, String>> redisTemplate,
+                                 @Autowired(required = false) MeterRegistry meterRegistry) {
+        Duration readYourWrites = Duration.ofMillis(readYourWritesMillis);
+        RedisTemplate<String, String> redis = redisTemplate.getIfUnique();
+        RecentWrites recentWrites = redis == null
+                ? new LocalRecentWrites(readYourWrites, System::currentTimeMillis)
+                : new RedisRecentWrites(redis, readYourWrites);
+        ReplicaRoutingDataSource readOnlyDataSource = new ReplicaRoutingDataSource(primaryDataSource,
+                replicaDataSource, recentWrites, meterRegistry == null ? Metrics.globalRegistry : meterRegistry);
+        readOnlyDataSource.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(readOnlyDataSource.readWriteDataSource());
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+}
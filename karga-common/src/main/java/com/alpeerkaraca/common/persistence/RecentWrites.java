@@ -0,0 +1,12 @@
+package com.alpeerkaraca.common.persistence;
+
+/**
+ * Remembers which users committed a write recently, so that {@link ReplicaRoutingDataSource} can keep their reads on
+ * the primary until the replica has caught up.
+ */
+interface RecentWrites {
+
+    void record(String user);
+
+    boolean contains(String user);
+}
@@ -0,0 +1,48 @@
+package com.alpeerkaraca.common.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * {@link RecentWrites} shared by every instance of a service through Redis.
+ *
+ * <p>
+ * A committed write sets {@code replica:recent-write:<user>} with a TTL of the read-your-writes window, so a user's
+ * next request sees the marker whichever instance it reaches. If Redis cannot be reached, reads are treated as
+ * following a write and stay on the primary.
+ * </p>
+ */
+@Slf4j
+class RedisRecentWrites implements RecentWrites {
+
+    private static final String KEY_PREFIX = "replica:recent-write:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration window;
+
+    RedisRecentWrites(RedisTemplate<String, String> redisTemplate, Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.window = window;
+    }
+
+    @Override
+    public void record(String user) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + user, "1", window);
+        } catch (RuntimeException e) {
+            log.warn("Could not record the write of user {} for read-your-writes routing", user, e);
+        }
+    }
+
+    @Override
+    public boolean contains(String user) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + user));
+        } catch (RuntimeException e) {
+            log.warn("Could not check recent writes of user {}, reading from the primary", user, e);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.alpeerkaraca.common.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Keeps the reads of a user who just wrote on the primary, the one part of replica routing that
+ * {@link LazyConnectionDataSourceProxy} does not do by itself.
+ *
+ * <p>
+ * {@link ReadReplicaConfig} hands this data source to the proxy as its read-only data source and
+ * {@link #readWriteDataSource()} as its target, so the proxy sends the connections of read-only transactions here and
+ * every other connection straight to the primary. Work outside a transaction, such as the outbox and inbox jobs,
+ * therefore always goes to the primary.
+ * </p>
+ *
+ * <p>
+ * A replica lags behind the primary, so a user who just committed a write would not always see it on the next read.
+ * After a read-write transaction of an authenticated user commits, that user's read-only transactions stay on the
+ * primary for the window of the {@link RecentWrites} in use, which {@link ReadReplicaConfig} keeps in Redis so that
+ * every instance of the service sees it. The answer is remembered on the current request, and a write sets it there
+ * too, so a request asks the {@link RecentWrites} at most once however many read-only transactions it runs. Writes
+ * without an authenticated user, such as saga consumers, leave no marker; reads that must see them have to run in a
+ * read-write transaction. Each routing decision counts towards {@code datasource.routing}, tagged with the target pool
+ * and the reason.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String RECENT_WRITE_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".RECENT_WRITE";
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final RecentWrites recentWrites;
+    private final DataSource readWriteDataSource;
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter readsAfterWrite;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this(primary, replica, new LocalRecentWrites(readYourWrites, System::currentTimeMillis), meterRegistry);
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, RecentWrites recentWrites,
+                             MeterRegistry meterRegistry) {
+        this.recentWrites = recentWrites;
+        this.readWriteDataSource = new WriteRecordingDataSource(primary);
+        this.writes = counter(meterRegistry, PRIMARY, "read-write");
+        this.reads = counter(meterRegistry, REPLICA, "read-only");
+        this.readsAfterWrite = counter(meterRegistry, PRIMARY, "read-your-writes");
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        setLenientFallback(false);
+    }
+
+    /**
+     * @return The primary, recording a marker for the current user when a read-write transaction on it commits.
+     */
+    public DataSource readWriteDataSource() {
+        return readWriteDataSource;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (user != null && wroteRecently(user)) {
+            readsAfterWrite.increment();
+            return PRIMARY;
+        }
+        reads.increment();
+        return REPLICA;
+    }
+
+    private boolean wroteRecently(String user) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(RECENT_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Boolean known) {
+            return known;
+        }
+        boolean recent = recentWrites.contains(user);
+        if (request != null) {
+            request.setAttribute(RECENT_WRITE_ATTRIBUTE, recent, RequestAttributes.SCOPE_REQUEST);
+        }
+        return recent;
+    }
+
+    private void recordWrite() {
+        writes.increment();
+        String user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (request != null) {
+                    request.setAttribute(RECENT_WRITE_ATTRIBUTE, true, RequestAttributes.SCOPE_REQUEST);
+                }
+                recentWrites.record(user);
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the replica routing data source")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private class WriteRecordingDataSource extends DelegatingDataSource {
+
+        WriteRecordingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            recordWrite();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            recordWrite();
+            return super.getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.alpeerkaraca.common.persistence;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the annotated {@code UUID} id as a time-ordered version 7 UUID from {@link TimeOrderedUuid}, in place of
+ * {@code @GeneratedValue}.
+ *
+ * <p>
+ * The id is assigned in the JVM when the entity is persisted, like Hibernate's random UUIDs, so inserts still batch;
+ * but consecutive rows land next to each other in the primary key index.
+ * </p>
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
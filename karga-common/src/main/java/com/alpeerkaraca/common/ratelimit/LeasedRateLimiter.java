@@ -0,0 +1,198 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier rate limiter that leases batches of permits from Redis and spends them locally.
+ *
+ * <p>
+ * Instead of one Redis call per request, an instance takes {@code leaseFraction × limit} permits for a key in one
+ * {@link RedisRateLimiter#acquire} call and hands them out from a lock-free local counter. Redis is only asked
+ * again when the lease is used up or older than {@code rate-limit.lease.ttl-ms} (capped at the window).
+ * </p>
+ *
+ * <p>
+ * Leased permits are counted in Redis when they are granted, so the instances together never admit more than
+ * the limit per window; a request spent from a lease is only counted up to one lease TTL early. The cost is
+ * accuracy in the other direction: permits one instance holds but does not use are unavailable to the others
+ * until its lease expires. Smaller fractions and shorter TTLs are more accurate; larger ones save more Redis
+ * traffic.
+ * </p>
+ *
+ * <p>
+ * A rejection from Redis is remembered until its retry-after (at most one lease TTL), so an exhausted key does
+ * not cost a Redis call per rejected request either. When several requests refill the same key at once, their
+ * grants are added to the lease that is already held rather than replacing it, so no leased permit is lost. At most {@code rate-limit.lease.max-keys} leases are kept;
+ * expired ones are dropped first.
+ * </p>
+ */
+@Component
+public class LeasedRateLimiter {
+
+    private static final String METRIC_NAME = "rate.limit.permits";
+
+    private final RedisRateLimiter redisRateLimiter;
+    private final long leaseTtlMillis;
+    private final int maxLeases;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    private final Counter localPermits;
+    private final Counter redisPermits;
+    private final Counter localDenials;
+
+    public LeasedRateLimiter(
+            RedisRateLimiter redisRateLimiter,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Value("${rate-limit.lease.ttl-ms:1000}") long leaseTtlMillis,
+            @Value("${rate-limit.lease.max-keys:10000}") int maxLeases) {
+        this.redisRateLimiter = redisRateLimiter;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.maxLeases = maxLeases;
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+        this.localPermits = Counter.builder(METRIC_NAME).tag("source", "lease")
+                .description("Rate limited requests admitted").register(registry);
+        this.redisPermits = Counter.builder(METRIC_NAME).tag("source", "redis")
+                .description("Rate limited requests admitted").register(registry);
+        this.localDenials = Counter.builder("rate.limit.local.rejections")
+                .description("Rate limited requests rejected from a remembered Redis rejection").register(registry);
+        Gauge.builder("rate.limit.leases", leases, Map::size)
+                .description("Keys with a locally held permit lease").register(registry);
+    }
+
+    /**
+     * Takes one permit for {@code key}, from the local lease if one is still valid, otherwise by leasing a new
+     * batch from Redis.
+     *
+     * @param key           Redis key of the limited subject.
+     * @param limit         Permits allowed per window across all instances.
+     * @param windowMillis  Window length in milliseconds.
+     * @param algorithm     Algorithm evaluating the limit in Redis.
+     * @param leaseFraction Share of {@code limit} leased per Redis call; at least one permit is leased.
+     * @return The {@link RateLimitDecision} for this request.
+     */
+    public RateLimitDecision tryAcquire(String key, long limit, long windowMillis, RateLimitAlgorithm algorithm,
+                                        double leaseFraction) {
+        long now = System.nanoTime();
+        Lease lease = leases.get(key);
+        if (lease != null && !lease.isExpired(now)) {
+            if (lease.denied()) {
+                localDenials.increment();
+                return new RateLimitDecision(false, 0,
+                        Math.max(1, TimeUnit.NANOSECONDS.toMillis(lease.expiresAtNanos() - now)));
+            }
+            long left = lease.take();
+            if (left >= 0) {
+                localPermits.increment();
+                return new RateLimitDecision(true, left + lease.redisRemaining(), 0);
+            }
+        }
+
+        long batch = Math.max(1, (long) Math.ceil(limit * leaseFraction));
+        RateLimitGrant grant = redisRateLimiter.acquire(key, limit, windowMillis, algorithm, batch);
+        long ttlMillis = Math.min(leaseTtlMillis, windowMillis);
+        if (grant.granted() == 0) {
+            // Nothing frees up before retry-after, so later requests can be rejected without asking Redis.
+            long denyMillis = Math.min(grant.retryAfterMillis(), ttlMillis);
+            store(key, lease, denyMillis > 0
+                    ? Lease.denial(now + TimeUnit.MILLISECONDS.toNanos(denyMillis))
+                    : null, now);
+            return new RateLimitDecision(false, 0, grant.retryAfterMillis());
+        }
+        redisPermits.increment();
+
+        long leftOver = grant.granted() - 1;
+        store(key, lease, leftOver > 0
+                ? Lease.of(leftOver, grant.remaining(), now + TimeUnit.MILLISECONDS.toNanos(ttlMillis))
+                : null, now);
+        return new RateLimitDecision(true, leftOver + grant.remaining(), 0);
+    }
+
+    private void store(String key, Lease previous, Lease next, long now) {
+        if (next != null) {
+            leases.compute(key, (k, current) -> current == null ? next : current.absorb(next, now));
+            evictIfFull(now);
+        } else if (previous != null) {
+            leases.remove(key, previous);
+        }
+    }
+
+    private void evictIfFull(long now) {
+        if (leases.size() <= maxLeases) {
+            return;
+        }
+        leases.values().removeIf(lease -> lease.isExpired(now));
+        Iterator<Lease> iterator = leases.values().iterator();
+        while (leases.size() > maxLeases && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Permits leased for one key, or a remembered rejection.
+     *
+     * @param permits        Permits not yet handed out locally.
+     * @param redisRemaining Permits Redis still had for the key when the lease was granted.
+     * @param expiresAtNanos {@link System#nanoTime()} after which the lease must not be used.
+     * @param denied         Whether Redis rejected the key and nothing can be admitted before expiry.
+     */
+    private record Lease(AtomicLong permits, long redisRemaining, long expiresAtNanos, boolean denied) {
+
+        static Lease of(long permits, long redisRemaining, long expiresAtNanos) {
+            return new Lease(new AtomicLong(permits), redisRemaining, expiresAtNanos, false);
+        }
+
+        static Lease denial(long expiresAtNanos) {
+            return new Lease(new AtomicLong(), 0, expiresAtNanos, true);
+        }
+
+        /**
+         * @return Permits left after taking one, or {@code -1} if the lease is used up.
+         */
+        long take() {
+            long current;
+            do {
+                current = permits.get();
+                if (current <= 0) {
+                    return -1;
+                }
+            } while (!permits.compareAndSet(current, current - 1));
+            return current - 1;
+        }
+
+        /**
+         * Adds the permits of a concurrently granted lease to this one. The merged lease keeps this lease's
+         * expiry, so no permit is held for longer than one lease TTL. A rejection never replaces permits that are
+         * still valid.
+         *
+         * @return The lease to keep for the key.
+         */
+        Lease absorb(Lease next, long now) {
+            if (denied || isExpired(now)) {
+                return next;
+            }
+            if (next.denied) {
+                return this;
+            }
+            permits.addAndGet(next.permits.get());
+            return new Lease(permits, next.redisRemaining, expiresAtNanos, false);
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import lombok.Getter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Rate limiting algorithms available to {@link com.alpeerkaraca.common.annotation.RateLimit}.
+ *
+ * <p>
+ * Each algorithm keeps its state under its own key suffix, so switching the algorithm of an endpoint never reads
+ * a key written with a different Redis type.
+ * </p>
+ */
+@Getter
+public enum RateLimitAlgorithm {
+    /**
+     * Exact sliding window; keeps one sorted set member per request, so memory grows with the limit.
+     */
+    SLIDING_LOG("scripts/rate_limit_sliding_log.lua", ""),
+    /**
+     * Approximate sliding window weighting the previous fixed window's count; two counters per key.
+     */
+    SLIDING_WINDOW_COUNTER("scripts/rate_limit_sliding_window_counter.lua", ":swc"),
+    /**
+     * Generic cell rate algorithm; a single theoretical-arrival timestamp per key.
+     */
+    GCRA("scripts/rate_limit_gcra.lua", ":gcra");
+
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> script;
+    private final String keySuffix;
+
+    RateLimitAlgorithm(String scriptLocation, String keySuffix) {
+        this.script = RedisScript.of(new ClassPathResource(scriptLocation), List.class);
+        this.keySuffix = keySuffix;
+    }
+}
@@ -0,0 +1,15 @@
+package com.alpeerkaraca.common.ratelimit;
+
+/**
+ * Outcome of a single rate limit check.
+ *
+ * @param allowed          Whether the request may proceed.
+ * @param remaining        Permits left in the current window after this request.
+ * @param retryAfterMillis How long a rejected caller should wait before retrying; {@code 0} when allowed.
+ */
+public record RateLimitDecision(
+        boolean allowed,
+        long remaining,
+        long retryAfterMillis
+) {
+}
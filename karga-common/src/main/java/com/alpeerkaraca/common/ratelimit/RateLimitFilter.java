@@ -0,0 +1,197 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import com.alpeerkaraca.common.annotation.RateLimit;
+import com.alpeerkaraca.common.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Enforces rate limits in the security filter chain, right after
+ * {@link com.alpeerkaraca.common.security.JWTAuthenticationFilter}.
+ *
+ * <p>
+ * {@link com.alpeerkaraca.common.aspect.RateLimitAspect} only runs once Spring MVC has matched the handler, read
+ * and deserialized the body and run {@code @Valid}, so abusive traffic paid the full request cost before being
+ * rejected. This filter rejects with 429 before the body is touched.
+ * </p>
+ *
+ * <p>
+ * Rules are compiled once, when the context is refreshed, from two sources: the {@code rate-limit.routes} list
+ * (see {@link RateLimitRouteProperties}), which is checked first, and every handler method annotated with
+ * {@link RateLimit}. A request is matched against the precompiled {@link PathPattern}s; the first matching rule
+ * applies. When a rule from an annotation has been enforced here, the aspect skips it so the request is counted
+ * once. If Redis is unavailable the request is let through.
+ * </p>
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter implements ApplicationListener<ContextRefreshedEvent> {
+
+    /**
+     * Request attribute holding the key of the rule this filter enforced.
+     */
+    public static final String APPLIED_RULE_ATTRIBUTE = RateLimitFilter.class.getName() + ".APPLIED_RULE";
+
+    private static final String HEADER_LIMIT = "X-RateLimit-Limit";
+    private static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+
+    private final RedisRateLimiter rateLimiter;
+    private final LeasedRateLimiter leasedRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final boolean rateLimitEnabled;
+
+    private volatile List<RateLimitRule> rules = List.of();
+
+    public RateLimitFilter(RedisRateLimiter rateLimiter,
+                           LeasedRateLimiter leasedRateLimiter,
+                           ObjectMapper objectMapper,
+                           Environment environment,
+                           @Value("${rate-limit.enabled:true}") boolean rateLimitEnabled) {
+        this.rateLimiter = rateLimiter;
+        this.leasedRateLimiter = leasedRateLimiter;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        List<RateLimitRule> compiled = new ArrayList<>(compileRoutes(Binder.get(environment)
+                .bind("rate-limit.routes", Bindable.listOf(RateLimitRouteProperties.class))
+                .orElse(List.of())));
+        event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()
+                .forEach(mapping -> compiled.addAll(compileAnnotations(mapping.getHandlerMethods())));
+        rules = List.copyOf(compiled);
+        log.info("Rate limit rules compiled: {}", rules.stream()
+                .map(rule -> rule.methods() + " " + rule.pattern() + " -> " + rule.key())
+                .toList());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RateLimitRule rule = rateLimitEnabled ? findRule(request) : null;
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = RateLimitKeys.of(rule.key(), request);
+        RateLimitDecision decision;
+        try {
+            if (rule.leaseFraction() > 0) {
+                decision = leasedRateLimiter.tryAcquire(key, rule.limit(), rule.windowMillis(), rule.algorithm(),
+                        rule.leaseFraction());
+            } else {
+                decision = rateLimiter.tryAcquire(key, rule.limit(), rule.windowMillis(), rule.algorithm());
+            }
+        } catch (Exception e) {
+            log.error("Rate limit check failed:", e);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(APPLIED_RULE_ATTRIBUTE, rule.key());
+
+        response.setHeader(HEADER_LIMIT, String.valueOf(rule.limit()));
+        response.setHeader(HEADER_REMAINING, String.valueOf(decision.remaining()));
+        if (!decision.allowed()) {
+            log.warn("Rate limit exceeded! Key: {}", key);
+            reject(response, decision.retryAfterMillis());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitRule findRule(HttpServletRequest request) {
+        List<RateLimitRule> current = rules;
+        if (current.isEmpty()) {
+            return null;
+        }
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (RateLimitRule rule : current) {
+            if (rule.matches(request.getMethod(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        if (retryAfterMillis > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("You've sent too many requests. Please try again later."));
+    }
+
+    static List<RateLimitRule> compileRoutes(List<RateLimitRouteProperties> routes) {
+        List<RateLimitRule> compiled = new ArrayList<>();
+        for (RateLimitRouteProperties route : routes) {
+            if (route.path() == null || route.path().isBlank() || route.limit() == null || route.duration() == null) {
+                throw new IllegalStateException("rate-limit.routes entries need a path, a limit and a duration");
+            }
+            TimeUnit unit = route.unit() != null ? route.unit() : TimeUnit.SECONDS;
+            compiled.add(new RateLimitRule(
+                    route.method() == null ? Set.of() : Set.of(route.method().toUpperCase()),
+                    PathPatternParser.defaultInstance.parse(route.path()),
+                    route.key() != null ? route.key() : route.path(),
+                    route.limit(),
+                    unit.toMillis(route.duration()),
+                    route.algorithm() != null ? route.algorithm() : RateLimitAlgorithm.SLIDING_LOG,
+                    route.leaseFraction() != null ? route.leaseFraction() : 0));
+        }
+        return compiled;
+    }
+
+    static List<RateLimitRule> compileAnnotations(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+        List<RateLimitRule> compiled = new ArrayList<>();
+        handlerMethods.forEach((info, handlerMethod) -> {
+            RateLimit rateLimit = handlerMethod.getMethodAnnotation(RateLimit.class);
+            if (rateLimit == null) {
+                return;
+            }
+            Set<String> methods = info.getMethodsCondition().getMethods().stream()
+                    .map(Enum::name)
+                    .collect(Collectors.toUnmodifiableSet());
+            for (String pattern : info.getPatternValues()) {
+                compiled.add(RateLimitRule.of(methods, PathPatternParser.defaultInstance.parse(pattern), rateLimit));
+            }
+        });
+        return compiled;
+    }
+}
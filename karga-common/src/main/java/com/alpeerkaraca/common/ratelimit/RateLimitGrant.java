@@ -0,0 +1,15 @@
+package com.alpeerkaraca.common.ratelimit;
+
+/**
+ * Permits handed out by one Redis rate limit call.
+ *
+ * @param granted          Permits granted, between {@code 0} and the number requested.
+ * @param remaining        Permits left in the current window after this grant.
+ * @param retryAfterMillis How long to wait before asking again when nothing was granted; {@code 0} otherwise.
+ */
+public record RateLimitGrant(
+        long granted,
+        long remaining,
+        long retryAfterMillis
+) {
+}
@@ -0,0 +1,54 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Builds the Redis key a request is limited under, shared by {@link RateLimitFilter} and
+ * {@link com.alpeerkaraca.common.aspect.RateLimitAspect} so both count into the same window.
+ */
+public final class RateLimitKeys {
+
+    private static final String PREFIX = "rate_limit:";
+
+    private RateLimitKeys() {
+    }
+
+    /**
+     * @return {@code rate_limit:<key>:<identifier>} for the caller of {@code request}.
+     */
+    public static String of(String key, HttpServletRequest request) {
+        return of(key, identify(request));
+    }
+
+    /**
+     * @return {@code rate_limit:<key>:<caller>}, for a caller already resolved with {@link #identify}.
+     */
+    public static String of(String key, String caller) {
+        return PREFIX + key + ":" + caller;
+    }
+
+    /**
+     * Retrieves the identifier for the current user or client. If the user is authenticated, their username is
+     * returned. Otherwise, it is taken from the "X-Forwarded-For" header or the remote address of the request.
+     *
+     * @param request the current request, or {@code null} outside a servlet request
+     * @return the identifier for the user or client, or {@code null} when there is neither an authenticated user nor
+     * a request
+     */
+    public static String identify(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
+            return auth.getName();
+        }
+        if (request == null) {
+            return null;
+        }
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null) {
+            return xForwardedFor.split(",")[0];
+        }
+        return request.getRemoteAddr();
+    }
+}
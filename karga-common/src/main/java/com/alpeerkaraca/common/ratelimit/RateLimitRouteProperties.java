@@ -0,0 +1,37 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One entry of the {@code rate-limit.routes} list, for limits that are not declared with
+ * {@link com.alpeerkaraca.common.annotation.RateLimit}.
+ *
+ * <pre>
+ * rate-limit.routes[0].method=POST
+ * rate-limit.routes[0].path=/api/v1/trips/request
+ * rate-limit.routes[0].key=trip-request
+ * rate-limit.routes[0].limit=20
+ * rate-limit.routes[0].duration=60
+ * rate-limit.routes[0].algorithm=GCRA
+ * </pre>
+ *
+ * @param method        HTTP method; any method when unset.
+ * @param path          {@link org.springframework.web.util.pattern.PathPattern} of the route, e.g. {@code /api/v1/users/**}.
+ * @param key           Name of the limit in Redis keys; defaults to the path.
+ * @param limit         Requests allowed per window.
+ * @param duration      Window length in {@code unit}s.
+ * @param unit          Unit of {@code duration}; seconds when unset.
+ * @param algorithm     Algorithm evaluating the limit; {@link RateLimitAlgorithm#SLIDING_LOG} when unset.
+ * @param leaseFraction Share of the limit leased locally (see {@link LeasedRateLimiter}); {@code 0} when unset.
+ */
+public record RateLimitRouteProperties(
+        String method,
+        String path,
+        String key,
+        Integer limit,
+        Long duration,
+        TimeUnit unit,
+        RateLimitAlgorithm algorithm,
+        Double leaseFraction
+) {
+}
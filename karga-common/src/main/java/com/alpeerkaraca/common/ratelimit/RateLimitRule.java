@@ -0,0 +1,41 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import com.alpeerkaraca.common.annotation.RateLimit;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.util.Set;
+
+/**
+ * A route compiled into a rate limit: the request methods and path it applies to and the limit to enforce.
+ *
+ * @param methods       HTTP methods the rule applies to; every method when empty.
+ * @param pattern       Precompiled path pattern of the route.
+ * @param key           Name of the limit in Redis keys.
+ * @param limit         Requests allowed per window.
+ * @param windowMillis  Window length in milliseconds.
+ * @param algorithm     Algorithm evaluating the limit.
+ * @param leaseFraction Share of the limit leased locally; {@code 0} asks Redis on every request.
+ */
+public record RateLimitRule(
+        Set<String> methods,
+        PathPattern pattern,
+        String key,
+        long limit,
+        long windowMillis,
+        RateLimitAlgorithm algorithm,
+        double leaseFraction
+) {
+
+    /**
+     * Builds the rule for a route from the {@link RateLimit} on its handler method.
+     */
+    public static RateLimitRule of(Set<String> methods, PathPattern pattern, RateLimit rateLimit) {
+        return new RateLimitRule(methods, pattern, rateLimit.key(), rateLimit.limit(),
+                rateLimit.unit().toMillis(rateLimit.duration()), rateLimit.algorithm(), rateLimit.leaseFraction());
+    }
+
+    public boolean matches(String method, PathContainer path) {
+        return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+    }
+}
@@ -0,0 +1,77 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis-backed rate limiter evaluated atomically on the server.
+ *
+ * <p>
+ * Every {@link RateLimitAlgorithm} runs as a Lua script, so reading, updating and expiring the state of a key
+ * cost one round trip and concurrent requests can no longer all pass the same count. {@link RedisTemplate#execute(RedisScript, List,
+ * Object...)} sends the script by its SHA1 ({@code EVALSHA}) and only falls back to uploading it when the server
+ * does not have it cached. Timestamps come from the Redis clock, so pods with skewed clocks share one window.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisRateLimiter {
+
+    /**
+     * Prefix making sorted set members unique across instances; requests in the same millisecond must not
+     * collapse into one member. The script appends the permit index within the call.
+     */
+    private static final String MEMBER_PREFIX = UUID.randomUUID() + ":";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Takes one permit for {@code key} using the given algorithm.
+     *
+     * @param key          Redis key of the limited subject; the algorithm's key suffix is appended to it.
+     * @param limit        Permits allowed per window.
+     * @param windowMillis Window length in milliseconds.
+     * @param algorithm    Algorithm evaluating the limit.
+     * @return The {@link RateLimitDecision} for this request.
+     */
+    public RateLimitDecision tryAcquire(String key, long limit, long windowMillis, RateLimitAlgorithm algorithm) {
+        RateLimitGrant grant = acquire(key, limit, windowMillis, algorithm, 1);
+        return new RateLimitDecision(grant.granted() > 0, grant.remaining(), grant.retryAfterMillis());
+    }
+
+    /**
+     * Takes up to {@code permits} permits for {@code key} in one call, e.g. to lease a batch for local use.
+     *
+     * @param key          Redis key of the limited subject; the algorithm's key suffix is appended to it.
+     * @param limit        Permits allowed per window.
+     * @param windowMillis Window length in milliseconds.
+     * @param algorithm    Algorithm evaluating the limit.
+     * @param permits      Permits wanted; fewer are granted when the window cannot spare them all.
+     * @return The {@link RateLimitGrant}; {@code granted} is {@code 0} when the limit is exhausted.
+     */
+    public RateLimitGrant acquire(String key, long limit, long windowMillis, RateLimitAlgorithm algorithm,
+                                  long permits) {
+        String limitArg = String.valueOf(limit);
+        String windowArg = String.valueOf(windowMillis);
+        String permitsArg = String.valueOf(permits);
+        Object[] args = algorithm == RateLimitAlgorithm.SLIDING_LOG
+                ? new Object[]{limitArg, windowArg, permitsArg, MEMBER_PREFIX + sequence.incrementAndGet()}
+                : new Object[]{limitArg, windowArg, permitsArg};
+        List<?> result = redisTemplate.execute(algorithm.getScript(), List.of(key + algorithm.getKeySuffix()), args);
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("Unexpected rate limit script result: " + result);
+        }
+        return new RateLimitGrant(
+                ((Number) result.get(0)).longValue(),
+                ((Number) result.get(1)).longValue(),
+                ((Number) result.get(2)).longValue()
+        );
+    }
+}
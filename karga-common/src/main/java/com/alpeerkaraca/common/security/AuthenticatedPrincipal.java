@@ -0,0 +1,36 @@
+package com.alpeerkaraca.common.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of a verified access token.
+ *
+ * <p>
+ * Produced by {@link JWTService#verifyAndDecode(String)} after a single signature check and installed
+ * as the principal of the request's {@code Authentication}. {@link #getName()} returns the user id so
+ * controllers that call {@code Authentication#getName()} keep receiving the user's UUID.
+ * </p>
+ *
+ * @param userId      The user's UUID as a string ({@code userId} claim).
+ * @param subject     The token subject (user e-mail).
+ * @param authorities Shared, unmodifiable authority list built from the {@code roles} claim.
+ * @param tokenId     The token's {@code jti}, used for revocation.
+ * @param expiresAt   The token's {@code exp}.
+ */
+public record AuthenticatedPrincipal(
+        String userId,
+        String subject,
+        List<GrantedAuthority> authorities,
+        String tokenId,
+        Instant expiresAt
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+}
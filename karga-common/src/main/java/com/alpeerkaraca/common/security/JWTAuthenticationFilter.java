@@ -7,14 +7,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jspecify.annotations.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
@@ -29,46 +27,31 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
-        final String jwtToken;
-        final String username;
 
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwtToken = getJwtFromRequest(request);
+        final String jwtToken = getJwtFromRequest(request);
+        final AuthenticatedPrincipal principal;
         try {
-            username = jwtService.extractUsername(jwtToken);
+            principal = jwtService.verifyAndDecode(jwtToken);
         } catch (Exception e) {
-            throw new ExtractionException("Failed to extract username from JWT token");
+            throw new ExtractionException("Failed to extract claims from JWT token");
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
-                && jwtService.isTokenValid(jwtToken)) {
-
-            String userId;
-            try {
-                userId = jwtService.extractUserId(jwtToken);
-            } catch (Exception e) {
-                throw new ExtractionException("Failed to extract ID from JWT token");
-            }
-            List<String> roles;
-            try {
-                roles = jwtService.extractRoles(jwtToken);
-            } catch (Exception e) {
-                throw new ExtractionException("Failed to extract roles from JWT token");
-            }
+        if (principal.subject() != null) {
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    userId,
+                    principal,
                     null,
-                    roles.stream().map(SimpleGrantedAuthority::new).toList()
+                    principal.authorities()
             );
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
-
         filterChain.doFilter(request, response);
     }
 
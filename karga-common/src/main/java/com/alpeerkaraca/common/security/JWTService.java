@@ -1,20 +1,22 @@
 package com.alpeerkaraca.common.security;
 
 import com.alpeerkaraca.common.dto.TokenPair;
+import com.alpeerkaraca.common.exception.InvalidTokenException;
 import com.alpeerkaraca.common.exception.TokenGenerationException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -56,14 +58,31 @@ public class JWTService {
     private static final String TOKEN_TYPE_ACCESS = "access";
 
     /**
-     * RSA private key used to sign JWTs.
+     * Keys used to sign and verify JWTs, selected by the {@code kid} header.
      */
-    private final RSAPrivateKey privateKey;
+    private final JwtKeyRing keyRing;
 
     /**
-     * RSA public key used to verify JWT signatures.
+     * Parser resolving verification keys through {@link #keyRing}. {@link JwtParser} is immutable and
+     * thread-safe, and the key ring swaps keys underneath it, so it is built once.
      */
-    private final RSAPublicKey publicKey;
+    private final JwtParser jwtParser;
+
+    /**
+     * Authority lists keyed by the exact {@code roles} claim value. Tokens only carry a handful of
+     * distinct role combinations, so every request with the same roles shares one immutable list.
+     */
+    private final Map<List<String>, List<GrantedAuthority>> authorityCache = new ConcurrentHashMap<>();
+
+    /**
+     * Optional cache of already verified tokens; {@code null} unless {@code app.jwt.cache.enabled=true}.
+     */
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Optional deny-list of revoked tokens; {@code null} unless {@code app.jwt.revocation.enabled=true}.
+     */
+    private final TokenRevocationService revocationService;
 
     /**
      * Expiration time for access tokens in milliseconds.
@@ -80,16 +99,22 @@ public class JWTService {
     private long refreshTokenExpirationMs;
 
     /**
-     * Constructs the JWTService with the RSA key pair.
+     * Constructs the JWTService on top of the key ring.
      *
-     * @param privateKey RSA private key used to sign tokens.
-     * @param publicKey  RSA public key used to verify tokens.
+     * @param keyRing            Signing and verification keys.
+     * @param verifiedTokenCache Optional cache of verified tokens, may be {@code null}.
+     * @param revocationService  Optional revocation deny-list, may be {@code null}.
      */
     public JWTService(
-            @Autowired(required = false) RSAPrivateKey privateKey,
-            RSAPublicKey publicKey) {
-        this.privateKey = privateKey;
-        this.publicKey = publicKey;
+            JwtKeyRing keyRing,
+            @Autowired(required = false) VerifiedTokenCache verifiedTokenCache,
+            @Autowired(required = false) TokenRevocationService revocationService) {
+        this.keyRing = keyRing;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revocationService = revocationService;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
     }
 
     /**
@@ -143,12 +168,71 @@ public class JWTService {
         try {
             extractAllClaims(token);
             return true;
-        } catch (JwtException | IllegalArgumentException e) {
+        } catch (JwtException | IllegalArgumentException | InvalidTokenException e) {
             log.warn("Invalid JWT Token: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Verifies the token signature and expiration once and decodes everything the security filter needs.
+     *
+     * <p>
+     * This is the single verification entry point for request authentication. The returned principal is
+     * immutable and its authority list is shared between requests carrying the same roles.
+     * When the {@link VerifiedTokenCache} is enabled, a token that was already verified is served from the
+     * cache until its {@code exp} without another signature check. Revocation is checked on both paths.
+     * </p>
+     *
+     * @param token The JWT string to verify.
+     * @return The {@link AuthenticatedPrincipal} described by the token.
+     * @throws JwtException             if token signature is invalid, expired or malformed.
+     * @throws IllegalArgumentException if token is null or empty.
+     * @throws InvalidTokenException    if the token has been revoked.
+     */
+    public AuthenticatedPrincipal verifyAndDecode(String token) {
+        if (verifiedTokenCache != null) {
+            AuthenticatedPrincipal cached = verifiedTokenCache.get(token);
+            if (cached != null) {
+                ensureNotRevoked(cached.tokenId());
+                return cached;
+            }
+        }
+        Claims claims = extractAllClaims(token);
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal(
+                claims.get(CLAIM_USER_ID, String.class),
+                claims.getSubject(),
+                internAuthorities(claims.get(CLAIM_ROLES, List.class)),
+                claims.getId(),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant()
+        );
+        if (verifiedTokenCache != null && claims.getExpiration() != null) {
+            verifiedTokenCache.put(token, principal, claims.getExpiration().toInstant());
+        }
+        return principal;
+    }
+
+    /**
+     * Revokes a token so it is rejected everywhere until it would have expired anyway.
+     *
+     * <p>
+     * The token must still carry a valid signature; an already revoked token is accepted again so logout stays
+     * idempotent.
+     * </p>
+     *
+     * @param token The JWT string to revoke.
+     * @throws JwtException          if the token signature is invalid, expired or malformed.
+     * @throws IllegalStateException if revocation is disabled for this service.
+     */
+    public void revoke(String token) {
+        if (revocationService == null) {
+            throw new IllegalStateException("Token revocation is disabled");
+        }
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        revocationService.revoke(claims.getId(),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
+    }
+
     /**
      * Extracts the 'roles' information from the token as a list.
      *
@@ -212,10 +296,11 @@ public class JWTService {
     }
 
     /**
-     * Parses the provided JWT and returns all claims after verifying the signature with the configured public key.
+     * Parses the provided JWT and returns all claims after verifying the signature with the key named by its
+     * {@code kid} header.
      *
      * <p>
-     * This method builds a JWT parser configured with the RSA public key and parses the signed claims payload.
+     * This method uses the prebuilt JWT parser backed by the {@link JwtKeyRing} and parses the signed claims payload.
      * It will throw a {@link io.jsonwebtoken.JwtException} for invalid signatures or malformed tokens.
      * </p>
      *
@@ -223,13 +308,36 @@ public class JWTService {
      * @return The {@link Claims} extracted from the token.
      * @throws JwtException             if token signature is invalid or token is malformed.
      * @throws IllegalArgumentException if token is null or empty.
+     * @throws InvalidTokenException    if the token has been revoked.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(publicKey)
-                .build()
+        Claims claims = jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
+        ensureNotRevoked(claims.getId());
+        return claims;
+    }
+
+    private void ensureNotRevoked(String tokenId) {
+        if (revocationService != null && revocationService.isRevoked(tokenId)) {
+            throw new InvalidTokenException("Token has been revoked");
+        }
+    }
+
+    /**
+     * Returns the shared authority list for the given role names, creating it on first use.
+     *
+     * @param roles Role names from the {@code roles} claim; {@code null} is treated as no roles.
+     * @return An unmodifiable list of {@link SimpleGrantedAuthority}.
+     */
+    private List<GrantedAuthority> internAuthorities(List<?> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return List.of();
+        }
+        List<String> key = roles.stream().map(String::valueOf).toList();
+        return authorityCache.computeIfAbsent(key, names -> names.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList());
     }
 
     /**
@@ -241,22 +349,28 @@ public class JWTService {
      * - {@code subject} as the JWT subject
      * - a random {@code id}
      * - issued at and expiration timestamps
-     * The token is signed using the configured RSA private key with RS256.
+     * The token is signed with the active key of the {@link JwtKeyRing} and carries its {@code kid} header.
      * </p>
      *
      * @param extraClaims  Additional claims to include in the token payload.
      * @param subject      The subject (typically username/email) for the token.
      * @param expirationMs Expiration duration in milliseconds from now.
      * @return The compact serialized JWT string.
+     * @throws TokenGenerationException if no signing key is configured for this service.
      */
     public String generateToken(Map<String, Object> extraClaims, String subject, long expirationMs) {
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        if (signingKey == null) {
+            throw new TokenGenerationException("No JWT signing key configured");
+        }
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .claims(extraClaims)
                 .subject(subject)
                 .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(privateKey, Jwts.SIG.RS256)
+                .signWith(signingKey.privateKey(), signingKey.algorithm().getSignatureAlgorithm())
                 .compact();
     }
 }
\ No newline at end of file
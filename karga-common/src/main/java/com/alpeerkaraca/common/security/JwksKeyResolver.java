@@ -0,0 +1,195 @@
+package com.alpeerkaraca.common.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verification keys fetched from auth-service's JWKS document.
+ *
+ * <p>
+ * The document at {@code app.jwt.jwks.uri} is fetched at startup and then every
+ * {@code app.jwt.jwks.refresh-interval-ms}. Lookups only read the in-memory copy: when a token carries a kid that
+ * is not known yet, the token is rejected and a refresh is started in the background, at most once per
+ * {@code app.jwt.jwks.min-refresh-interval-ms}. A failed fetch keeps the previous keys. When a refresh drops or
+ * replaces a key, the {@link VerifiedTokenCache} is cleared so tokens signed with the old key stop passing at once.
+ * </p>
+ *
+ * <p>
+ * The resolver is disabled unless {@code app.jwt.jwks.uri} is set, in which case {@link JwtKeyRing} consults it for
+ * kids that are not configured locally.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.jwt.jwks", name = "uri")
+public class JwksKeyResolver {
+
+    private final URI jwksUri;
+    private final long refreshIntervalMs;
+    private final long minRefreshIntervalMs;
+    private final Duration timeout;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpClient httpClient;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong lastRefreshStartedAt = new AtomicLong();
+
+    private volatile Map<String, JwtKeyRing.VerificationKey> keys = Map.of();
+
+    public JwksKeyResolver(
+            @Value("${app.jwt.jwks.uri}") String jwksUri,
+            @Value("${app.jwt.jwks.refresh-interval-ms:300000}") long refreshIntervalMs,
+            @Value("${app.jwt.jwks.min-refresh-interval-ms:10000}") long minRefreshIntervalMs,
+            @Value("${app.jwt.jwks.timeout-ms:2000}") long timeoutMs,
+            @Autowired(required = false) VerifiedTokenCache verifiedTokenCache) {
+        this.jwksUri = URI.create(jwksUri);
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .executor(scheduler)
+                .build();
+    }
+
+    /**
+     * Fetches the document once at startup and schedules the periodic refresh.
+     *
+     * <p>
+     * Startup waits at most {@code app.jwt.jwks.timeout-ms} for the first fetch; if auth-service is not reachable
+     * yet, the service still starts and picks the keys up on the next refresh.
+     * </p>
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            refresh().get(timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Initial JWKS fetch from {} did not complete: {}", jwksUri, e.getMessage());
+        }
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the key published under the given kid without blocking.
+     *
+     * @param kid Key id from the token header.
+     * @return The cached key, or {@code null} if unknown; an unknown kid schedules a background refresh.
+     */
+    public JwtKeyRing.VerificationKey resolve(String kid) {
+        JwtKeyRing.VerificationKey key = keys.get(kid);
+        if (key == null && System.currentTimeMillis() - lastRefreshStartedAt.get() >= minRefreshIntervalMs) {
+            log.info("Unknown JWT key id {}, refreshing JWKS", kid);
+            refresh();
+        }
+        return key;
+    }
+
+    /**
+     * Starts an asynchronous fetch unless one is already running.
+     *
+     * @return A future completing when the fetch has finished, successfully or not.
+     */
+    CompletableFuture<Void> refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        lastRefreshStartedAt.set(System.currentTimeMillis());
+        HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenAccept(this::apply)
+                .exceptionally(e -> {
+                    log.warn("Could not fetch JWKS from {}, keeping kids {}: {}", jwksUri, keys.keySet(), e.getMessage());
+                    return null;
+                })
+                .whenComplete((ignored, e) -> refreshing.set(false));
+    }
+
+    private void apply(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("JWKS endpoint returned HTTP " + response.statusCode());
+        }
+        JwkSet jwkSet = Jwks.setParser().build().parse(response.body());
+        Map<String, JwtKeyRing.VerificationKey> parsed = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            Key key = jwk.toKey();
+            JwtSigningAlgorithm algorithm = algorithmOf(jwk.getAlgorithm(), key);
+            if (jwk.getId() == null || algorithm == null || !(key instanceof PublicKey publicKey)) {
+                continue;
+            }
+            parsed.put(jwk.getId(), new JwtKeyRing.VerificationKey(jwk.getId(), algorithm, publicKey, Long.MAX_VALUE));
+        }
+        Map<String, JwtKeyRing.VerificationKey> previous = keys;
+        if (!parsed.keySet().equals(previous.keySet())) {
+            log.info("JWKS loaded from {} (kids={})", jwksUri, parsed.keySet());
+        }
+        keys = Map.copyOf(parsed);
+        boolean keyWithdrawn = previous.entrySet().stream()
+                .anyMatch(entry -> !entry.getValue().equals(parsed.get(entry.getKey())));
+        if (verifiedTokenCache != null && keyWithdrawn) {
+            verifiedTokenCache.invalidateAll();
+        }
+    }
+
+    private static JwtSigningAlgorithm algorithmOf(String alg, Key key) {
+        if (alg != null) {
+            return Arrays.stream(JwtSigningAlgorithm.values())
+                    .filter(candidate -> candidate.getSignatureAlgorithm().getId().equals(alg))
+                    .findFirst()
+                    .orElse(null);
+        }
+        if (key instanceof RSAPublicKey) {
+            return JwtSigningAlgorithm.RS256;
+        }
+        if (key instanceof ECPublicKey) {
+            return JwtSigningAlgorithm.ES256;
+        }
+        if (key instanceof EdECPublicKey) {
+            return JwtSigningAlgorithm.EDDSA;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.alpeerkaraca.common.security;
+
+/**
+ * One entry of the {@code app.jwt.keys} list.
+ *
+ * <pre>
+ * app.jwt.active-kid=2026-10
+ * app.jwt.keys[0].kid=2026-10
+ * app.jwt.keys[0].algorithm=EdDSA
+ * app.jwt.keys[0].public-key=${jwt_public_key_2026_10}
+ * app.jwt.keys[0].private-key=${jwt_private_key_2026_10}
+ * </pre>
+ *
+ * @param kid        Key id written to and read from the JWT {@code kid} header.
+ * @param algorithm  Signature algorithm of the key pair.
+ * @param publicKey  X.509 PEM of the verification key.
+ * @param privateKey PKCS#8 PEM of the signing key; only set on the issuing service.
+ */
+public record JwtKeyProperties(
+        String kid,
+        JwtSigningAlgorithm algorithm,
+        String publicKey,
+        String privateKey
+) {
+}
@@ -0,0 +1,271 @@
+package com.alpeerkaraca.common.security;
+
+import com.alpeerkaraca.common.exception.KeyLoadingException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.JwkSetBuilder;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.UnsupportedKeyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of JWT keys addressed by their {@code kid} header.
+ *
+ * <p>
+ * Keys are configured as an {@code app.jwt.keys} list (see {@link JwtKeyProperties}) and may use
+ * {@link JwtSigningAlgorithm#RS256}, {@link JwtSigningAlgorithm#ES256} or {@link JwtSigningAlgorithm#EDDSA}.
+ * The key named by {@code app.jwt.active-kid} signs new tokens; when unset, the first key that has a private key
+ * is used. The single RSA pair from {@code app.jwt.public-key-location} / {@code app.jwt.private-key-location}
+ * is still honoured as the {@value #LEGACY_KID} key, which also verifies tokens issued without a {@code kid}.
+ * </p>
+ *
+ * <p>
+ * The ring is an immutable snapshot behind a volatile reference, so verification is a single map lookup with no
+ * locking. On an {@link EnvironmentChangeEvent} touching {@code app.jwt.*} (Vault lease renewal or
+ * {@code /actuator/refresh}) the snapshot is rebuilt. A key that disappears from the configuration is not
+ * dropped immediately: it keeps verifying for {@code app.jwt.key-drain-ms} (by default the refresh token
+ * lifetime) so tokens it already signed stay valid until they expire.
+ * </p>
+ */
+@Component
+@Slf4j
+public class JwtKeyRing extends LocatorAdapter<Key> implements ApplicationListener<EnvironmentChangeEvent> {
+
+    /**
+     * Key id given to the legacy single-key configuration.
+     */
+    public static final String LEGACY_KID = "default";
+
+    private static final String PROPERTY_PREFIX = "app.jwt.";
+
+    private final Environment environment;
+
+    /**
+     * Optional cache of verified tokens, cleared whenever the set of verification keys changes.
+     */
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Optional JWKS source for kids that are not configured locally; {@code null} unless
+     * {@code app.jwt.jwks.uri} is set.
+     */
+    private final JwksKeyResolver jwksKeyResolver;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public JwtKeyRing(Environment environment,
+                      @Autowired(required = false) VerifiedTokenCache verifiedTokenCache,
+                      @Autowired(required = false) JwksKeyResolver jwksKeyResolver) {
+        this.environment = environment;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwksKeyResolver = jwksKeyResolver;
+        this.snapshot = load(Snapshot.EMPTY, System.currentTimeMillis());
+        log.info("JWT key ring loaded (kids={}, signing-kid={})", snapshot.verificationKeys().keySet(),
+                snapshot.signingKey() == null ? null : snapshot.signingKey().kid());
+    }
+
+    /**
+     * Returns the key new tokens are signed with.
+     *
+     * @return The active {@link SigningKey}, or {@code null} when this service only verifies tokens.
+     */
+    public SigningKey signingKey() {
+        return snapshot.signingKey();
+    }
+
+    /**
+     * Returns the locally configured verification keys that have not drained yet, e.g. for publishing as JWKS.
+     *
+     * @return The verification keys, active ones and retired ones still within their drain period.
+     */
+    public List<VerificationKey> verificationKeys() {
+        long now = System.currentTimeMillis();
+        return snapshot.verificationKeys().values().stream()
+                .filter(key -> key.drainsAtMillis() > now)
+                .toList();
+    }
+
+    /**
+     * Builds the public JWKS document for the current {@link #verificationKeys()}.
+     *
+     * @return A {@link JwkSet} with one {@code use=sig} entry per kid; it never contains private key material.
+     */
+    public JwkSet jwkSet() {
+        JwkSetBuilder builder = Jwks.set();
+        for (VerificationKey key : verificationKeys()) {
+            builder.add(Jwks.builder()
+                    .key(key.publicKey())
+                    .id(key.kid())
+                    .algorithm(key.algorithm().getSignatureAlgorithm().getId())
+                    .publicKeyUse("sig")
+                    .build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Rebuilds the ring from the current environment.
+     *
+     * <p>
+     * Keys removed from the configuration are retired rather than dropped, see the class documentation.
+     * If the new configuration cannot be parsed, the previous ring stays in place.
+     * </p>
+     */
+    public synchronized void reload() {
+        Snapshot previous = snapshot;
+        Snapshot next;
+        try {
+            next = load(previous, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.error("Could not reload JWT keys, keeping kids {}", previous.verificationKeys().keySet(), e);
+            return;
+        }
+        snapshot = next;
+        if (verifiedTokenCache != null && !next.verificationKeys().equals(previous.verificationKeys())) {
+            verifiedTokenCache.invalidateAll();
+        }
+        log.info("JWT key ring reloaded (kids={}, signing-kid={})", next.verificationKeys().keySet(),
+                next.signingKey() == null ? null : next.signingKey().kid());
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PROPERTY_PREFIX))) {
+            reload();
+        }
+    }
+
+    /**
+     * Resolves the verification key for a signed token from its {@code kid} header.
+     *
+     * <p>
+     * Locally configured keys win. Other kids are looked up in the {@link JwksKeyResolver} when one is configured,
+     * which answers from its in-memory copy and never fetches on the calling thread.
+     * </p>
+     *
+     * @param header The JWS header of the token being parsed.
+     * @return The public key registered under the header's {@code kid}.
+     * @throws UnsupportedKeyException if the kid is unknown, fully drained, or the header {@code alg} does not
+     *                                 match the key's algorithm.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        Snapshot current = snapshot;
+        String kid = header.getKeyId() != null ? header.getKeyId() : current.defaultKid();
+        VerificationKey key = kid == null ? null : current.verificationKeys().get(kid);
+        if (key == null && kid != null && jwksKeyResolver != null) {
+            key = jwksKeyResolver.resolve(kid);
+        }
+        if (key == null || key.drainsAtMillis() <= System.currentTimeMillis()) {
+            throw new UnsupportedKeyException("Unknown JWT key id: " + kid);
+        }
+        if (!key.algorithm().getSignatureAlgorithm().getId().equals(header.getAlgorithm())) {
+            throw new UnsupportedKeyException("JWT algorithm " + header.getAlgorithm() + " does not match key " + kid);
+        }
+        return key.publicKey();
+    }
+
+    private Snapshot load(Snapshot previous, long now) {
+        Map<String, VerificationKey> keys = new HashMap<>();
+        SigningKey signingKey = null;
+        String activeKid = environment.getProperty(PROPERTY_PREFIX + "active-kid", "");
+
+        String legacyPublicKey = environment.getProperty(PROPERTY_PREFIX + "public-key-location", "");
+        String legacyPrivateKey = environment.getProperty(PROPERTY_PREFIX + "private-key-location", "");
+        if (!legacyPublicKey.isBlank()) {
+            keys.put(LEGACY_KID, new VerificationKey(LEGACY_KID, JwtSigningAlgorithm.RS256,
+                    KeyLoader.parsePublicKey(legacyPublicKey, JwtSigningAlgorithm.RS256), Long.MAX_VALUE));
+        }
+
+        List<JwtKeyProperties> configured = Binder.get(environment)
+                .bind(PROPERTY_PREFIX + "keys", Bindable.listOf(JwtKeyProperties.class))
+                .orElse(List.of());
+        for (JwtKeyProperties properties : configured) {
+            if (properties.kid() == null || properties.kid().isBlank()) {
+                throw new KeyLoadingException("JWT key without kid in app.jwt.keys");
+            }
+            JwtSigningAlgorithm algorithm = properties.algorithm() != null
+                    ? properties.algorithm()
+                    : JwtSigningAlgorithm.RS256;
+            if (keys.put(properties.kid(), new VerificationKey(properties.kid(), algorithm,
+                    KeyLoader.parsePublicKey(properties.publicKey(), algorithm), Long.MAX_VALUE)) != null) {
+                throw new KeyLoadingException("Duplicate JWT key id: " + properties.kid());
+            }
+            boolean active = activeKid.isBlank() ? signingKey == null : activeKid.equals(properties.kid());
+            if (active && properties.privateKey() != null && !properties.privateKey().isBlank()) {
+                signingKey = new SigningKey(properties.kid(), algorithm,
+                        KeyLoader.parsePrivateKey(properties.privateKey(), algorithm));
+            }
+        }
+        if (signingKey == null && !legacyPrivateKey.isBlank()
+                && (activeKid.isBlank() || LEGACY_KID.equals(activeKid))) {
+            signingKey = new SigningKey(LEGACY_KID, JwtSigningAlgorithm.RS256,
+                    KeyLoader.parsePrivateKey(legacyPrivateKey, JwtSigningAlgorithm.RS256));
+        }
+        if (signingKey == null && !activeKid.isBlank()) {
+            throw new KeyLoadingException("No private key configured for active JWT key id: " + activeKid);
+        }
+
+        long drainMs = environment.getProperty(PROPERTY_PREFIX + "key-drain-ms", Long.class,
+                environment.getProperty(PROPERTY_PREFIX + "refresh-expiration", Long.class, 0L));
+        for (VerificationKey retired : previous.verificationKeys().values()) {
+            if (keys.containsKey(retired.kid())) {
+                continue;
+            }
+            long drainsAt = retired.drainsAtMillis() == Long.MAX_VALUE ? now + drainMs : retired.drainsAtMillis();
+            if (drainsAt > now) {
+                keys.put(retired.kid(), new VerificationKey(retired.kid(), retired.algorithm(),
+                        retired.publicKey(), drainsAt));
+                log.info("JWT key {} retired, verifying until {}", retired.kid(), drainsAt);
+            }
+        }
+
+        String defaultKid = keys.containsKey(LEGACY_KID) ? LEGACY_KID
+                : signingKey != null ? signingKey.kid()
+                : configured.isEmpty() ? null : configured.getFirst().kid();
+        return new Snapshot(Map.copyOf(keys), signingKey, defaultKid);
+    }
+
+    /**
+     * Key used to sign new tokens.
+     *
+     * @param kid        Key id written to the token header.
+     * @param algorithm  Signature algorithm of the key.
+     * @param privateKey The signing key.
+     */
+    public record SigningKey(String kid, JwtSigningAlgorithm algorithm, PrivateKey privateKey) {
+    }
+
+    /**
+     * Key used to verify tokens carrying its kid.
+     *
+     * @param kid            Key id matched against the token header.
+     * @param algorithm      Signature algorithm of the key.
+     * @param publicKey      The verification key.
+     * @param drainsAtMillis Epoch millis after which a retired key stops verifying, {@link Long#MAX_VALUE} while
+     *                       the key is still configured.
+     */
+    public record VerificationKey(String kid, JwtSigningAlgorithm algorithm, PublicKey publicKey,
+                                   long drainsAtMillis) {
+    }
+
+    private record Snapshot(Map<String, VerificationKey> verificationKeys, SigningKey signingKey,
+                            String defaultKid) {
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), null, null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.alpeerkaraca.common.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+/**
+ * JWT signature algorithms supported by the {@link JwtKeyRing}.
+ *
+ * <p>
+ * {@link #ES256} (P-256) and {@link #EDDSA} (Ed25519) sign faster than {@link #RS256} with much
+ * smaller keys and signatures, but verify slower on the JDK providers. Compare them with
+ * {@code JwtSigningBenchmark} before switching; verification is the hot path of every service,
+ * signing only of auth-service logins and refreshes.
+ * </p>
+ */
+public enum JwtSigningAlgorithm {
+    RS256("RSA", Jwts.SIG.RS256),
+    ES256("EC", Jwts.SIG.ES256),
+    EDDSA("Ed25519", Jwts.SIG.EdDSA);
+
+    /**
+     * Algorithm name understood by {@link java.security.KeyFactory}.
+     */
+    private final String keyFactoryAlgorithm;
+
+    private final SignatureAlgorithm signatureAlgorithm;
+
+    JwtSigningAlgorithm(String keyFactoryAlgorithm, SignatureAlgorithm signatureAlgorithm) {
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    public String getKeyFactoryAlgorithm() {
+        return keyFactoryAlgorithm;
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+}
@@ -0,0 +1,188 @@
+package com.alpeerkaraca.common.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deny-list of revoked JWTs, keyed by {@code jti}.
+ *
+ * <p>
+ * A revoked id is stored in Redis as {@code revoked_jti:<jti>} with a TTL equal to the token's remaining lifetime,
+ * and in the {@value #INDEX_KEY} sorted set scored by the token's expiry. Every service keeps a local
+ * {@link BloomFilter} of the index, rebuilt every {@code app.jwt.revocation.refresh-interval-ms}, so a request only
+ * goes to Redis when the filter reports a probable hit. Revocations made on other instances therefore take effect
+ * within one refresh interval; the revoking instance also adds the id to its own filter right away.
+ * </p>
+ *
+ * <p>
+ * Exported meters:
+ * </p>
+ * <ul>
+ * <li>{@code jwt.revocation.checks{result=negative|revoked|false_positive}}: the observed false-positive rate is
+ * {@code false_positive / (negative + false_positive)}.</li>
+ * <li>{@code jwt.revocation.filter.entries}, {@code jwt.revocation.filter.bits} and
+ * {@code jwt.revocation.filter.expected.fpp}: size of the current filter and its theoretical false-positive
+ * probability.</li>
+ * </ul>
+ *
+ * <p>
+ * If Redis cannot be reached for a probable hit, the token is treated as revoked; only the small share of tokens
+ * that hit the filter are affected.
+ * </p>
+ *
+ * <p>
+ * Off unless a service sets {@code app.jwt.revocation.enabled=true}; without it tokens stay valid until they expire.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.jwt.revocation", name = "enabled", havingValue = "true")
+public class TokenRevocationService {
+
+    private static final String KEY_PREFIX = "revoked_jti:";
+    private static final String INDEX_KEY = "revoked_jti:index";
+    private static final String METRIC_PREFIX = "jwt.revocation";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+    private final long refreshIntervalMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwt-revocation-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter negatives;
+    private final Counter revokedHits;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(
+            RedisTemplate<String, String> redisTemplate,
+            @Autowired(required = false) MeterRegistry meterRegistry,
+            @Value("${app.jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+            @Value("${app.jwt.revocation.false-positive-probability:0.001}") double falsePositiveProbability,
+            @Value("${app.jwt.revocation.refresh-interval-ms:10000}") long refreshIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveProbability);
+        if (meterRegistry == null) {
+            meterRegistry = Metrics.globalRegistry;
+        }
+
+        this.negatives = Counter.builder(METRIC_PREFIX + ".checks").tag("result", "negative")
+                .description("Revocation checks").register(meterRegistry);
+        this.revokedHits = Counter.builder(METRIC_PREFIX + ".checks").tag("result", "revoked")
+                .description("Revocation checks").register(meterRegistry);
+        this.falsePositives = Counter.builder(METRIC_PREFIX + ".checks").tag("result", "false_positive")
+                .description("Revocation checks").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".filter.entries", this, service -> service.filter.insertions())
+                .description("Revoked token ids in the local Bloom filter").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".filter.bits", this, service -> service.filter.bitCount())
+                .description("Size of the local Bloom filter").baseUnit("bits").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".filter.expected.fpp", this,
+                        service -> service.filter.expectedFalsePositiveProbability())
+                .description("Theoretical false-positive probability of the local Bloom filter")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresh();
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Revokes a token until its expiry.
+     *
+     * @param tokenId   The token's {@code jti}.
+     * @param expiresAt The token's {@code exp}; tokens that have already expired are ignored.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null) {
+            return;
+        }
+        long ttlMillis = expiresAt.toEpochMilli() - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(KEY_PREFIX + tokenId, "1", ttlMillis, TimeUnit.MILLISECONDS);
+        redisTemplate.opsForZSet().add(INDEX_KEY, tokenId, expiresAt.toEpochMilli());
+        filter.put(tokenId);
+        log.info("Token {} revoked until {}", tokenId, expiresAt);
+    }
+
+    /**
+     * Checks whether a token id has been revoked.
+     *
+     * <p>
+     * Answers from the local Bloom filter when it rules the id out, which is the common case, and asks Redis only
+     * for probable hits.
+     * </p>
+     *
+     * @param tokenId The token's {@code jti}; {@code null} is never revoked.
+     * @return {@code true} if the token is revoked or Redis could not confirm a probable hit.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            negatives.increment();
+            return false;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + tokenId))) {
+                revokedHits.increment();
+                return true;
+            }
+            falsePositives.increment();
+            return false;
+        } catch (Exception e) {
+            log.error("Revocation lookup for token {} failed, rejecting it", tokenId, e);
+            return true;
+        }
+    }
+
+    /**
+     * Rebuilds the local filter from the Redis index, dropping ids whose tokens have expired.
+     */
+    void refresh() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, 0, now);
+            Set<String> revoked = redisTemplate.opsForZSet().rangeByScore(INDEX_KEY, now, Double.POSITIVE_INFINITY);
+            int size = revoked == null ? 0 : revoked.size();
+            BloomFilter next = new BloomFilter(Math.max(expectedRevocations, 2L * size), falsePositiveProbability);
+            if (revoked != null) {
+                revoked.forEach(next::put);
+            }
+            filter = next;
+        } catch (Exception e) {
+            log.warn("Could not refresh revocation filter, keeping {} entries: {}", filter.insertions(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.alpeerkaraca.common.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of already verified access tokens.
+ *
+ * <p>
+ * Mobile clients send the same access token on every call, so re-checking its RSA signature each time is
+ * wasted work. This cache maps the SHA-256 digest of a token to the {@link AuthenticatedPrincipal} decoded
+ * from it. The raw token is never stored.
+ * </p>
+ *
+ * <ul>
+ * <li>Entries are removed at the token's own {@code exp}. Lookups never return an expired entry.</li>
+ * <li>Capacity is capped by entry count ({@code app.jwt.cache.max-entries}) and by estimated heap usage
+ * ({@code app.jwt.cache.max-memory-bytes}). When a cap is hit, the entries closest to expiry go first.</li>
+ * <li>Hits, misses and evictions are exported through Micrometer as {@code jwt.token.cache.*}.</li>
+ * </ul>
+ *
+ * <p>
+ * The cache is disabled unless {@code app.jwt.cache.enabled=true}.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.jwt.cache", name = "enabled", havingValue = "true")
+public class VerifiedTokenCache {
+
+    /**
+     * Rough per-entry overhead (map node, entry, digest key, expiry index node) in bytes.
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    private static final String METRIC_PREFIX = "jwt.token.cache";
+
+    private final MessageDigest digestPrototype;
+    private final Map<TokenDigest, CachedToken> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<CachedToken> expiryIndex = new ConcurrentSkipListSet<>();
+    /**
+     * Entries and estimated bytes held or reserved; a put reserves its share before it inserts, so concurrent puts
+     * cannot push the cache past its caps.
+     */
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong weightBytes = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final long maxEntries;
+    private final long maxWeightBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expiredEvictions;
+    private final Counter sizeEvictions;
+
+    public VerifiedTokenCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.cache.max-entries:10000}") long maxEntries,
+            @Value("${app.jwt.cache.max-memory-bytes:8388608}") long maxWeightBytes) throws NoSuchAlgorithmException {
+        this.digestPrototype = MessageDigest.getInstance("SHA-256");
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+
+        this.hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit")
+                .description("Verified token cache lookups").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "miss")
+                .description("Verified token cache lookups").register(meterRegistry);
+        this.expiredEvictions = Counter.builder(METRIC_PREFIX + ".evictions").tag("cause", "expired")
+                .description("Verified token cache evictions").register(meterRegistry);
+        this.sizeEvictions = Counter.builder(METRIC_PREFIX + ".evictions").tag("cause", "size")
+                .description("Verified token cache evictions").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", entries, Map::size)
+                .description("Number of cached tokens").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".weight", weightBytes, AtomicLong::get)
+                .description("Estimated heap used by cached tokens").baseUnit("bytes").register(meterRegistry);
+
+        log.info("Verified token cache enabled (max-entries={}, max-memory-bytes={})", maxEntries, maxWeightBytes);
+    }
+
+    /**
+     * Returns the cached principal for the token, or {@code null} if it is unknown or expired.
+     *
+     * @param token The raw JWT string.
+     * @return The previously verified principal, or {@code null}.
+     */
+    public AuthenticatedPrincipal get(String token) {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+
+        CachedToken cached = entries.get(digest(token));
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (cached.expiresAtMillis() <= now) {
+            if (remove(cached)) {
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.principal();
+    }
+
+    /**
+     * Caches a principal that has just been verified.
+     *
+     * @param token     The raw JWT string the principal was decoded from.
+     * @param principal The verified principal.
+     * @param expiresAt The token's {@code exp}; tokens without an expiry are not cached.
+     */
+    public void put(String token, AuthenticatedPrincipal principal, Instant expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt == null || expiresAt.toEpochMilli() <= now) {
+            return;
+        }
+        CachedToken cached = new CachedToken(
+                digest(token),
+                principal,
+                expiresAt.toEpochMilli(),
+                sequence.incrementAndGet(),
+                estimateWeight(principal)
+        );
+        if (cached.weightBytes() > maxWeightBytes) {
+            return;
+        }
+
+        purgeExpired(now);
+        if (!reserve(cached.weightBytes())) {
+            return;
+        }
+        entries.compute(cached.digest(), (digest, previous) -> {
+            if (previous != null && expiryIndex.remove(previous)) {
+                release(previous);
+            }
+            expiryIndex.add(cached);
+            return cached;
+        });
+    }
+
+    /**
+     * Drops every cached entry, e.g. after the verification key has changed.
+     */
+    public void invalidateAll() {
+        entries.values().forEach(this::remove);
+    }
+
+    private void purgeExpired(long now) {
+        CachedToken first;
+        while ((first = firstOrNull()) != null && first.expiresAtMillis() <= now) {
+            if (remove(first)) {
+                expiredEvictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Claims room for one entry of {@code weight} bytes, evicting the entries closest to expiry until it fits.
+     *
+     * @return {@code false} if the cache is empty and the entry still does not fit.
+     */
+    private boolean reserve(long weight) {
+        long count;
+        while ((count = size.get()) >= maxEntries || !size.compareAndSet(count, count + 1)) {
+            if (count >= maxEntries && !evictFirst()) {
+                return false;
+            }
+        }
+        long current;
+        while ((current = weightBytes.get()) + weight > maxWeightBytes
+                || !weightBytes.compareAndSet(current, current + weight)) {
+            if (current + weight > maxWeightBytes && !evictFirst()) {
+                size.decrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean evictFirst() {
+        CachedToken first = firstOrNull();
+        if (first == null) {
+            return false;
+        }
+        if (remove(first)) {
+            sizeEvictions.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the entry if it is still the one cached for its digest. The map and the expiry index are updated
+     * together under the digest's lock, so the accounting cannot drift.
+     */
+    private boolean remove(CachedToken cached) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(cached.digest(), (digest, current) -> {
+            if (current != cached) {
+                return current;
+            }
+            expiryIndex.remove(cached);
+            release(cached);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void release(CachedToken cached) {
+        size.decrementAndGet();
+        weightBytes.addAndGet(-cached.weightBytes());
+    }
+
+    private CachedToken firstOrNull() {
+        return expiryIndex.ceiling(CachedToken.LOWEST);
+    }
+
+    private TokenDigest digest(String token) {
+        MessageDigest md;
+        try {
+            md = (MessageDigest) digestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    private static long estimateWeight(AuthenticatedPrincipal principal) {
+        return ENTRY_OVERHEAD_BYTES
+                + stringWeight(principal.userId())
+                + stringWeight(principal.subject());
+    }
+
+    private static long stringWeight(String value) {
+        return value == null ? 0 : 40L + value.length();
+    }
+
+    /**
+     * SHA-256 of a token as four longs, cheap to hash and compare.
+     */
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+    }
+
+    /**
+     * Cache entry, ordered by expiry and then insertion sequence for the expiry index.
+     */
+    private record CachedToken(
+            TokenDigest digest,
+            AuthenticatedPrincipal principal,
+            long expiresAtMillis,
+            long sequence,
+            long weightBytes
+    ) implements Comparable<CachedToken> {
+
+        private static final CachedToken LOWEST = new CachedToken(null, null, Long.MIN_VALUE, Long.MIN_VALUE, 0);
+
+        @Override
+        public int compareTo(CachedToken other) {
+            int byExpiry = Long.compare(expiresAtMillis, other.expiresAtMillis);
+            return byExpiry != 0 ? byExpiry : Long.compare(sequence, other.sequence);
+        }
+    }
+}
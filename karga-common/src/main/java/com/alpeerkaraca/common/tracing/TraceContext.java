@@ -0,0 +1,70 @@
+package com.alpeerkaraca.common.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carries the trace of a saga step across hops that the OpenTelemetry agent cannot follow on its own, such as the
+ * outbox and the Stripe webhook.
+ *
+ * <p>
+ * The context travels as a W3C {@code traceparent}. It is stored with the outbox row and sent as the record header of
+ * the same name, where the agent's Kafka instrumentation picks it up as the parent of the listener's span. Without the
+ * agent the OpenTelemetry API is a no-op and nothing is captured.
+ * </p>
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final TextMapGetter<String> TRACEPARENT_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(String carrier) {
+            return List.of(TRACEPARENT_HEADER);
+        }
+
+        @Override
+        public String get(String carrier, String key) {
+            return TRACEPARENT_HEADER.equals(key) ? carrier : null;
+        }
+    };
+
+    private TraceContext() {
+    }
+
+    /**
+     * @return The {@code traceparent} of the current span, or {@code null} if there is none.
+     */
+    public static String current() {
+        if (!Span.current().getSpanContext().isValid()) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>(2);
+        W3CTraceContextPropagator.getInstance().inject(Context.current(), carrier, Map::put);
+        return carrier.get(TRACEPARENT_HEADER);
+    }
+
+    /**
+     * Makes a stored context the parent of the spans started on this thread, until the returned scope is closed.
+     *
+     * @param traceparent A {@code traceparent} from {@link #current()}; {@code null} or an invalid value is ignored.
+     * @return The scope to close, in a try-with-resources block.
+     */
+    public static Scope restore(String traceparent) {
+        if (traceparent == null || traceparent.isEmpty()) {
+            return Scope.noop();
+        }
+        Context context = W3CTraceContextPropagator.getInstance().extract(Context.root(), traceparent, TRACEPARENT_GETTER);
+        if (!Span.fromContext(context).getSpanContext().isValid()) {
+            return Scope.noop();
+        }
+        return context.makeCurrent();
+    }
+}
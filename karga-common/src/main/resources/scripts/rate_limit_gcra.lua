@@ -0,0 +1,29 @@
+-- GCRA rate limiter: one theoretical arrival time (TAT) per key.
+-- KEYS[1] = rate limit key
+-- ARGV[1] = limit, ARGV[2] = window in milliseconds, ARGV[3] = permits requested
+-- Grants as many of the requested permits as the burst tolerance still allows.
+-- Returns {permits granted, remaining permits, retry-after in milliseconds}
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local interval = window / limit
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + tonumber(time[2]) / 1000
+
+local tat = tonumber(redis.call('GET', key))
+if tat == nil or tat < now then
+    tat = now
+end
+
+-- The epsilon stops float rounding from losing a permit.
+local available = math.floor((window - (tat - now)) / interval + 1e-9)
+if available < 1 then
+    return { 0, 0, math.ceil(tat + interval - window - now) }
+end
+
+local granted = math.min(permits, available)
+local newTat = tat + granted * interval
+redis.call('SET', key, string.format('%.3f', newTat), 'PX', math.ceil(newTat - now))
+return { granted, available - granted, 0 }
@@ -0,0 +1,32 @@
+-- Sliding-log rate limiter: trim, count, conditionally add and expire in one call.
+-- KEYS[1] = rate limit key
+-- ARGV[1] = limit, ARGV[2] = window in milliseconds, ARGV[3] = permits requested,
+-- ARGV[4] = unique member prefix for this call
+-- Grants as many of the requested permits as the window still allows.
+-- Returns {permits granted, remaining permits, retry-after in milliseconds}
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+redis.call('ZREMRANGEBYSCORE', key, 0, now - window)
+local count = redis.call('ZCARD', key)
+
+if count < limit then
+    local granted = math.min(permits, limit - count)
+    for i = 1, granted do
+        redis.call('ZADD', key, now, ARGV[4] .. ':' .. i)
+    end
+    redis.call('PEXPIRE', key, window)
+    return { granted, limit - count - granted, 0 }
+end
+
+local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+local retryAfter = window
+if oldest[2] then
+    retryAfter = tonumber(oldest[2]) + window - now
+end
+return { 0, 0, retryAfter }
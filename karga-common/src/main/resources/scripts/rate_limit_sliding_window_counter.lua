@@ -0,0 +1,46 @@
+-- Sliding-window-counter rate limiter: counts of the current and previous fixed window in one small hash.
+-- The previous window's count is weighted by how much of it still overlaps the sliding window.
+-- KEYS[1] = rate limit key
+-- ARGV[1] = limit, ARGV[2] = window in milliseconds, ARGV[3] = permits requested
+-- Grants as many of the requested permits as the estimated count still allows.
+-- Returns {permits granted, remaining permits, retry-after in milliseconds}
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local current = math.floor(now / window)
+local elapsed = now - current * window
+
+local state = redis.call('HMGET', key, 'w', 'c', 'p')
+local stored = tonumber(state[1])
+local currentCount = 0
+local previousCount = 0
+if stored == current then
+    currentCount = tonumber(state[2]) or 0
+    previousCount = tonumber(state[3]) or 0
+elseif stored == current - 1 then
+    previousCount = tonumber(state[2]) or 0
+end
+
+local weight = (window - elapsed) / window
+local estimated = previousCount * weight + currentCount
+
+if estimated + 1 > limit then
+    -- Wait until enough of the older window has slid out for one more request.
+    local retryAfter
+    if currentCount < limit then
+        retryAfter = math.ceil(window * (1 - (limit - 1 - currentCount) / previousCount)) - elapsed
+    else
+        retryAfter = window - elapsed + math.ceil(window * (1 - (limit - 1) / currentCount))
+    end
+    return { 0, 0, math.max(retryAfter, 1) }
+end
+
+local available = math.floor(limit - estimated + 1e-9)
+local granted = math.min(permits, available)
+redis.call('HSET', key, 'w', current, 'c', currentCount + granted, 'p', previousCount)
+redis.call('PEXPIRE', key, window * 2)
+return { granted, available - granted, 0 }
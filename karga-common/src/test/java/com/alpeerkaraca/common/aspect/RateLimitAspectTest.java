@@ -0,0 +1,155 @@
+package com.alpeerkaraca.common.aspect;
+
+import com.alpeerkaraca.common.annotation.RateLimit;
+import com.alpeerkaraca.common.exception.RateLimitExceededException;
+import com.alpeerkaraca.common.ratelimit.LeasedRateLimiter;
+import com.alpeerkaraca.common.ratelimit.RateLimitAlgorithm;
+import com.alpeerkaraca.common.ratelimit.RateLimitDecision;
+import com.alpeerkaraca.common.ratelimit.RateLimitFilter;
+import com.alpeerkaraca.common.ratelimit.RedisRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitAspect Tests")
+class RateLimitAspectTest {
+
+    @Mock
+    private RedisRateLimiter rateLimiter;
+
+    @Mock
+    private LeasedRateLimiter leasedRateLimiter;
+
+    @InjectMocks
+    private RateLimitAspect rateLimitAspect;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private RateLimit rateLimit;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        ReflectionTestUtils.setField(rateLimitAspect, "rateLimitEnabled", true);
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        rateLimit = RateLimitAspectTest.class.getDeclaredMethod("login").getAnnotation(RateLimit.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should let the request through and expose the remaining quota")
+    void checkRateLimit_UnderLimit_SetsHeaders() {
+        when(rateLimiter.tryAcquire(eq("rate_limit:login:10.0.0.7"), eq(5L), eq(120_000L), eq(RateLimitAlgorithm.SLIDING_LOG)))
+                .thenReturn(new RateLimitDecision(true, 4, 0));
+
+        rateLimitAspect.checkRateLimit(null, rateLimit);
+
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("5");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("4");
+    }
+
+    @Test
+    @DisplayName("Should reject with the retry-after reported by Redis")
+    void checkRateLimit_OverLimit_ThrowsWithRetryAfter() {
+        when(rateLimiter.tryAcquire(eq("rate_limit:login:10.0.0.7"), eq(5L), anyLong(), eq(RateLimitAlgorithm.SLIDING_LOG)))
+                .thenReturn(new RateLimitDecision(false, 0, 42_000));
+
+        assertThatThrownBy(() -> rateLimitAspect.checkRateLimit(null, rateLimit))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting("retryAfterMillis").isEqualTo(42_000L);
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+    }
+
+    @Test
+    @DisplayName("Should let the request through when Redis is unavailable")
+    void checkRateLimit_RedisDown_FailsOpen() {
+        when(rateLimiter.tryAcquire(eq("rate_limit:login:10.0.0.7"), eq(5L), anyLong(), eq(RateLimitAlgorithm.SLIDING_LOG)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThatNoException().isThrownBy(() -> rateLimitAspect.checkRateLimit(null, rateLimit));
+    }
+
+    @Test
+    @DisplayName("Should skip a limit the filter already enforced for this request")
+    void checkRateLimit_EnforcedByFilter_Skips() {
+        request.setAttribute(RateLimitFilter.APPLIED_RULE_ATTRIBUTE, "login");
+
+        rateLimitAspect.checkRateLimit(null, rateLimit);
+
+        verifyNoInteractions(rateLimiter, leasedRateLimiter);
+    }
+
+    @Test
+    @DisplayName("Should skip the limit outside a request when nobody is authenticated")
+    void checkRateLimit_NoRequestNoUser_Skips() {
+        RequestContextHolder.resetRequestAttributes();
+
+        assertThatNoException().isThrownBy(() -> rateLimitAspect.checkRateLimit(null, rateLimit));
+
+        verifyNoInteractions(rateLimiter, leasedRateLimiter);
+    }
+
+    @Test
+    @DisplayName("Should evaluate the limit with the algorithm chosen on the annotation")
+    void checkRateLimit_GcraAnnotation_UsesGcra() throws NoSuchMethodException {
+        RateLimit gcra = RateLimitAspectTest.class.getDeclaredMethod("search").getAnnotation(RateLimit.class);
+        when(rateLimiter.tryAcquire(eq("rate_limit:search:10.0.0.7"), eq(100L), eq(60_000L), eq(RateLimitAlgorithm.GCRA)))
+                .thenReturn(new RateLimitDecision(true, 99, 0));
+
+        rateLimitAspect.checkRateLimit(null, gcra);
+
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("99");
+    }
+
+    @Test
+    @DisplayName("Should spend from a local lease when the annotation sets a lease fraction")
+    void checkRateLimit_LeaseFraction_UsesLeasedLimiter() throws NoSuchMethodException {
+        RateLimit leased = RateLimitAspectTest.class.getDeclaredMethod("feed").getAnnotation(RateLimit.class);
+        when(leasedRateLimiter.tryAcquire(eq("rate_limit:feed:10.0.0.7"), eq(1_000L), eq(60_000L),
+                eq(RateLimitAlgorithm.GCRA), eq(0.1)))
+                .thenReturn(new RateLimitDecision(true, 950, 0));
+
+        rateLimitAspect.checkRateLimit(null, leased);
+
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("950");
+        verifyNoInteractions(rateLimiter);
+    }
+
+    @RateLimit(key = "login", limit = 5, duration = 120)
+    private void login() {
+    }
+
+    @RateLimit(key = "search", limit = 100, algorithm = RateLimitAlgorithm.GCRA)
+    private void search() {
+    }
+
+    @RateLimit(key = "feed", limit = 1_000, algorithm = RateLimitAlgorithm.GCRA, leaseFraction = 0.1)
+    private void feed() {
+    }
+}
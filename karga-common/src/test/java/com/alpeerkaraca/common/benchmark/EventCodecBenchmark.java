@@ -0,0 +1,140 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.event.DriverLocationMessage;
+import com.alpeerkaraca.common.event.PaymentMessage;
+import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.event.codec.BinaryEventDeserializer;
+import com.alpeerkaraca.common.event.codec.BinaryEventSerializer;
+import com.alpeerkaraca.common.model.TripEventTypes;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode throughput of the binary event format against Spring's {@link JsonSerializer} and
+ * {@link JsonDeserializer}, for each event with a codec.
+ *
+ * <p>
+ * Run from the {@code karga-common} directory with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.EventCodecBenchmark}; {@code main} first prints the record
+ * size of each event in both formats, value and headers.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    public enum Event {TRIP, PAYMENT, LOCATION}
+
+    private static final String TOPIC = "events";
+
+    @Param({"TRIP", "PAYMENT", "LOCATION"})
+    public Event event;
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final BinaryEventSerializer binarySerializer = new BinaryEventSerializer();
+    private final BinaryEventDeserializer binaryDeserializer = new BinaryEventDeserializer();
+    private JsonDeserializer<?> jsonDeserializer;
+    private Object message;
+    private byte[] json;
+    private byte[] binary;
+    private Headers binaryHeaders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = message(event);
+        jsonDeserializer = new JsonDeserializer<>(message.getClass(), false);
+        json = jsonSerializer.serialize(TOPIC, message);
+        binaryHeaders = new RecordHeaders();
+        binary = binarySerializer.serialize(TOPIC, binaryHeaders, message);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), message);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return binaryDeserializer.deserialize(TOPIC, binaryHeaders, binary);
+    }
+
+    static Object message(Event event) {
+        return switch (event) {
+            case TRIP -> TripMessage.builder()
+                    .eventType(TripEventTypes.TRIP_COMPLETED)
+                    .tripId(UUID.randomUUID())
+                    .driverId(UUID.randomUUID())
+                    .passengerId(UUID.randomUUID())
+                    .createdAt(Instant.now())
+                    .fare(new BigDecimal("45.75"))
+                    .currentLatitude(41.0082)
+                    .currentLongitude(28.9784)
+                    .build();
+            case PAYMENT -> PaymentMessage.builder()
+                    .paymentId("pi_3Q0kQy2eZvKYlo2C1h8a9b7c")
+                    .tripId(UUID.randomUUID())
+                    .passengerId(UUID.randomUUID())
+                    .amount(new BigDecimal("45.75"))
+                    .eventType(TripEventTypes.PAYMENT_SUCCESSFUL)
+                    .createdAt(Instant.now())
+                    .build();
+            case LOCATION -> new DriverLocationMessage(UUID.randomUUID(), 41.0082376, 28.9783589,
+                    Timestamp.from(Instant.now()));
+        };
+    }
+
+    private static int headerBytes(Headers headers) {
+        int size = 0;
+        for (Header header : headers) {
+            size += header.key().getBytes(StandardCharsets.UTF_8).length + header.value().length;
+        }
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        try (JsonSerializer<Object> json = new JsonSerializer<>();
+             BinaryEventSerializer binary = new BinaryEventSerializer()) {
+            System.out.printf("%-10s %12s %12s %14s %14s%n", "event", "json value", "json headers", "binary value", "binary headers");
+            for (Event event : Event.values()) {
+                Object message = message(event);
+                Headers jsonHeaders = new RecordHeaders();
+                Headers binaryHeaders = new RecordHeaders();
+                int jsonValue = json.serialize(TOPIC, jsonHeaders, message).length;
+                int binaryValue = binary.serialize(TOPIC, binaryHeaders, message).length;
+                System.out.printf("%-10s %12d %12d %14d %14d%n", event, jsonValue, headerBytes(jsonHeaders),
+                        binaryValue, headerBytes(binaryHeaders));
+            }
+        }
+        new Runner(new OptionsBuilder()
+                .include(EventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
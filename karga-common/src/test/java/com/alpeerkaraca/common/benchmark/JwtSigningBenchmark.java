@@ -0,0 +1,84 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.security.AuthenticatedPrincipal;
+import com.alpeerkaraca.common.security.JWTService;
+import com.alpeerkaraca.common.security.JwtKeyRing;
+import com.alpeerkaraca.common.security.JwtSigningAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of {@link JWTService} per {@link JwtSigningAlgorithm}.
+ *
+ * <p>
+ * Run from the {@code karga-common} directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.JwtSigningBenchmark}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    private static final Map<String, Object> CLAIMS = Map.of(
+            "userId", "0f8fad5b-d9cb-469f-a165-70867728950e",
+            "roles", List.of("ROLE_PASSENGER"),
+            "tokenType", "access");
+
+    @Param({"RS256", "ES256", "EDDSA"})
+    private JwtSigningAlgorithm algorithm;
+
+    private JWTService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyFactoryAlgorithm());
+        if (algorithm == JwtSigningAlgorithm.RS256) {
+            generator.initialize(2048);
+        } else if (algorithm == JwtSigningAlgorithm.ES256) {
+            generator.initialize(256);
+        }
+        KeyPair keyPair = generator.generateKeyPair();
+        Base64.Encoder encoder = Base64.getMimeEncoder();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.jwt.keys[0].kid", "bench")
+                .withProperty("app.jwt.keys[0].algorithm", algorithm.name())
+                .withProperty("app.jwt.keys[0].public-key", encoder.encodeToString(keyPair.getPublic().getEncoded()))
+                .withProperty("app.jwt.keys[0].private-key", encoder.encodeToString(keyPair.getPrivate().getEncoded()));
+
+        jwtService = new JWTService(new JwtKeyRing(environment, null, null), null, null);
+        token = jwtService.generateToken(CLAIMS, "passenger@karga.com", TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(CLAIMS, "passenger@karga.com", TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Benchmark
+    public AuthenticatedPrincipal verify() {
+        return jwtService.verifyAndDecode(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
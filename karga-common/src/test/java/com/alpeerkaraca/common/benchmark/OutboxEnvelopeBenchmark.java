@@ -0,0 +1,107 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.event.OutboxEnvelope;
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
+import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.model.TripEventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode time and size of a trip event in the record value shapes read by {@link OutboxEnvelope}: the old
+ * schema envelope around a JSON string, the schema envelope around an expanded object, and the bare expanded object
+ * the connectors now publish.
+ *
+ * <p>
+ * {@code legacyTwoPass} is how consumers decoded events before, with {@code readTree} and a second
+ * {@code readValue} of the payload text. Run from the {@code karga-common} directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.OutboxEnvelopeBenchmark}.
+ * Bytes per message are printed before each trial.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class OutboxEnvelopeBenchmark {
+
+    /**
+     * Schema {@code JsonConverter} attaches to a {@code TEXT} payload; the {@code jsonb} one describes every field
+     * of the event and is larger still.
+     */
+    private static final String STRING_SCHEMA = "{\"type\":\"string\",\"optional\":true,\"name\":\"io.debezium.data.Json\","
+            + "\"version\":1,\"field\":\"payload\"}";
+
+    private ObjectMapper objectMapper;
+    private OutboxEventDecoder decoder;
+    private String stringPayload;
+    private String objectPayload;
+    private String bare;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        decoder = new OutboxEventDecoder(objectMapper);
+        String event = objectMapper.writeValueAsString(TripMessage.builder()
+                .eventType(TripEventTypes.TRIP_COMPLETED)
+                .tripId(UUID.randomUUID())
+                .driverId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .createdAt(Instant.now())
+                .fare(new BigDecimal("45.75"))
+                .currentLatitude(41.0082)
+                .currentLongitude(28.9784)
+                .build());
+        stringPayload = "{\"schema\":" + STRING_SCHEMA + ",\"payload\":" + objectMapper.writeValueAsString(event) + "}";
+        objectPayload = "{\"schema\":" + STRING_SCHEMA + ",\"payload\":" + event + "}";
+        bare = event;
+
+        System.out.printf("%nBytes per message: string payload %d, object payload %d, bare %d%n",
+                bytes(stringPayload), bytes(objectPayload), bytes(bare));
+    }
+
+    @Benchmark
+    public TripMessage legacyTwoPass() throws JsonProcessingException {
+        String payload = objectMapper.readTree(stringPayload).get("payload").asText();
+        return objectMapper.readValue(payload, TripMessage.class);
+    }
+
+    @Benchmark
+    public TripMessage envelopeStringPayload() throws JsonProcessingException {
+        return decoder.decode(stringPayload, TripMessage.class);
+    }
+
+    @Benchmark
+    public TripMessage envelopeObjectPayload() throws JsonProcessingException {
+        return decoder.decode(objectPayload, TripMessage.class);
+    }
+
+    @Benchmark
+    public TripMessage bareEvent() throws JsonProcessingException {
+        return decoder.decode(bare, TripMessage.class);
+    }
+
+    private static int bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OutboxEnvelopeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
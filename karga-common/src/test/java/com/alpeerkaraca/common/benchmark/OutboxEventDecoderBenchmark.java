@@ -0,0 +1,124 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
+import com.alpeerkaraca.common.event.PaymentMessage;
+import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.model.TripEventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode time and allocation of {@link OutboxEventDecoder} against the {@code readTree} + {@code readValue} decoding
+ * the listeners used to do, for a trip and a payment event in each record value shape.
+ *
+ * <p>
+ * {@code STRING} is a schema envelope around the payload text, {@code OBJECT} a schema envelope around the expanded
+ * payload and {@code BARE} the expanded payload alone. Run from the {@code karga-common} directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.OutboxEventDecoderBenchmark}; {@code main} adds the GC profiler,
+ * whose {@code gc.alloc.rate.norm} is the bytes allocated per decoded message.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class OutboxEventDecoderBenchmark {
+
+    public enum Shape {STRING, OBJECT, BARE}
+
+    private static final String SCHEMA = "{\"type\":\"string\",\"optional\":true,\"name\":\"io.debezium.data.Json\","
+            + "\"version\":1,\"field\":\"payload\"}";
+
+    @Param({"STRING", "OBJECT", "BARE"})
+    public Shape shape;
+
+    private ObjectMapper objectMapper;
+    private OutboxEventDecoder decoder;
+    private String tripMessage;
+    private String paymentMessage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        decoder = new OutboxEventDecoder(objectMapper);
+        tripMessage = wrap(objectMapper.writeValueAsString(TripMessage.builder()
+                .eventType(TripEventTypes.TRIP_COMPLETED)
+                .tripId(UUID.randomUUID())
+                .driverId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .createdAt(Instant.now())
+                .fare(new BigDecimal("45.75"))
+                .currentLatitude(41.0082)
+                .currentLongitude(28.9784)
+                .build()));
+        paymentMessage = wrap(objectMapper.writeValueAsString(PaymentMessage.builder()
+                .paymentId("pi_3Q0kQy2eZvKYlo2C1h8a9b7c")
+                .tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .amount(new BigDecimal("45.75"))
+                .eventType(TripEventTypes.PAYMENT_SUCCESSFUL)
+                .createdAt(Instant.now())
+                .build()));
+    }
+
+    @Benchmark
+    public TripMessage treeTrip() throws JsonProcessingException {
+        return readTree(tripMessage, TripMessage.class);
+    }
+
+    @Benchmark
+    public TripMessage decoderTrip() throws JsonProcessingException {
+        return decoder.decode(tripMessage, TripMessage.class);
+    }
+
+    @Benchmark
+    public PaymentMessage treePayment() throws JsonProcessingException {
+        return readTree(paymentMessage, PaymentMessage.class);
+    }
+
+    @Benchmark
+    public PaymentMessage decoderPayment() throws JsonProcessingException {
+        return decoder.decode(paymentMessage, PaymentMessage.class);
+    }
+
+    /**
+     * The tree-based decoding, extended to the shapes it did not have to handle.
+     */
+    private <T> T readTree(String message, Class<T> type) throws JsonProcessingException {
+        JsonNode root = objectMapper.readTree(message);
+        JsonNode payload = root.has("payload") ? root.get("payload") : root;
+        return payload.isTextual()
+                ? objectMapper.readValue(payload.asText(), type)
+                : objectMapper.treeToValue(payload, type);
+    }
+
+    private String wrap(String event) throws JsonProcessingException {
+        return switch (shape) {
+            case STRING -> "{\"schema\":" + SCHEMA + ",\"payload\":" + objectMapper.writeValueAsString(event) + "}";
+            case OBJECT -> "{\"schema\":" + SCHEMA + ",\"payload\":" + event + "}";
+            case BARE -> event;
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OutboxEventDecoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
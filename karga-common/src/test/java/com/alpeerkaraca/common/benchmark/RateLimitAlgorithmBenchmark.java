@@ -0,0 +1,129 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.ratelimit.LeasedRateLimiter;
+import com.alpeerkaraca.common.ratelimit.RateLimitAlgorithm;
+import com.alpeerkaraca.common.ratelimit.RateLimitDecision;
+import com.alpeerkaraca.common.ratelimit.RedisRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and Redis memory per key of each {@link RateLimitAlgorithm}, with and without local leases.
+ *
+ * <p>
+ * Needs a disposable Redis on {@code localhost:6379} (override with {@code -Dredis.host} / {@code -Dredis.port});
+ * the benchmark flushes it. Run from the {@code karga-common} directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.RateLimitAlgorithmBenchmark}.
+ * Throughput is reported by JMH. Before each trial one key is filled with {@code limit} requests and its
+ * {@code MEMORY USAGE} is printed, which is the steady state of a user calling at the full rate; after each trial
+ * the number of Redis script calls per request is printed.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class RateLimitAlgorithmBenchmark {
+
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final RedisScript<Long> MEMORY_USAGE =
+            RedisScript.of("return redis.call('MEMORY', 'USAGE', KEYS[1], 'SAMPLES', '0')", Long.class);
+
+    @Param({"SLIDING_LOG", "SLIDING_WINDOW_COUNTER", "GCRA"})
+    private RateLimitAlgorithm algorithm;
+
+    @Param({"1000"})
+    private long limit;
+
+    /**
+     * {@code 0} calls Redis per request; anything else spends permits leased through {@link LeasedRateLimiter}.
+     */
+    @Param({"0", "0.1"})
+    private double leaseFraction;
+
+    /**
+     * Distinct keys the calls rotate over; leasing pays off when few keys take many requests.
+     */
+    @Param({"10000"})
+    private int users;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RedisRateLimiter rateLimiter;
+    private LeasedRateLimiter leasedRateLimiter;
+    private long scriptCallsBefore;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute((RedisConnection connection) -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        rateLimiter = new RedisRateLimiter(redisTemplate);
+        leasedRateLimiter = new LeasedRateLimiter(rateLimiter, null, 1_000, 10_000);
+
+        String probe = "rate_limit:probe";
+        for (long i = 0; i < limit; i++) {
+            rateLimiter.tryAcquire(probe, limit, WINDOW_MILLIS, algorithm);
+        }
+        System.out.printf("%n%s: %d bytes per key after %d requests in one window%n",
+                algorithm, memoryUsage(probe + algorithm.getKeySuffix()), limit);
+        scriptCallsBefore = scriptCalls();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nRedis calls per request: %.3f (%d requests)%n",
+                (double) (scriptCalls() - scriptCallsBefore) / calls.get(), calls.get());
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public RateLimitDecision tryAcquire() {
+        String key = "rate_limit:benchmark:user-" + (calls.incrementAndGet() % users);
+        if (leaseFraction > 0) {
+            return leasedRateLimiter.tryAcquire(key, limit, WINDOW_MILLIS, algorithm, leaseFraction);
+        }
+        return rateLimiter.tryAcquire(key, limit, WINDOW_MILLIS, algorithm);
+    }
+
+    private long scriptCalls() {
+        Properties stats = redisTemplate.execute((RedisConnection connection) ->
+                connection.serverCommands().info("commandstats"));
+        String evalsha = stats.getProperty("cmdstat_evalsha", "calls=0,");
+        return Long.parseLong(evalsha.substring(evalsha.indexOf('=') + 1, evalsha.indexOf(',')));
+    }
+
+    private long memoryUsage(String key) {
+        Long bytes = redisTemplate.execute(MEMORY_USAGE, List.of(key));
+        return bytes == null ? -1 : bytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitAlgorithmBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.annotation.RateLimit;
+import com.alpeerkaraca.common.aspect.RateLimitAspect;
+import com.alpeerkaraca.common.ratelimit.LeasedRateLimiter;
+import com.alpeerkaraca.common.ratelimit.RedisRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of a rate-limited call through {@link RateLimitAspect} against a real Redis, and the number of Redis
+ * commands it costs.
+ *
+ * <p>
+ * Needs a disposable Redis on {@code localhost:6379} (override with {@code -Dredis.host} / {@code -Dredis.port});
+ * the benchmark flushes it. Run from the {@code karga-common} directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.RateLimitBenchmark}.
+ * Latency percentiles are reported by JMH; Redis commands per call, from {@code INFO commandstats}, are printed
+ * after each trial.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RateLimitAspect aspect;
+    private RateLimit rateLimit;
+
+    private final AtomicLong calls = new AtomicLong();
+    private Map<String, Long> commandsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        connectionFactory = new LettuceConnectionFactory(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute((RedisConnection connection) -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+
+        RedisRateLimiter rateLimiter = new RedisRateLimiter(redisTemplate);
+        aspect = new RateLimitAspect(rateLimiter, new LeasedRateLimiter(rateLimiter, null, 1_000, 10_000));
+        ReflectionTestUtils.setField(aspect, "rateLimitEnabled", true);
+        rateLimit = RateLimitBenchmark.class.getDeclaredMethod("protectedCall").getAnnotation(RateLimit.class);
+        commandsBefore = commandsProcessed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Map<String, Long> commandsAfter = commandsProcessed();
+        System.out.printf("%nRedis commands per protected call (%d calls):%n", calls.get());
+        commandsAfter.forEach((command, count) -> {
+            double perCall = (double) (count - commandsBefore.getOrDefault(command, 0L)) / calls.get();
+            if (perCall >= 0.01) {
+                System.out.printf("  %-20s %.2f%n", command, perCall);
+            }
+        });
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public void checkRateLimit() {
+        long call = calls.incrementAndGet();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user-" + (call % USERS), null, AuthorityUtils.NO_AUTHORITIES));
+        aspect.checkRateLimit(null, rateLimit);
+    }
+
+    @RateLimit(key = "benchmark", limit = 1_000, duration = 60)
+    private void protectedCall() {
+    }
+
+    /**
+     * Calls per command from {@code INFO commandstats}. Commands run inside a script are listed too, so a
+     * script call shows up as one {@code evalsha} plus the commands it ran.
+     */
+    private Map<String, Long> commandsProcessed() {
+        Properties stats = redisTemplate.execute((RedisConnection connection) ->
+                connection.serverCommands().info("commandstats"));
+        Map<String, Long> calls = new TreeMap<>();
+        stats.stringPropertyNames().forEach(name -> {
+            String value = stats.getProperty(name);
+            calls.put(name.replace("cmdstat_", ""),
+                    Long.parseLong(value.substring(value.indexOf('=') + 1, value.indexOf(','))));
+        });
+        return calls;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.alpeerkaraca.common.benchmark;
+
+import com.alpeerkaraca.common.persistence.TimeOrderedUuid;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput into a table keyed by random version 4 UUIDs against one keyed by {@link TimeOrderedUuid}
+ * version 7 UUIDs, with a payload the size of an outbox row.
+ *
+ * <p>
+ * Each trial starts from a table prefilled with {@code rows} rows, so random keys land on pages all over a primary
+ * key index of realistic depth; raise {@code rows} past the server's {@code shared_buffers} to see the cache misses
+ * as well. Needs a disposable PostgreSQL on {@code localhost:5432} (override with {@code -Djdbc.url},
+ * {@code -Djdbc.user} and {@code -Djdbc.password}); the benchmark drops and recreates the
+ * {@code uuid_insert_benchmark} table. Run from the {@code karga-common} directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpeerkaraca.common.benchmark.UuidInsertBenchmark}.
+ * Scores are rows per second; the size of the primary key index per row is printed after each trial.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final String INSERT = "INSERT INTO uuid_insert_benchmark (id, created_at, payload) VALUES (?, ?, ?)";
+    private static final String PAYLOAD = "{\"eventType\":\"TRIP_COMPLETED\",\"tripId\":\"%s\",\"fare\":45.75,"
+            + "\"currentLatitude\":41.0082,\"currentLongitude\":28.9784,\"createdAt\":\"%s\"}";
+
+    @Param({"v4", "v7"})
+    public String version;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Supplier<UUID> ids;
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        ids = "v7".equals(version) ? TimeOrderedUuid::next : UUID::randomUUID;
+        connection = DriverManager.getConnection(
+                System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("jdbc.user", "postgres"),
+                System.getProperty("jdbc.password", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS uuid_insert_benchmark");
+            statement.execute("CREATE TABLE uuid_insert_benchmark "
+                    + "(id uuid PRIMARY KEY, created_at timestamptz NOT NULL, payload jsonb NOT NULL)");
+        }
+        insert = connection.prepareStatement(INSERT);
+        for (int inserted = 0; inserted < rows; inserted += BATCH_SIZE) {
+            insertBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE uuid_insert_benchmark");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT pg_relation_size('uuid_insert_benchmark_pkey'), "
+                     + "(SELECT count(*) FROM uuid_insert_benchmark)")) {
+            result.next();
+            System.out.printf("%n%s primary key index: %.1f bytes per row over %d rows%n",
+                    version, (double) result.getLong(1) / result.getLong(2), result.getLong(2));
+        }
+        insert.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            UUID id = ids.get();
+            insert.setObject(1, id);
+            insert.setTimestamp(2, now);
+            insert.setObject(3, PAYLOAD.formatted(id, now.toInstant()), Types.OTHER);
+            insert.addBatch();
+        }
+        return insert.executeBatch();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UuidInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
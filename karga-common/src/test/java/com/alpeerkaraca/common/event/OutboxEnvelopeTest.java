@@ -0,0 +1,71 @@
+package com.alpeerkaraca.common.event;
+
+import com.alpeerkaraca.common.model.TripEventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OutboxEnvelope Tests")
+class OutboxEnvelopeTest {
+
+    private static final UUID TRIP_ID = UUID.fromString("0b8e2c43-5f5d-4a4e-9d43-8f0c7d2f1a11");
+    private static final String EVENT = "{\"eventType\":\"TRIP_COMPLETED\",\"tripId\":\"" + TRIP_ID
+            + "\",\"createdAt\":\"2026-10-16T08:30:00Z\",\"fare\":45.75}";
+    private static final String SCHEMA = "{\"type\":\"string\",\"optional\":true}";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final OutboxEventDecoder decoder = new OutboxEventDecoder(objectMapper);
+
+    @Test
+    @DisplayName("Should decode a payload string behind a schema envelope")
+    void read_StringPayload_ParsesInnerJson() throws JsonProcessingException {
+        String message = "{\"schema\":" + SCHEMA + ",\"payload\":" + objectMapper.writeValueAsString(EVENT) + "}";
+
+        assertCompletedTrip(decoder.decode(message, TripMessage.class));
+    }
+
+    @Test
+    @DisplayName("Should bind a nested payload object in one pass")
+    void read_ObjectPayload_BindsPayload() throws JsonProcessingException {
+        String message = "{\"schema\":" + SCHEMA + ",\"payload\":" + EVENT + "}";
+
+        assertCompletedTrip(decoder.decode(message, TripMessage.class));
+    }
+
+    @Test
+    @DisplayName("Should bind a value without envelope as the event itself")
+    void read_BareEvent_BindsEvent() throws JsonProcessingException {
+        assertCompletedTrip(decoder.decode(EVENT, TripMessage.class));
+    }
+
+    @Test
+    @DisplayName("Should return null when the envelope carries no payload")
+    void read_NullPayload_ReturnsNull() throws JsonProcessingException {
+        assertThat(decoder.decode("{\"schema\":" + SCHEMA + ",\"payload\":null}",
+                TripMessage.class)).isNull();
+        assertThat(decoder.decode("{}", TripMessage.class)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a payload string that is not JSON")
+    void read_MalformedPayload_Throws() {
+        assertThatThrownBy(() -> decoder.decode("{\"payload\":\"not json\"}", TripMessage.class))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+
+    private static void assertCompletedTrip(TripMessage message) {
+        assertThat(message.getEventType()).isEqualTo(TripEventTypes.TRIP_COMPLETED);
+        assertThat(message.getTripId()).isEqualTo(TRIP_ID);
+        assertThat(message.getCreatedAt()).isEqualTo(Instant.parse("2026-10-16T08:30:00Z"));
+        assertThat(message.getFare()).isEqualByComparingTo(new BigDecimal("45.75"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.alpeerkaraca.common.event;
+
+import com.alpeerkaraca.common.model.TripEventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OutboxEventDecoder Tests")
+class OutboxEventDecoderTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final OutboxEventDecoder decoder = new OutboxEventDecoder(objectMapper);
+
+    @Test
+    @DisplayName("Should decode each message with the reader of its event type")
+    void decode_MixedEventTypes_BindsEachType() throws JsonProcessingException {
+        UUID tripId = UUID.randomUUID();
+        String trip = "{\"eventType\":\"TRIP_STARTED\",\"tripId\":\"" + tripId + "\"}";
+        String payment = "{\"schema\":{\"type\":\"string\"},\"payload\":"
+                + objectMapper.writeValueAsString("{\"tripId\":\"" + tripId + "\",\"amount\":12.50}") + "}";
+
+        TripMessage tripMessage = decoder.decode(trip, TripMessage.class);
+        PaymentMessage paymentMessage = decoder.decode(payment, PaymentMessage.class);
+
+        assertThat(tripMessage.getEventType()).isEqualTo(TripEventTypes.TRIP_STARTED);
+        assertThat(tripMessage.getTripId()).isEqualTo(tripId);
+        assertThat(paymentMessage.getTripId()).isEqualTo(tripId);
+        assertThat(paymentMessage.getAmount()).isEqualByComparingTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    @DisplayName("Should decode event types it has no reader for yet")
+    void decode_UnregisteredType_CreatesReader() throws JsonProcessingException {
+        Registration first = decoder.decode("{\"payload\":{\"email\":\"a@karga.dev\"}}", Registration.class);
+        Registration second = decoder.decode("{\"email\":\"b@karga.dev\"}", Registration.class);
+
+        assertThat(first.email()).isEqualTo("a@karga.dev");
+        assertThat(second.email()).isEqualTo("b@karga.dev");
+    }
+
+    @Test
+    @DisplayName("Should return null for an envelope without payload")
+    void decode_NoPayload_ReturnsNull() throws JsonProcessingException {
+        assertThat(decoder.decode("{\"payload\":\"null\"}", TripMessage.class)).isNull();
+    }
+
+    record Registration(String email) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.alpeerkaraca.common.event.codec;
+
+import com.alpeerkaraca.common.event.DriverLocationMessage;
+import com.alpeerkaraca.common.event.PaymentMessage;
+import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.model.TripEventTypes;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Binary event codec Tests")
+class BinaryEventCodecTest {
+
+    private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+    private final BinaryEventDeserializer deserializer = new BinaryEventDeserializer();
+
+    @Test
+    @DisplayName("Should round-trip a trip event in fewer bytes than JSON")
+    void serialize_TripMessage_RoundTrips() {
+        TripMessage event = TripMessage.builder()
+                .eventType(TripEventTypes.TRIP_COMPLETED)
+                .tripId(UUID.randomUUID())
+                .driverId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .createdAt(Instant.parse("2026-10-16T20:44:16.123456Z"))
+                .fare(new BigDecimal("45.75"))
+                .currentLatitude(41.0082376)
+                .currentLongitude(28.9783589)
+                .build();
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("trip_events", headers, event);
+
+        assertThat(deserializer.deserialize("trip_events", headers, bytes)).isEqualTo(event);
+        try (JsonSerializer<Object> json = new JsonSerializer<>()) {
+            assertThat(bytes.length).isLessThan(json.serialize("trip_events", event).length / 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should round-trip a payment event with null fields")
+    void serialize_PaymentMessageWithNulls_RoundTrips() {
+        PaymentMessage event = PaymentMessage.builder()
+                .paymentId("pi_3Q0kQy2eZvKYlo2C1h8a9b7c")
+                .tripId(UUID.randomUUID())
+                .amount(new BigDecimal("-0.001"))
+                .eventType(TripEventTypes.PAYMENT_FAILED)
+                .failureReason("card_declined: ödeme reddedildi")
+                .build();
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("payment_events", headers, event);
+
+        assertThat(deserializer.deserialize("payment_events", headers, bytes)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should keep location coordinates to 1e-7 degrees and timestamps to the microsecond")
+    void serialize_DriverLocation_FixedPointCoordinates() {
+        Timestamp timestamp = Timestamp.from(Instant.parse("2026-10-16T20:44:16.123456789Z"));
+        DriverLocationMessage event = new DriverLocationMessage(UUID.randomUUID(), -33.86881971, 151.20929931, timestamp);
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("driver_location_updates", headers, event);
+        DriverLocationMessage decoded = (DriverLocationMessage) deserializer.deserialize("driver_location_updates", headers, bytes);
+
+        assertThat(bytes).hasSize(17 + 4 + 4 + 9);
+        assertThat(decoded.driverId()).isEqualTo(event.driverId());
+        assertThat(decoded.latitude()).isEqualTo(-33.8688197);
+        assertThat(decoded.longitude()).isEqualTo(151.2092993);
+        assertThat(decoded.timestamp().toInstant()).isEqualTo(Instant.parse("2026-10-16T20:44:16.123456Z"));
+    }
+
+    @Test
+    @DisplayName("Should leave values without a codec and records without the binary content type to the fallbacks")
+    void serialize_NoCodec_UsesFallback() {
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("user_events", headers, Map.of("a", 1));
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("{\"a\":1}");
+        assertThat(headers.lastHeader(EventCodecs.CONTENT_TYPE_HEADER)).isNull();
+        assertThat(deserializer.deserialize("trip_events", new RecordHeaders(), "{\"a\":1}".getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("{\"a\":1}");
+    }
+
+    @Test
+    @DisplayName("Should reject a binary value whose schema fingerprint no codec has")
+    void deserialize_UnknownFingerprint_Throws() {
+        Headers headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize("trip_events", headers, TripMessage.builder().build());
+        headers.remove(EventCodecs.FINGERPRINT_HEADER);
+        headers.add(EventCodecs.FINGERPRINT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(42L).array());
+
+        assertThatThrownBy(() -> deserializer.deserialize("trip_events", headers, bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("2a");
+    }
+
+    @Test
+    @DisplayName("Should give each schema its own stable fingerprint")
+    void fingerprint_DifferentSchemas_Differ() {
+        List<Long> fingerprints = List.of(
+                new TripMessageCodec().fingerprint(),
+                new PaymentMessageCodec().fingerprint(),
+                new DriverLocationMessageCodec().fingerprint());
+
+        assertThat(fingerprints).doesNotHaveDuplicates();
+        assertThat(new TripMessageCodec().fingerprint()).isEqualTo(new TripMessageCodec().fingerprint());
+        assertThat(EventCodecs.fromConfig(Map.of(EventCodecs.CODEC_CLASSES_CONFIG, DriverLocationMessageCodec.class.getName()))
+                .forFingerprint(fingerprints.get(2))).isInstanceOf(DriverLocationMessageCodec.class);
+    }
+}
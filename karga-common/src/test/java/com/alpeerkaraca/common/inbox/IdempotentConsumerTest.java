@@ -0,0 +1,162 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.model.BaseInboxEntity;
+import com.alpeerkaraca.common.model.InboxStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotentConsumer Tests")
+class IdempotentConsumerTest {
+
+    @Mock
+    private InboxRepository<BaseInboxEntity> inboxRepository;
+
+    private TestConsumer consumer;
+    private final AtomicInteger handled = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        consumer = new TestConsumer(inboxRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run the handler once the message id is claimed")
+    void consumeOnce_FirstDelivery_RunsHandler() {
+        when(inboxRepository.claim(eq("msg-1"), eq("TripCompleted"), any())).thenReturn(1);
+
+        assertThat(consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet)).isTrue();
+
+        assertThat(handled).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should claim a UUIDv7 message id under the day it was generated on")
+    void consumeOnce_TimeOrderedId_ClaimsWithMessageDay() {
+        Instant created = Instant.parse("2026-10-14T23:59:59Z");
+        String messageId = new UUID((created.toEpochMilli() << 16) | 0x7000L, 0x8000_0000_0000_0001L).toString();
+        when(inboxRepository.claim(messageId, "TripCompleted", LocalDate.of(2026, 10, 14))).thenReturn(1);
+
+        assertThat(consumer.consumeOnce(messageId, "TripCompleted", handled::incrementAndGet)).isTrue();
+
+        verify(inboxRepository).claim(messageId, "TripCompleted", LocalDate.of(2026, 10, 14));
+    }
+
+    @Test
+    @DisplayName("Should skip the handler when the claim finds an existing row")
+    void consumeOnce_AlreadyClaimed_SkipsHandler() {
+        when(inboxRepository.claim(eq("msg-1"), eq("TripCompleted"), any())).thenReturn(0);
+
+        assertThat(consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet)).isFalse();
+
+        assertThat(handled).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should drop a redelivery of a recent message without touching the database")
+    void consumeOnce_RecentRedelivery_SkipsClaim() {
+        when(inboxRepository.claim(eq("msg-1"), eq("TripCompleted"), any())).thenReturn(1);
+        consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet);
+
+        assertThat(consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet)).isFalse();
+
+        assertThat(handled).hasValue(1);
+        verify(inboxRepository, times(1)).claim(eq("msg-1"), eq("TripCompleted"), any());
+    }
+
+    @Test
+    @DisplayName("Should remember a message id only after the transaction commits")
+    void consumeOnce_InTransaction_RemembersAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(inboxRepository.claim(eq("msg-1"), eq("TripCompleted"), any())).thenReturn(1);
+
+        consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet);
+        consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet);
+        verify(inboxRepository, times(2)).claim(eq("msg-1"), eq("TripCompleted"), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet);
+        verify(inboxRepository, times(2)).claim(eq("msg-1"), eq("TripCompleted"), any());
+    }
+
+    @Test
+    @DisplayName("Should propagate handler failures and not remember the message")
+    void consumeOnce_HandlerThrows_Propagates() {
+        when(inboxRepository.claim(eq("msg-1"), eq("TripCompleted"), any())).thenReturn(1);
+
+        assertThatThrownBy(() -> consumer.consumeOnce("msg-1", "TripCompleted", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        consumer.consumeOnce("msg-1", "TripCompleted", handled::incrementAndGet);
+        verify(inboxRepository, times(2)).claim(eq("msg-1"), eq("TripCompleted"), any());
+    }
+
+    @Test
+    @DisplayName("Should handle messages without an id on every delivery")
+    void consumeOnce_NoMessageId_AlwaysRunsHandler() {
+        consumer.consumeOnce(null, "ProfileCreated", handled::incrementAndGet);
+        consumer.consumeOnce(null, "ProfileCreated", handled::incrementAndGet);
+        consumer.markFailed(null);
+
+        assertThat(handled).hasValue(2);
+        verifyNoInteractions(inboxRepository);
+    }
+
+    @Test
+    @DisplayName("Should mark a claimed message as failed")
+    void markFailed_ClaimedMessage_UpdatesStatus() {
+        consumer.markFailed("msg-1");
+
+        verify(inboxRepository).updateStatus("msg-1", InboxStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should forget the oldest ids beyond its capacity")
+    void recentMessageIds_OverCapacity_EvictsOldest() {
+        RecentMessageIds ids = new RecentMessageIds(2);
+        ids.add("a");
+        ids.add("b");
+        ids.add("c");
+
+        assertThat(ids.contains("a")).isFalse();
+        assertThat(ids.contains("b")).isTrue();
+        assertThat(ids.contains("c")).isTrue();
+    }
+
+    private static final class TestConsumer extends IdempotentConsumer {
+        private final InboxRepository<BaseInboxEntity> inboxRepository;
+
+        private TestConsumer(InboxRepository<BaseInboxEntity> inboxRepository) {
+            this.inboxRepository = inboxRepository;
+        }
+
+        @Override
+        protected InboxRepository<?> inboxRepository() {
+            return inboxRepository;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.model.BaseInboxEntity;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InboxBatchClaimer Tests")
+class InboxBatchClaimerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TestInboxRepository inboxRepository;
+
+    private InboxBatchClaimer claimer;
+
+    @BeforeEach
+    void setUp() {
+        claimer = new InboxBatchClaimer(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should drop processed and repeated ids and claim the rest in one batch")
+    @SuppressWarnings("unchecked")
+    void claim_MixedBatch_ClaimsFreshMessagesOnly() {
+        when(inboxRepository.findClaimedIds(any())).thenReturn(List.of("m2"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 1}});
+
+        List<Message> claimed = claimer.claim(inboxRepository, List.of(
+                new Message("m1", "TRIP_STARTED"),
+                new Message("m2", "TRIP_STARTED"),
+                new Message("m1", "TRIP_STARTED"),
+                new Message("m3", "TRIP_COMPLETED")), Message::id, Message::type);
+
+        assertThat(claimed).extracting(Message::id).containsExactly("m1", "m3");
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(inboxRepository).findClaimedIds(ids.capture());
+        assertThat(ids.getValue()).containsExactly("m1", "m2", "m3");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<Message>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), rows.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(sql.getValue()).startsWith("INSERT INTO test_inbox ").contains("message_day", "NOT EXISTS",
+                "ON CONFLICT DO NOTHING");
+        assertThat(rows.getValue()).extracting(Message::id).containsExactly("m1", "m3");
+    }
+
+    @Test
+    @DisplayName("Should drop a message whose claim lost to a concurrent one")
+    @SuppressWarnings("unchecked")
+    void claim_InsertFindsClaim_DropsMessage() {
+        when(inboxRepository.findClaimedIds(any())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0, 1}});
+
+        List<Message> claimed = claimer.claim(inboxRepository, List.of(
+                new Message("m1", "TRIP_STARTED"), new Message("m2", "TRIP_STARTED")), Message::id, Message::type);
+
+        assertThat(claimed).extracting(Message::id).containsExactly("m2");
+    }
+
+    @Test
+    @DisplayName("Should pass messages without id through without touching the inbox")
+    void claim_NoMessageIds_ReturnsAll() {
+        List<Message> claimed = claimer.claim(inboxRepository, List.of(
+                new Message(null, "TRIP_STARTED"), new Message(null, "TRIP_COMPLETED")), Message::id, Message::type);
+
+        assertThat(claimed).hasSize(2);
+        verifyNoInteractions(inboxRepository, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should resolve the inbox entity behind a repository proxy")
+    void inboxEntity_RepositoryMock_ResolvesEntity() {
+        assertThat(InboxBatchClaimer.inboxEntity(inboxRepository.getClass())).isEqualTo(TestInbox.class);
+    }
+
+    record Message(String id, String type) {
+    }
+
+    @Table(name = "test_inbox")
+    static class TestInbox extends BaseInboxEntity {
+    }
+
+    interface TestInboxRepository extends InboxRepository<TestInbox> {
+    }
+}
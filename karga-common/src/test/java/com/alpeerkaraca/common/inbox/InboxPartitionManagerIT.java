@@ -0,0 +1,126 @@
+package com.alpeerkaraca.common.inbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@DisplayName("InboxPartitionManager Integration Tests")
+class InboxPartitionManagerIT {
+
+    private static final String TABLE = "test_inbox";
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 16);
+    private static final String CLAIM = "INSERT INTO test_inbox (message_id, event_type, status, processed_at, "
+            + "message_day) VALUES (?, 'TripCompleted', 0, now(), ?) ON CONFLICT DO NOTHING";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry meterRegistry;
+    private InboxPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(postgres.getJdbcUrl());
+        dataSource.setUser(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS test_inbox CASCADE");
+        // The table as Hibernate creates it for a BaseInboxEntity subclass.
+        jdbc.execute("CREATE TABLE test_inbox (message_id varchar(255) PRIMARY KEY, event_type varchar(255), "
+                + "status smallint, processed_at timestamp(6) with time zone, message_day date)");
+        meterRegistry = new SimpleMeterRegistry();
+        manager = manager(dataSource, false);
+    }
+
+    @Test
+    @DisplayName("Should convert an empty table at startup into legacy, default and daily partitions")
+    void maintain_EmptyTable_PartitionsIt() {
+        assertThat(manager.maintain(true, TODAY)).isTrue();
+
+        assertThat(partitions()).containsExactlyInAnyOrder("test_inbox_before_20261017", "test_inbox_default",
+                "test_inbox_p20261017", "test_inbox_p20261018", "test_inbox_p20261019");
+        assertThat(meterRegistry.get("inbox.partitions.created").tag("table", TABLE).counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should leave a table that holds rows unpartitioned unless conversion is enabled")
+    void maintain_TableWithRows_ConvertsOnlyWhenEnabled() {
+        jdbc.update(CLAIM, "m1", Date.valueOf(TODAY));
+
+        manager.maintain(true, TODAY);
+        assertThat(partitions()).isEmpty();
+
+        manager(jdbc.getDataSource(), true).maintain(true, TODAY);
+        assertThat(partitions()).contains("test_inbox_before_20261017", "test_inbox_default");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM test_inbox_before_20261017", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a second claim of a message with a unique key on the message id and day")
+    void claim_SameMessageTwice_ConflictsAcrossPartitionedTable() {
+        manager.maintain(true, TODAY);
+
+        assertThat(jdbc.update(CLAIM, "m1", Date.valueOf(TODAY.plusDays(1)))).isEqualTo(1);
+        assertThat(jdbc.update(CLAIM, "m1", Date.valueOf(TODAY.plusDays(1)))).isZero();
+        assertThat(jdbc.update(CLAIM, "m2", Date.valueOf(TODAY.plusDays(30)))).isEqualTo(1);
+        assertThat(jdbc.update(CLAIM, "m2", Date.valueOf(TODAY.plusDays(30)))).isZero();
+    }
+
+    @Test
+    @DisplayName("Should move rows out of the default partition when their day gets a partition")
+    void maintain_RowsInDefault_MovesThemToNewPartition() {
+        manager.maintain(true, TODAY);
+        jdbc.update(CLAIM, "m1", Date.valueOf(TODAY.plusDays(5)));
+
+        manager.maintain(false, TODAY.plusDays(2));
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM test_inbox_p20261021", Long.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM test_inbox_default", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should detach and drop expired partitions and prune the default partition")
+    void maintain_PastRetention_DropsPartitions() {
+        manager.maintain(true, TODAY);
+        jdbc.update(CLAIM, "old", Date.valueOf(TODAY.minusDays(1)));
+
+        manager.maintain(false, TODAY.plusDays(12));
+
+        assertThat(partitions()).containsExactlyInAnyOrder("test_inbox_default", "test_inbox_p20261028",
+                "test_inbox_p20261029", "test_inbox_p20261030", "test_inbox_p20261031");
+        assertThat(jdbc.queryForObject("SELECT to_regclass('test_inbox_p20261017') IS NULL", Boolean.class)).isTrue();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM test_inbox", Long.class)).isZero();
+        assertThat(meterRegistry.get("inbox.partitions.dropped").tag("table", TABLE).counter().count()).isEqualTo(4);
+
+        jdbc.update(CLAIM, "late", Date.valueOf(LocalDate.of(2026, 10, 22)));
+        manager.maintain(false, LocalDate.of(2026, 10, 30));
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM test_inbox_default", Long.class)).isZero();
+    }
+
+    private InboxPartitionManager manager(DataSource dataSource, boolean convertExisting) {
+        return new InboxPartitionManager(dataSource, List.of(TABLE), meterRegistry, true, convertExisting, 7, 3,
+                3_600_000, 5_000);
+    }
+
+    private List<String> partitions() {
+        return jdbc.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'test_inbox'::regclass", String.class);
+    }
+}
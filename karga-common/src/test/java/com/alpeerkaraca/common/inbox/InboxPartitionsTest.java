@@ -0,0 +1,77 @@
+package com.alpeerkaraca.common.inbox;
+
+import com.alpeerkaraca.common.persistence.TimeOrderedUuid;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InboxPartitions Tests")
+class InboxPartitionsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 16);
+
+    @Test
+    @DisplayName("Should read the upper bound of daily and legacy partitions from their names")
+    void upperBound_ManagedPartitions_ParsesName() {
+        assertThat(InboxPartitions.upperBound("trip_inbox", "trip_inbox_p20261016")).isEqualTo(TODAY.plusDays(1));
+        assertThat(InboxPartitions.upperBound("trip_inbox", "trip_inbox_before_20261016")).isEqualTo(TODAY);
+        assertThat(InboxPartitions.upperBound("trip_inbox", "trip_inbox_archive")).isNull();
+        assertThat(InboxPartitions.upperBound("trip_inbox", "trip_inbox_x_p20261016")).isNull();
+        assertThat(InboxPartitions.upperBound("trip_inbox", InboxPartitions.defaultName("trip_inbox"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should create today and the days ahead that have no partition yet")
+    void missingDays_SomeExisting_ReturnsGaps() {
+        List<LocalDate> missing = InboxPartitions.missingDays("trip_inbox",
+                List.of("trip_inbox_p20261016", "trip_inbox_p20261018"), TODAY, 3);
+
+        assertThat(missing).containsExactly(LocalDate.of(2026, 10, 17), LocalDate.of(2026, 10, 19));
+    }
+
+    @Test
+    @DisplayName("Should not create partitions for days the legacy partition still covers")
+    void missingDays_LegacyPartition_SkipsCoveredDays() {
+        List<LocalDate> missing = InboxPartitions.missingDays("trip_inbox",
+                List.of("trip_inbox_before_20261017"), TODAY, 2);
+
+        assertThat(missing).containsExactly(LocalDate.of(2026, 10, 17), LocalDate.of(2026, 10, 18));
+    }
+
+    @Test
+    @DisplayName("Should expire only partitions whose rows are all older than the cutoff")
+    void expired_MixedPartitions_ReturnsOldOnes() {
+        List<String> expired = InboxPartitions.expired("trip_inbox", List.of(
+                "trip_inbox_p20261008", "trip_inbox_p20261009", "trip_inbox_p20261010",
+                "trip_inbox_before_20261005", "unrelated_p20200101"), LocalDate.of(2026, 10, 10));
+
+        assertThat(expired).containsExactly("trip_inbox_before_20261005", "trip_inbox_p20261008",
+                "trip_inbox_p20261009");
+    }
+
+    @Test
+    @DisplayName("Should render day bounds as date literals")
+    void bound_Day_IsDateLiteral() {
+        assertThat(InboxPartitions.bound(TODAY)).isEqualTo("'2026-10-16'");
+    }
+
+    @Test
+    @DisplayName("Should key a UUIDv7 message by the UTC day in its id, and other ids by today")
+    void messageDay_Ids_UseTimestampOrToday() {
+        Instant created = Instant.parse("2026-10-14T23:59:59Z");
+        UUID timeOrdered = new UUID((created.toEpochMilli() << 16) | 0x7000L, 0x8000_0000_0000_0001L);
+
+        assertThat(InboxPartitions.messageDay(timeOrdered.toString())).isEqualTo(LocalDate.of(2026, 10, 14));
+        assertThat(InboxPartitions.messageDay(TimeOrderedUuid.next().toString()))
+                .isEqualTo(LocalDate.now(ZoneOffset.UTC));
+        assertThat(InboxPartitions.messageDay(UUID.randomUUID().toString())).isEqualTo(LocalDate.now(ZoneOffset.UTC));
+        assertThat(InboxPartitions.messageDay("msg-1")).isEqualTo(LocalDate.now(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,63 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchKafkaConfig Tests")
+class BatchKafkaConfigTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("trip_events", 0);
+
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+
+    @Mock
+    private Consumer<String, String> consumer;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @Test
+    @DisplayName("Should retry a failing batch and then dead-letter every record of it")
+    void errorHandler_BatchKeepsFailing_DeadLettersEveryRecord() {
+        lenient().when(container.isRunning()).thenReturn(true);
+        lenient().when(container.getContainerProperties()).thenReturn(new ContainerProperties("trip_events"));
+        lenient().when(consumer.assignment()).thenReturn(Set.of(PARTITION));
+        ConsumerRecord<String, String> first = new ConsumerRecord<>("trip_events", 0, 10L, "trip-1", "{}");
+        ConsumerRecord<String, String> second = new ConsumerRecord<>("trip_events", 0, 11L, "trip-2", "{}");
+        ConsumerRecords<String, String> records = new ConsumerRecords<>(Map.of(PARTITION, List.of(first, second)));
+        AtomicInteger retries = new AtomicInteger();
+        DefaultErrorHandler errorHandler = BatchKafkaConfig.errorHandler(deadLetterPublisher, 3, 1, 1.0, 1);
+
+        errorHandler.handleBatch(new IllegalStateException("redis down"), records, consumer, container, () -> {
+            retries.incrementAndGet();
+            throw new IllegalStateException("redis down");
+        });
+
+        assertThat(retries).hasValue(2);
+        verify(deadLetterPublisher).publish(eq(first), any());
+        verify(deadLetterPublisher).publish(eq(second), any());
+    }
+}
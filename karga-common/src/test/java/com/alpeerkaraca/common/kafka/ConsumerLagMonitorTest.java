@@ -0,0 +1,123 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConsumerLagMonitor Tests")
+class ConsumerLagMonitorTest {
+
+    private static final String GROUP = "driver-service-group";
+    private static final TopicPartition PARTITION_0 = new TopicPartition("trip_events", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("trip_events", 1);
+
+    @Mock
+    private ObjectProvider<KafkaListenerEndpointRegistry> endpointRegistryProvider;
+
+    @Mock
+    private KafkaListenerEndpointRegistry endpointRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @Mock
+    private Admin admin;
+
+    @Mock
+    private ListConsumerGroupOffsetsResult committedOffsets;
+
+    @Mock
+    private ListOffsetsResult endOffsets;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsumerLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new ConsumerLagMonitor(endpointRegistryProvider, () -> admin, meterRegistry, true, 1000, 1000);
+        when(endpointRegistryProvider.getIfAvailable()).thenReturn(endpointRegistry);
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.getGroupId()).thenReturn(GROUP);
+    }
+
+    @Test
+    @DisplayName("Should export the lag of each assigned partition with a committed offset")
+    void update_AssignedPartitions_ExportsLag() {
+        when(container.getAssignedPartitions()).thenReturn(List.of(PARTITION_0, PARTITION_1));
+        when(admin.listConsumerGroupOffsets(GROUP)).thenReturn(committedOffsets);
+        when(committedOffsets.partitionsToOffsetAndMetadata())
+                .thenReturn(KafkaFuture.completedFuture(Map.of(PARTITION_0, new OffsetAndMetadata(40))));
+        when(admin.listOffsets(anyMap())).thenReturn(endOffsets);
+        when(endOffsets.all()).thenReturn(KafkaFuture.completedFuture(
+                Map.of(PARTITION_0, new ListOffsetsResultInfo(100, -1, Optional.empty()))));
+
+        monitor.update();
+
+        assertThat(meterRegistry.get("kafka.consumer.lag")
+                .tags("group", GROUP, "topic", "trip_events", "partition", "0").gauge().value()).isEqualTo(60);
+        assertThat(meterRegistry.find("kafka.consumer.lag").tag("partition", "1").gauge()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop the gauge of a partition that is no longer assigned")
+    void update_PartitionRevoked_RemovesGauge() {
+        when(container.getAssignedPartitions()).thenReturn(List.of(PARTITION_0), List.of());
+        when(admin.listConsumerGroupOffsets(GROUP)).thenReturn(committedOffsets);
+        when(committedOffsets.partitionsToOffsetAndMetadata())
+                .thenReturn(KafkaFuture.completedFuture(Map.of(PARTITION_0, new OffsetAndMetadata(100))));
+        when(admin.listOffsets(anyMap())).thenReturn(endOffsets);
+        when(endOffsets.all()).thenReturn(KafkaFuture.completedFuture(
+                Map.of(PARTITION_0, new ListOffsetsResultInfo(100, -1, Optional.empty()))));
+
+        monitor.update();
+        assertThat(meterRegistry.get("kafka.consumer.lag").tag("partition", "0").gauge().value()).isZero();
+
+        monitor.update();
+        assertThat(meterRegistry.find("kafka.consumer.lag").gauge()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep the last values of a group whose offsets cannot be read")
+    void update_AdminFails_KeepsLastValue() {
+        when(container.getAssignedPartitions()).thenReturn(List.of(PARTITION_0));
+        when(admin.listConsumerGroupOffsets(GROUP)).thenReturn(committedOffsets);
+        KafkaFuture<Map<TopicPartition, OffsetAndMetadata>> failed = KafkaFuture.completedFuture(null)
+                .thenApply(ignored -> {
+                    throw new IllegalStateException("coordinator unavailable");
+                });
+        when(committedOffsets.partitionsToOffsetAndMetadata())
+                .thenReturn(KafkaFuture.completedFuture(Map.of(PARTITION_0, new OffsetAndMetadata(70))), failed);
+        when(admin.listOffsets(anyMap())).thenReturn(endOffsets);
+        when(endOffsets.all()).thenReturn(KafkaFuture.completedFuture(
+                Map.of(PARTITION_0, new ListOffsetsResultInfo(100, -1, Optional.empty()))));
+
+        monitor.update();
+        monitor.update();
+
+        assertThat(meterRegistry.get("kafka.consumer.lag").tag("partition", "0").gauge().value()).isEqualTo(30);
+    }
+}
@@ -0,0 +1,93 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeadLetterPublisher Tests")
+class DeadLetterPublisherTest {
+
+    @Mock
+    private KafkaOperations<Object, Object> template;
+
+    @Test
+    @DisplayName("Should route a topic and its retry topics to the same dead-letter topic")
+    void deadLetterTopic_MainAndRetryTopics_SameTopic() {
+        assertThat(DeadLetterPublisher.deadLetterTopic("trip_events")).isEqualTo("trip_events-dlt");
+        assertThat(DeadLetterPublisher.deadLetterTopic("trip_events-retry")).isEqualTo("trip_events-dlt");
+        assertThat(DeadLetterPublisher.deadLetterTopic("trip_events-retry-1")).isEqualTo("trip_events-dlt");
+    }
+
+    @Test
+    @DisplayName("Should publish the record unchanged with the exception headers")
+    @SuppressWarnings("unchecked")
+    void publish_FailedRecord_SendsToDeadLetterTopic() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        DeadLetterPublisher publisher = new DeadLetterPublisher(template);
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("trip_events-retry-1", 2, 42L, "trip-1", "{\"a\":1}");
+
+        publisher.publish(record, new IllegalStateException("database down"));
+
+        ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template).send(sent.capture());
+        assertThat(sent.getValue().topic()).isEqualTo("trip_events-dlt");
+        assertThat(sent.getValue().key()).isEqualTo("trip-1");
+        assertThat(sent.getValue().value()).isEqualTo("{\"a\":1}");
+        assertThat(new String(sent.getValue().headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(),
+                StandardCharsets.UTF_8)).isEqualTo("trip_events-retry-1");
+        assertThat(new String(sent.getValue().headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE).value(),
+                StandardCharsets.UTF_8)).contains("database down");
+    }
+
+    @Test
+    @DisplayName("Should hold a dead letter back until the transaction commits")
+    @SuppressWarnings("unchecked")
+    void publishAfterCommit_InTransaction_PublishesOnCommit() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        DeadLetterPublisher publisher = new DeadLetterPublisher(template);
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("trip_events", 0, 7L, "trip-1", "BROKEN");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publishAfterCommit(record, new IllegalArgumentException("unreadable"));
+
+            verify(template, never()).send(any(ProducerRecord.class));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(template).send(any(ProducerRecord.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should forward strings and bytes as they are and objects as JSON")
+    void forwardingSerializer_ByType_KeepsWireFormat() {
+        try (ForwardingSerializer serializer = new ForwardingSerializer()) {
+            assertThat(serializer.serialize("trip_events", "{\"a\":1}"))
+                    .isEqualTo("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+            assertThat(serializer.serialize("trip_events", new byte[]{1, 2})).containsExactly(1, 2);
+            assertThat(new String(serializer.serialize("trip_events", Map.of("a", 1)), StandardCharsets.UTF_8))
+                    .isEqualTo("{\"a\":1}");
+            assertThat(serializer.serialize("trip_events", null)).isNull();
+        }
+    }
+}
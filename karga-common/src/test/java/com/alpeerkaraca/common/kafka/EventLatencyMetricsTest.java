@@ -0,0 +1,93 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventLatencyMetrics Tests")
+class EventLatencyMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventLatencyMetrics metrics = new EventLatencyMetrics(meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        KafkaUtils.clearConsumerGroupId();
+    }
+
+    @Test
+    @DisplayName("Should time a record from its createdAt header, tagged with topic, event type and main group")
+    void record_CreatedAtHeader_RecordsLatency() {
+        KafkaUtils.setConsumerGroupId("payment-service-group-retry-0");
+        Instant createdAt = Instant.now().minusSeconds(2);
+        ConsumerRecord<Object, Object> record = record("trip_events-retry-0", -1L,
+                "TRIP_COMPLETED", createdAt.toString());
+
+        metrics.record(record);
+
+        Timer timer = meterRegistry.get("kafka.event.latency")
+                .tags("topic", "trip_events-retry-0", "eventType", "TRIP_COMPLETED", "group", "payment-service-group")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isBetween(2000.0, 60_000.0);
+    }
+
+    @Test
+    @DisplayName("Should read Debezium's zoned timestamps and epoch microseconds")
+    void createdAt_ConnectorFormats_Parsed() {
+        Instant createdAt = Instant.parse("2025-03-01T10:15:30.123456Z");
+
+        assertThat(EventLatencyMetrics.createdAt(record("trip_events", -1L, null, "2025-03-01T13:15:30.123456+03:00")))
+                .isEqualTo(createdAt);
+        assertThat(EventLatencyMetrics.createdAt(record("trip_events", -1L, null,
+                String.valueOf(ChronoUnit.MICROS.between(Instant.EPOCH, createdAt)))))
+                .isEqualTo(createdAt);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the producer timestamp without a readable header")
+    void createdAt_NoHeader_UsesRecordTimestamp() {
+        long timestamp = Instant.parse("2025-03-01T10:15:30Z").toEpochMilli();
+
+        assertThat(EventLatencyMetrics.createdAt(record("driver_location_updates", timestamp, null, null)))
+                .isEqualTo(Instant.ofEpochMilli(timestamp));
+        assertThat(EventLatencyMetrics.createdAt(record("driver_location_updates", timestamp, null, "yesterday")))
+                .isEqualTo(Instant.ofEpochMilli(timestamp));
+    }
+
+    @Test
+    @DisplayName("Should skip a record without any creation time")
+    void record_NoCreationTime_RecordsNothing() {
+        metrics.record(record("trip_events", -1L, "TRIP_REQUESTED", null));
+
+        assertThat(meterRegistry.find("kafka.event.latency").timer()).isNull();
+    }
+
+    private static ConsumerRecord<Object, Object> record(String topic, long timestamp, String eventType,
+                                                         String createdAt) {
+        RecordHeaders headers = new RecordHeaders();
+        if (eventType != null) {
+            headers.add("eventType", eventType.getBytes(StandardCharsets.UTF_8));
+        }
+        if (createdAt != null) {
+            headers.add(EventLatencyMetrics.CREATED_AT_HEADER, createdAt.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ConsumerRecord<>(topic, 0, 0L, timestamp,
+                timestamp < 0 ? TimestampType.NO_TIMESTAMP_TYPE : TimestampType.CREATE_TIME,
+                -1, -1, "trip-1", "{}", headers, Optional.empty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.alpeerkaraca.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("EventTypeFilter Tests")
+class EventTypeFilterTest {
+
+    private final EventTypeFilter filter = new EventTypeFilter(List.of("TRIP_COMPLETED"));
+
+    @Test
+    @DisplayName("Should keep accepted event types and discard the others")
+    void filter_ByEventTypeHeader_DiscardsOtherTypes() {
+        assertThat(filter.filter(record("TRIP_COMPLETED"))).isFalse();
+        assertThat(filter.filter(record("TRIP_STARTED"))).isTrue();
+        assertThat(filter.filter(record("TRIP_COMPLETED_LATE"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep records without an eventType header, and every record without accepted types")
+    void filter_NoHeaderOrNoTypes_KeepsRecord() {
+        assertThat(filter.filter(record(null))).isFalse();
+
+        EventTypeFilter acceptAll = new EventTypeFilter(List.of(""));
+        assertThat(acceptAll.acceptsAll()).isTrue();
+        assertThat(acceptAll.filter(record("TRIP_STARTED"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not hand the payload of a discarded record to the delegate deserializer")
+    @SuppressWarnings("unchecked")
+    void deserialize_DiscardedType_SkipsDelegate() {
+        Deserializer<Object> delegate = mock(Deserializer.class);
+        when(delegate.deserialize(any(), any(Headers.class), any(byte[].class))).thenReturn("decoded");
+        EventTypeFilteringDeserializer<Object> deserializer = new EventTypeFilteringDeserializer<>(filter, delegate);
+        byte[] payload = "{}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(deserializer.deserialize("trip_events", record("TRIP_STARTED").headers(), payload)).isNull();
+        verify(delegate, never()).deserialize(any(), any(Headers.class), any(byte[].class));
+
+        assertThat(deserializer.deserialize("trip_events", record("TRIP_COMPLETED").headers(), payload))
+                .isEqualTo("decoded");
+    }
+
+    private static ConsumerRecord<Object, Object> record(String eventType) {
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>("trip_events", 0, 0L, "trip-1", "{}");
+        if (eventType != null) {
+            record.headers().add(EventTypeFilter.EVENT_TYPE_HEADER, eventType.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
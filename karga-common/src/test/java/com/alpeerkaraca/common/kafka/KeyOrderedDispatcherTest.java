@@ -0,0 +1,164 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("KeyOrderedDispatcher Tests")
+class KeyOrderedDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeadLetterPublisher deadLetterPublisher = mock(DeadLetterPublisher.class);
+    private KeyOrderedDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run the handler on the listener thread and acknowledge when the mode is off")
+    void dispatch_Disabled_RunsInline() {
+        dispatcher = new KeyOrderedDispatcher(null, deadLetterPublisher, meterRegistry, false, 8, 3, 0);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch(record("trip-1"), acknowledgment, () -> threads.add(Thread.currentThread()));
+
+        assertThat(threads).containsExactly(Thread.currentThread());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @DisplayName("Should keep the order of a key while other keys go ahead")
+    void dispatch_SlowKey_OtherKeysNotBlocked() throws InterruptedException {
+        dispatcher = new KeyOrderedDispatcher(null, deadLetterPublisher, meterRegistry, true, 8, 3, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        Acknowledgment other = mock(Acknowledgment.class);
+
+        dispatcher.dispatch(record("trip-1"), first, () -> {
+            await(release);
+            processed.add("trip-1:1");
+        });
+        dispatcher.dispatch(record("trip-1"), second, () -> processed.add("trip-1:2"));
+        dispatcher.dispatch(record("trip-2"), other, () -> processed.add("trip-2:1"));
+
+        verify(other, timeout(1_000)).acknowledge();
+        assertThat(processed).containsExactly("trip-2:1");
+        verify(second, never()).acknowledge();
+
+        release.countDown();
+        verify(second, timeout(1_000)).acknowledge();
+        verify(first).acknowledge();
+        assertThat(processed).containsExactly("trip-2:1", "trip-1:1", "trip-1:2");
+    }
+
+    @Test
+    @DisplayName("Should retry a failing record, then dead-letter and acknowledge it")
+    void dispatch_HandlerKeepsFailing_DeadLettersAfterMaxAttempts() {
+        dispatcher = new KeyOrderedDispatcher(null, deadLetterPublisher, meterRegistry, true, 8, 3, 0);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        ConsumerRecord<String, String> record = record("trip-1");
+        IllegalStateException failure = new IllegalStateException("database down");
+        AtomicInteger attempts = new AtomicInteger();
+
+        dispatcher.dispatch(record, acknowledgment, () -> {
+            attempts.incrementAndGet();
+            throw failure;
+        });
+
+        verify(acknowledgment, timeout(1_000)).acknowledge();
+        assertThat(attempts).hasValue(3);
+        verify(deadLetterPublisher).publish(same(record), same(failure));
+        assertThat(meterRegistry.counter("kafka.key-ordered.dead-lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an unreadable record without retrying it")
+    void dispatch_IllegalArgument_DeadLettersAtOnce() {
+        dispatcher = new KeyOrderedDispatcher(null, deadLetterPublisher, meterRegistry, true, 8, 3, 0);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        dispatcher.dispatch(record("trip-1"), acknowledgment, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Unreadable trip event");
+        });
+
+        verify(acknowledgment, timeout(1_000)).acknowledge();
+        assertThat(attempts).hasValue(1);
+        verify(deadLetterPublisher).publish(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should leave a record unacknowledged when the dead-letter topic does not take it")
+    void dispatch_DeadLetterFails_DoesNotAcknowledge() throws InterruptedException {
+        dispatcher = new KeyOrderedDispatcher(null, deadLetterPublisher, meterRegistry, true, 8, 1, 0);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        doThrow(new KafkaException("broker down")).when(deadLetterPublisher).publish(any(), any());
+
+        dispatcher.dispatch(record("trip-1"), acknowledgment, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        verify(deadLetterPublisher, timeout(1_000)).publish(any(), any());
+        dispatcher.stop();
+        verify(acknowledgment, never()).acknowledge();
+        assertThat(meterRegistry.counter("kafka.key-ordered.dead-lettered").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should acknowledge a record whose handler succeeds on a retry")
+    void dispatch_HandlerFailsOnce_Retries() {
+        dispatcher = new KeyOrderedDispatcher(null, deadLetterPublisher, meterRegistry, true, 8, 3, 0);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        dispatcher.dispatch(record(null), acknowledgment, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("deadlock");
+            }
+        });
+
+        verify(acknowledgment, timeout(1_000)).acknowledge();
+        assertThat(attempts).hasValue(2);
+        verify(deadLetterPublisher, never()).publish(any(), any());
+    }
+
+    private static ConsumerRecord<String, String> record(String key) {
+        return new ConsumerRecord<>("trip_events", 0, 0L, key, "{}");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.alpeerkaraca.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaUtils;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RetryMetricsInterceptor Tests")
+class RetryMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryMetricsInterceptor interceptor = new RetryMetricsInterceptor(meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        KafkaUtils.clearConsumerGroupId();
+    }
+
+    @Test
+    @DisplayName("Should count a retry delivery and its depth under the main listener's group")
+    void intercept_RetryTopic_RecordsDepth() {
+        KafkaUtils.setConsumerGroupId("driver-service-retry-1");
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>("trip_events-retry-1", 0, 0L, "trip-1", "{}");
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(3).array());
+
+        assertThat(interceptor.intercept(record, null)).isSameAs(record);
+
+        assertThat(meterRegistry.get("kafka.retry.deliveries")
+                .tags("listener", "driver-service", "topic", "trip_events-retry-1").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("kafka.retry.depth").tags("listener", "driver-service").summary().max())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should count a record arriving in a dead-letter topic")
+    void intercept_DeadLetterTopic_CountsRecord() {
+        KafkaUtils.setConsumerGroupId("payment-service-dlt");
+
+        interceptor.intercept(new ConsumerRecord<>("trip_events-dlt", 0, 0L, "trip-1", "{}"), null);
+
+        assertThat(meterRegistry.get("kafka.dlt.records")
+                .tags("listener", "payment-service", "topic", "trip_events-dlt").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("kafka.retry.deliveries").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not record anything for a main topic")
+    void intercept_MainTopic_NoMeters() {
+        interceptor.intercept(new ConsumerRecord<>("trip_events", 0, 0L, "trip-1", "{}"), null);
+
+        assertThat(meterRegistry.getMeters()).isEmpty();
+        assertThat(RetryMetricsInterceptor.attempts(new ConsumerRecord<>("trip_events", 0, 0L, null, null))).isEqualTo(1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.alpeerkaraca.common.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    private static final String TABLE = "trip_outbox";
+    private static final String MARK_STATEMENT = "UPDATE trip_outbox SET processed = true WHERE id = ANY(?)";
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private KafkaOperations<Object, Object> kafkaOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(jdbcTemplate, TransactionOperations.withoutTransaction(), kafkaOperations,
+                Map.of(TABLE, "trip_events"), meterRegistry, true, 500, 100, 1000);
+    }
+
+    @Test
+    @DisplayName("Should publish a claimed batch like the connector and mark it in one statement")
+    void relay_ClaimedRows_PublishesAndMarksProcessed() {
+        UUID tripId = UUID.randomUUID();
+        OutboxRelay.OutboxRow requested = row(tripId, "TRIP_REQUESTED");
+        OutboxRelay.OutboxRow completed = row(UUID.randomUUID(), "TRIP_COMPLETED");
+        claims(List.of(requested, completed));
+        when(kafkaOperations.send(ArgumentMatchers.<ProducerRecord<Object, Object>>any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relay(TABLE)).isEqualTo(2);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<Object, Object>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaOperations, times(2)).send(records.capture());
+        ProducerRecord<Object, Object> first = records.getAllValues().getFirst();
+        assertThat(first.topic()).isEqualTo("trip_events");
+        assertThat(first.key()).isEqualTo(tripId.toString());
+        assertThat(first.value()).isEqualTo(requested.payload());
+        assertThat(header(first, "eventType")).isEqualTo("TRIP_REQUESTED");
+        assertThat(header(first, "id")).isEqualTo(requested.id().toString());
+        assertThat(header(first, "aggregateId")).isEqualTo(tripId.toString());
+        assertThat(header(first, "createdAt")).isEqualTo(requested.createdAt().toString());
+        assertThat(header(first, "traceparent")).isEqualTo(TRACEPARENT);
+
+        verify(jdbcTemplate).update(eq(MARK_STATEMENT), any(PreparedStatementSetter.class));
+        assertThat(meterRegistry.get("outbox.relay.batch.size").tag("table", TABLE).summary().totalAmount())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("outbox.relay.lag").tag("table", TABLE).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should leave the batch unmarked when a send fails")
+    void relay_SendFails_ThrowsWithoutMarking() {
+        claims(List.of(row(UUID.randomUUID(), "TRIP_REQUESTED")));
+        when(kafkaOperations.send(ArgumentMatchers.<ProducerRecord<Object, Object>>any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        assertThatThrownBy(() -> relay.relay(TABLE))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(TABLE);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Should count a failed table and carry on")
+    void relayAll_SendFails_CountsFailure() {
+        claims(List.of(row(UUID.randomUUID(), "TRIP_REQUESTED")));
+        when(kafkaOperations.send(ArgumentMatchers.<ProducerRecord<Object, Object>>any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        relay.relay();
+
+        assertThat(meterRegistry.get("outbox.relay.failures").tag("table", TABLE).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no row is claimable")
+    void relay_NothingClaimed_ReturnsZero() {
+        claims(List.of());
+
+        assertThat(relay.relay(TABLE)).isZero();
+
+        verifyNoInteractions(kafkaOperations);
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Should route <name>_outbox to <name>_events unless a topic is configured")
+    void topics_DefaultAndOverride_ResolvesTopics() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("outbox.relay.topics.driver_outbox", "driver_audit");
+
+        assertThat(OutboxRelay.topics(List.of("driver_outbox", "trip_outbox"), environment))
+                .containsExactly(Map.entry("driver_outbox", "driver_audit"), Map.entry("trip_outbox", "trip_events"));
+    }
+
+    @Test
+    @DisplayName("Should only claim rows whose older rows of the same aggregate are published")
+    void claimStatement_SkipsLockedAndWaitsForOlderRows() {
+        String sql = OutboxRelay.claimStatement(TABLE);
+
+        assertThat(sql).contains("FOR UPDATE SKIP LOCKED")
+                .contains("p.aggregate_id = o.aggregate_id AND NOT p.processed")
+                .contains("ORDER BY o.created_at, o.id LIMIT ?");
+    }
+
+    private void claims(List<OutboxRelay.OutboxRow> rows) {
+        when(jdbcTemplate.query(eq(OutboxRelay.claimStatement(TABLE)),
+                ArgumentMatchers.<RowMapper<OutboxRelay.OutboxRow>>any(), eq(500))).thenReturn(rows);
+    }
+
+    private static OutboxRelay.OutboxRow row(UUID aggregateId, String eventType) {
+        return new OutboxRelay.OutboxRow(UUID.randomUUID(), aggregateId.toString(), eventType,
+                "{\"tripId\": \"" + aggregateId + "\"}", Instant.now().minusMillis(50), TRACEPARENT);
+    }
+
+    private static String header(ProducerRecord<Object, Object> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
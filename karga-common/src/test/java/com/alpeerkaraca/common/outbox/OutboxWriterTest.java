@@ -0,0 +1,119 @@
+package com.alpeerkaraca.common.outbox;
+
+import com.alpeerkaraca.common.model.BaseOutboxEntity;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Scope;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxWriter Tests")
+class OutboxWriterTest {
+
+    @Mock
+    private JpaRepository<BaseOutboxEntity, UUID> outboxRepository;
+
+    @Test
+    @DisplayName("Should flush the insert and then delete the row in delete-after-insert mode")
+    void publish_DeleteAfterInsert_InsertsThenDeletes() {
+        BaseOutboxEntity event = BaseOutboxEntity.builder().id(UUID.randomUUID()).eventType("TRIP_COMPLETED").build();
+        when(outboxRepository.save(event)).thenReturn(event);
+
+        new OutboxWriter(OutboxMode.DELETE_AFTER_INSERT).publish(outboxRepository, event);
+
+        InOrder inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository).save(event);
+        inOrder.verify(outboxRepository).flush();
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(event.getId()));
+        verify(outboxRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should delete the rows of a transaction together just before it commits")
+    void publish_DeleteAfterInsertInTransaction_DeletesOnceBeforeCommit() {
+        BaseOutboxEntity first = BaseOutboxEntity.builder().id(UUID.randomUUID()).eventType("TRIP_STARTED").build();
+        BaseOutboxEntity second = BaseOutboxEntity.builder().id(UUID.randomUUID()).eventType("TRIP_COMPLETED").build();
+        when(outboxRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        OutboxWriter writer = new OutboxWriter(OutboxMode.DELETE_AFTER_INSERT);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.publish(outboxRepository, first);
+            writer.publish(outboxRepository, second);
+
+            verify(outboxRepository, never()).flush();
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        InOrder inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository).flush();
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(first.getId(), second.getId()));
+        assertThat(TransactionSynchronizationManager.hasResource(writer)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the row in retain mode")
+    void publish_Retain_OnlySaves() {
+        BaseOutboxEntity event = BaseOutboxEntity.builder().eventType("TRIP_COMPLETED").build();
+
+        new OutboxWriter(OutboxMode.RETAIN).publish(outboxRepository, event);
+
+        verify(outboxRepository).save(event);
+        verifyNoMoreInteractions(outboxRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep the row for the relay in relay mode")
+    void publish_Relay_OnlySaves() {
+        BaseOutboxEntity event = BaseOutboxEntity.builder().eventType("TRIP_COMPLETED").build();
+
+        new OutboxWriter(OutboxMode.RELAY).publish(outboxRepository, event);
+
+        verify(outboxRepository).save(event);
+        verifyNoMoreInteractions(outboxRepository);
+    }
+
+    @Test
+    @DisplayName("Should store the trace context of the current span with the row")
+    void publish_InsideSpan_StoresTraceparent() {
+        BaseOutboxEntity event = BaseOutboxEntity.builder().eventType("TRIP_COMPLETED").build();
+        SpanContext spanContext = SpanContext.create("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7",
+                TraceFlags.getSampled(), TraceState.getDefault());
+
+        try (Scope scope = Span.wrap(spanContext).makeCurrent()) {
+            new OutboxWriter(OutboxMode.RETAIN).publish(outboxRepository, event);
+        }
+
+        assertThat(event.getTraceparent()).isEqualTo("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+    }
+
+    @Test
+    @DisplayName("Should leave the trace context empty outside a span")
+    void publish_NoSpan_NoTraceparent() {
+        BaseOutboxEntity event = BaseOutboxEntity.builder().eventType("TRIP_COMPLETED").build();
+
+        new OutboxWriter(OutboxMode.RETAIN).publish(outboxRepository, event);
+
+        assertThat(event.getTraceparent()).isNull();
+    }
+}
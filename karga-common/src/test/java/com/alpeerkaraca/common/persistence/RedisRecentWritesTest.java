@@ -0,0 +1,73 @@
+package com.alpeerkaraca.common.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisRecentWrites Tests")
+class RedisRecentWritesTest {
+
+    private static final String USER = "123e4567-e89b-12d3-a456-426614174000";
+    private static final String KEY = "replica:recent-write:" + USER;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private RedisRecentWrites recentWrites;
+
+    @BeforeEach
+    void setUp() {
+        recentWrites = new RedisRecentWrites(redisTemplate, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should store the marker with the read-your-writes window as its TTL")
+    void record_SetsMarkerWithWindowTtl() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        recentWrites.record(USER);
+
+        verify(valueOperations).set(KEY, "1", Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should report a write recorded by any instance while its marker exists")
+    void contains_MarkerPresent_ReturnsTrue() {
+        when(redisTemplate.hasKey(KEY)).thenReturn(true, false);
+
+        assertThat(recentWrites.contains(USER)).isTrue();
+        assertThat(recentWrites.contains(USER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep reads on the primary when Redis cannot be reached")
+    void contains_RedisDown_ReturnsTrue() {
+        when(redisTemplate.hasKey(KEY)).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(recentWrites.contains(USER)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not fail the committed transaction when the marker cannot be stored")
+    void record_RedisDown_DoesNotThrow() {
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThatCode(() -> recentWrites.record(USER)).doesNotThrowAnyException();
+    }
+}
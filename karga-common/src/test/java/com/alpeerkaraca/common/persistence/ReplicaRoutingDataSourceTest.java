@@ -0,0 +1,206 @@
+package com.alpeerkaraca.common.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private static final String USER = "123e4567-e89b-12d3-a456-426614174000";
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connection;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private SimpleMeterRegistry meterRegistry;
+    private LocalRecentWrites recentWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recentWrites = new LocalRecentWrites(Duration.ofSeconds(5), clock::get);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, recentWrites, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should send a read-only transaction to the replica")
+    void getConnection_ReadOnlyTransaction_UsesReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(connection);
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+
+        verifyNoInteractions(primary);
+        assertThat(meterRegistry.get("datasource.routing").tags("target", "replica", "reason", "read-only")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should send read-write transactions and work outside a transaction to the primary")
+    void getConnection_NotReadOnly_UsesPrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(connection);
+
+        routingDataSource.readWriteDataSource().getConnection();
+        beginTransaction(false);
+        routingDataSource.readWriteDataSource().getConnection();
+
+        verify(primary, times(2)).getConnection();
+        verifyNoInteractions(replica);
+        assertThat(meterRegistry.get("datasource.routing").tags("target", "primary", "reason", "read-write")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should let the connection proxy send connections marked read-only to the replica")
+    void getConnection_ThroughProxyMarkedReadOnly_UsesReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(connection);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routingDataSource.readWriteDataSource());
+        proxy.setReadOnlyDataSource(routingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+        Connection readOnly = proxy.getConnection();
+        readOnly.setReadOnly(true);
+        readOnly.createStatement();
+
+        verify(replica).getConnection();
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    @DisplayName("Should keep a user's reads on the primary for a while after their write commits")
+    void getConnection_ReadAfterOwnWrite_UsesPrimaryUntilWindowCloses() throws SQLException {
+        when(primary.getConnection()).thenReturn(connection);
+        when(replica.getConnection()).thenReturn(connection);
+        authenticate(USER);
+
+        commitWrite();
+
+        beginTransaction(true);
+        routingDataSource.getConnection();
+        verify(primary, times(2)).getConnection();
+        assertThat(meterRegistry.get("datasource.routing").tags("target", "primary", "reason", "read-your-writes")
+                .counter().count()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofSeconds(5).toMillis());
+        routingDataSource.getConnection();
+        verify(replica).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should not pin a user's reads when their transaction rolls back, nor other users' reads")
+    void getConnection_NoCommittedWriteOfThisUser_UsesReplica() throws SQLException {
+        when(primary.getConnection()).thenReturn(connection);
+        when(replica.getConnection()).thenReturn(connection);
+        authenticate(USER);
+        beginTransaction(false);
+        routingDataSource.readWriteDataSource().getConnection();
+        TransactionSynchronizationManager.clear();
+        recentWrites.record("another-user");
+
+        beginTransaction(true);
+        routingDataSource.getConnection();
+
+        verify(replica).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should look up a user's recent writes at most once per request")
+    void getConnection_SeveralReadsInOneRequest_AsksRecentWritesOnce() throws SQLException {
+        RecentWrites sharedWrites = mock(RecentWrites.class);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, sharedWrites, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        when(replica.getConnection()).thenReturn(connection);
+        authenticate(USER);
+        bindRequest();
+
+        beginTransaction(true);
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+
+        verify(sharedWrites, times(1)).contains(USER);
+        verify(replica, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should keep the rest of a request on the primary after its write without asking the shared marker")
+    void getConnection_ReadAfterWriteInSameRequest_UsesPrimaryWithoutLookup() throws SQLException {
+        RecentWrites sharedWrites = mock(RecentWrites.class);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, sharedWrites, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        when(primary.getConnection()).thenReturn(connection);
+        authenticate(USER);
+        bindRequest();
+
+        commitWrite();
+        beginTransaction(true);
+        routingDataSource.getConnection();
+
+        verify(sharedWrites).record(USER);
+        verify(sharedWrites, never()).contains(anyString());
+        verify(primary, times(2)).getConnection();
+        verifyNoInteractions(replica);
+    }
+
+    private void commitWrite() throws SQLException {
+        beginTransaction(false);
+        routingDataSource.readWriteDataSource().getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clear();
+    }
+
+    private static void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.alpeerkaraca.common.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TimeOrderedUuid Tests")
+class TimeOrderedUuidTest {
+
+    private static final long NOW = Instant.parse("2025-03-01T10:15:30.123Z").toEpochMilli();
+
+    @Test
+    @DisplayName("Should set the RFC 9562 version and variant and carry the millisecond")
+    void generate_Layout_Version7WithTimestamp() {
+        UUID uuid = new TimeOrderedUuid(() -> NOW, new Random(1)).generate();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(TimeOrderedUuid.timestamp(uuid)).isEqualTo(Instant.ofEpochMilli(NOW));
+    }
+
+    @Test
+    @DisplayName("Should keep increasing within a millisecond and past a counter overflow")
+    void generate_SameMillisecond_StrictlyIncreasing() {
+        Random random = new Random(1);
+        TimeOrderedUuid generator = new TimeOrderedUuid(() -> NOW, random);
+
+        UUID previous = generator.generate();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.generate();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+        assertThat(TimeOrderedUuid.timestamp(previous)).isAfter(Instant.ofEpochMilli(NOW));
+    }
+
+    @Test
+    @DisplayName("Should not go backwards when the clock does")
+    void generate_ClockStepsBack_StillIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        Random random = new Random(1);
+        TimeOrderedUuid generator = new TimeOrderedUuid(clock::get, random);
+
+        UUID before = generator.generate();
+        clock.set(NOW - 1_000);
+        UUID after = generator.generate();
+
+        assertThat(after).isGreaterThan(before);
+        assertThat(TimeOrderedUuid.timestamp(after)).isEqualTo(Instant.ofEpochMilli(NOW));
+    }
+
+    @Test
+    @DisplayName("Should generate distinct, per-thread increasing ids from concurrent threads")
+    void next_ConcurrentCallers_UniqueAndIncreasing() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    UUID previous = TimeOrderedUuid.next();
+                    ids.add(previous);
+                    boolean increasing = true;
+                    for (int i = 1; i < perThread; i++) {
+                        UUID next = TimeOrderedUuid.next();
+                        increasing &= next.compareTo(previous) > 0;
+                        ids.add(next);
+                        previous = next;
+                    }
+                    return increasing;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("Should refuse to read a timestamp from a random UUID")
+    void timestamp_Version4_Throws() {
+        assertThatThrownBy(() -> TimeOrderedUuid.timestamp(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LeasedRateLimiter Tests")
+class LeasedRateLimiterTest {
+
+    private static final String KEY = "rate_limit:feed:u1";
+
+    @Mock
+    private RedisRateLimiter redisRateLimiter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LeasedRateLimiter leasedRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        leasedRateLimiter = new LeasedRateLimiter(redisRateLimiter, meterRegistry, 60_000, 2);
+    }
+
+    @Test
+    @DisplayName("Should lease a batch once and spend it locally")
+    void tryAcquire_WithinLease_CallsRedisOnce() {
+        when(redisRateLimiter.acquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 10))
+                .thenReturn(new RateLimitGrant(10, 90, 0));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1).allowed()).isTrue();
+        }
+
+        verify(redisRateLimiter, times(1)).acquire(anyString(), anyLong(), anyLong(), any(), anyLong());
+        assertThat(permits("redis")).isEqualTo(1);
+        assertThat(permits("lease")).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should go back to Redis when the lease is used up")
+    void tryAcquire_LeaseUsedUp_LeasesAgain() {
+        when(redisRateLimiter.acquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 10))
+                .thenReturn(new RateLimitGrant(2, 0, 0))
+                .thenReturn(new RateLimitGrant(0, 0, 600));
+
+        assertThat(leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1).allowed()).isTrue();
+        assertThat(leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1).allowed()).isTrue();
+        RateLimitDecision rejected = leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1);
+
+        assertThat(rejected).isEqualTo(new RateLimitDecision(false, 0, 600));
+        verify(redisRateLimiter, times(2)).acquire(anyString(), anyLong(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should add a concurrently granted lease to the one already held")
+    void tryAcquire_ConcurrentRefills_KeepsEveryLeasedPermit() {
+        when(redisRateLimiter.acquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 10))
+                .thenAnswer(invocation -> {
+                    // A second request refills the same key while this one is still waiting on Redis.
+                    leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1);
+                    return new RateLimitGrant(5, 80, 0);
+                })
+                .thenReturn(new RateLimitGrant(5, 85, 0));
+
+        leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1);
+        for (int i = 0; i < 8; i++) {
+            assertThat(leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1).allowed()).isTrue();
+        }
+
+        verify(redisRateLimiter, times(2)).acquire(anyString(), anyLong(), anyLong(), any(), anyLong());
+        assertThat(permits("lease")).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should reject locally until the retry-after of a Redis rejection")
+    void tryAcquire_RejectedByRedis_RejectsLocally() {
+        when(redisRateLimiter.acquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 10))
+                .thenReturn(new RateLimitGrant(0, 0, 30_000));
+
+        leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1);
+        RateLimitDecision rejected = leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1);
+
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterMillis()).isBetween(1L, 30_000L);
+        verify(redisRateLimiter, times(1)).acquire(anyString(), anyLong(), anyLong(), any(), anyLong());
+        assertThat(meterRegistry.get("rate.limit.local.rejections").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not reuse a lease after its TTL")
+    void tryAcquire_LeaseExpired_LeasesAgain() {
+        leasedRateLimiter = new LeasedRateLimiter(redisRateLimiter, meterRegistry, 0, 2);
+        when(redisRateLimiter.acquire(eq(KEY), anyLong(), anyLong(), any(), anyLong()))
+                .thenReturn(new RateLimitGrant(10, 90, 0));
+
+        leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.SLIDING_WINDOW_COUNTER, 0.1);
+        leasedRateLimiter.tryAcquire(KEY, 100, 60_000, RateLimitAlgorithm.SLIDING_WINDOW_COUNTER, 0.1);
+
+        verify(redisRateLimiter, times(2)).acquire(anyString(), anyLong(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should keep at most the configured number of leases")
+    void tryAcquire_ManyKeys_BoundsLeases() {
+        when(redisRateLimiter.acquire(anyString(), anyLong(), anyLong(), any(), anyLong()))
+                .thenReturn(new RateLimitGrant(10, 90, 0));
+
+        for (int i = 0; i < 5; i++) {
+            leasedRateLimiter.tryAcquire(KEY + i, 100, 60_000, RateLimitAlgorithm.GCRA, 0.1);
+        }
+
+        assertThat(meterRegistry.get("rate.limit.leases").gauge().value()).isEqualTo(2);
+    }
+
+    private double permits(String source) {
+        return meterRegistry.get("rate.limit.permits").tag("source", source).counter().count();
+    }
+}
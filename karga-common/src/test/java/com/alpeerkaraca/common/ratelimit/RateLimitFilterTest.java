@@ -0,0 +1,157 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import com.alpeerkaraca.common.annotation.RateLimit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    @Mock
+    private RedisRateLimiter rateLimiter;
+
+    @Mock
+    private LeasedRateLimiter leasedRateLimiter;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private MockEnvironment environment;
+    private RateLimitFilter filter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        environment = new MockEnvironment();
+        filter = new RateLimitFilter(rateLimiter, leasedRateLimiter, new ObjectMapper(), environment, true);
+        response = new MockHttpServletResponse();
+
+        RequestMappingInfo login = RequestMappingInfo.paths("/api/v1/auth/login").methods(RequestMethod.POST).build();
+        HandlerMethod handler = new HandlerMethod(this, RateLimitFilterTest.class.getDeclaredMethod("login"));
+        lenient().when(handlerMapping.getHandlerMethods()).thenReturn(Map.of(login, handler));
+        lenient().when(applicationContext.getBeansOfType(RequestMappingHandlerMapping.class))
+                .thenReturn(Map.of("requestMappingHandlerMapping", handlerMapping));
+    }
+
+    @Test
+    @DisplayName("Should reject with 429 before the request reaches the controller")
+    void doFilter_OverLimit_RejectsWithoutReadingBody() throws Exception {
+        refresh();
+        when(rateLimiter.tryAcquire(eq("rate_limit:login:10.0.0.7"), eq(5L), eq(120_000L),
+                eq(RateLimitAlgorithm.SLIDING_LOG)))
+                .thenReturn(new RateLimitDecision(false, 0, 1_500));
+
+        filter.doFilter(loginRequest(), response, filterChain);
+
+        verifyNoInteractions(filterChain);
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+        assertThat(response.getContentAsString()).contains("\"success\":false", "too many requests");
+    }
+
+    @Test
+    @DisplayName("Should pass the request on and mark the rule as enforced")
+    void doFilter_UnderLimit_ContinuesChain() throws Exception {
+        refresh();
+        when(rateLimiter.tryAcquire(anyString(), anyLong(), anyLong(), any()))
+                .thenReturn(new RateLimitDecision(true, 4, 0));
+        MockHttpServletRequest request = loginRequest();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertThat(request.getAttribute(RateLimitFilter.APPLIED_RULE_ATTRIBUTE)).isEqualTo("login");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("4");
+    }
+
+    @Test
+    @DisplayName("Should not call Redis for routes without a rule")
+    void doFilter_UnmatchedRoute_SkipsRedis() throws Exception {
+        refresh();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/auth/login");
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(rateLimiter, leasedRateLimiter);
+    }
+
+    @Test
+    @DisplayName("Should apply configured routes before annotated ones")
+    void doFilter_ConfiguredRoute_TakesPrecedence() throws Exception {
+        environment.setProperty("rate-limit.routes[0].path", "/api/v1/auth/**");
+        environment.setProperty("rate-limit.routes[0].key", "auth");
+        environment.setProperty("rate-limit.routes[0].limit", "100");
+        environment.setProperty("rate-limit.routes[0].duration", "1");
+        environment.setProperty("rate-limit.routes[0].unit", "MINUTES");
+        environment.setProperty("rate-limit.routes[0].algorithm", "GCRA");
+        environment.setProperty("rate-limit.routes[0].lease-fraction", "0.1");
+        refresh();
+        when(leasedRateLimiter.tryAcquire("rate_limit:auth:10.0.0.7", 100, 60_000, RateLimitAlgorithm.GCRA, 0.1))
+                .thenReturn(new RateLimitDecision(true, 99, 0));
+
+        filter.doFilter(loginRequest(), response, filterChain);
+
+        verifyNoInteractions(rateLimiter);
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("100");
+    }
+
+    @Test
+    @DisplayName("Should let the request through when Redis is unavailable")
+    void doFilter_RedisDown_FailsOpen() throws Exception {
+        refresh();
+        when(rateLimiter.tryAcquire(anyString(), anyLong(), anyLong(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        MockHttpServletRequest request = loginRequest();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertThat(request.getAttribute(RateLimitFilter.APPLIED_RULE_ATTRIBUTE)).isNull();
+    }
+
+    private void refresh() {
+        filter.onApplicationEvent(new ContextRefreshedEvent(applicationContext));
+    }
+
+    private MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setRemoteAddr("10.0.0.7");
+        request.setContent("{\"email\":\"a@b.c\",\"password\":\"secret\"}".getBytes());
+        return request;
+    }
+
+    @RateLimit(key = "login", limit = 5, duration = 120)
+    private void login() {
+    }
+}
@@ -0,0 +1,76 @@
+package com.alpeerkaraca.common.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisRateLimiter Tests")
+class RedisRateLimiterTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @InjectMocks
+    private RedisRateLimiter rateLimiter;
+
+    @Test
+    @DisplayName("Should send the sliding log a unique member per request under the plain key")
+    void tryAcquire_SlidingLog_SendsUniqueMember() {
+        when(redisTemplate.execute(eq(RateLimitAlgorithm.SLIDING_LOG.getScript()), eq(List.of("rate_limit:login:u1")),
+                eq("5"), eq("60000"), eq("1"), anyString()))
+                .thenReturn(List.of(1L, 4L, 0L));
+
+        RateLimitDecision decision = rateLimiter.tryAcquire("rate_limit:login:u1", 5, 60_000, RateLimitAlgorithm.SLIDING_LOG);
+
+        assertThat(decision).isEqualTo(new RateLimitDecision(true, 4, 0));
+    }
+
+    @Test
+    @DisplayName("Should keep GCRA state under its own key suffix")
+    void tryAcquire_Gcra_UsesSuffixedKey() {
+        when(redisTemplate.execute(eq(RateLimitAlgorithm.GCRA.getScript()), anyList(), eq("5"), eq("60000"), eq("1")))
+                .thenReturn(List.of(0L, 0L, 12_000L));
+
+        RateLimitDecision decision = rateLimiter.tryAcquire("rate_limit:login:u1", 5, 60_000, RateLimitAlgorithm.GCRA);
+
+        assertThat(decision).isEqualTo(new RateLimitDecision(false, 0, 12_000));
+        verify(redisTemplate).execute(eq(RateLimitAlgorithm.GCRA.getScript()), eq(List.of("rate_limit:login:u1:gcra")),
+                eq("5"), eq("60000"), eq("1"));
+    }
+
+    @Test
+    @DisplayName("Should report a partial grant when the window cannot spare the whole batch")
+    void acquire_Batch_ReturnsGrantedPermits() {
+        when(redisTemplate.execute(eq(RateLimitAlgorithm.SLIDING_WINDOW_COUNTER.getScript()),
+                eq(List.of("rate_limit:feed:u1:swc")), eq("1000"), eq("60000"), eq("100")))
+                .thenReturn(List.of(40L, 0L, 0L));
+
+        RateLimitGrant grant = rateLimiter.acquire("rate_limit:feed:u1", 1000, 60_000,
+                RateLimitAlgorithm.SLIDING_WINDOW_COUNTER, 100);
+
+        assertThat(grant).isEqualTo(new RateLimitGrant(40, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should fail on a malformed script result")
+    void tryAcquire_MalformedResult_Throws() {
+        when(redisTemplate.execute(eq(RateLimitAlgorithm.SLIDING_WINDOW_COUNTER.getScript()), anyList(), any(), any(), any()))
+                .thenReturn(List.of(1L));
+
+        assertThatThrownBy(() -> rateLimiter.tryAcquire("k", 5, 60_000, RateLimitAlgorithm.SLIDING_WINDOW_COUNTER))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.alpeerkaraca.common.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JwksKeyResolver Tests")
+class JwksKeyResolverTest {
+
+    private static final Map<String, Object> CLAIMS = Map.of("userId", "0f8fad5b-d9cb-469f-a165-70867728950e",
+            "roles", List.of("ROLE_DRIVER"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReference<String> document = new AtomicReference<>("{\"keys\":[]}");
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private HttpServer server;
+    private JwksKeyResolver resolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/.well-known/jwks.json", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = document.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (resolver != null) {
+            resolver.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should verify tokens with keys fetched from the JWKS endpoint")
+    void resolve_PublishedKid_VerifiesToken() throws Exception {
+        JwtKeyRing issuer = issuerRing("ed-1", "EdDSA", generate("Ed25519"));
+        publish(issuer);
+        JWTService verifier = verifierWithResolver();
+
+        String token = new JWTService(issuer, null, null).generateToken(CLAIMS, "driver@karga.com", 60_000);
+
+        assertThat(verifier.verifyAndDecode(token).subject()).isEqualTo("driver@karga.com");
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not block on an unknown kid and pick the key up in the background")
+    void resolve_UnknownKid_RefreshesInBackground() throws Exception {
+        publish(issuerRing("ec-1", "ES256", generate("EC")));
+        JWTService verifier = verifierWithResolver();
+        JwtKeyRing rotated = issuerRing("ec-2", "ES256", generate("EC"));
+        publish(rotated);
+        String token = new JWTService(rotated, null, null).generateToken(CLAIMS, "driver@karga.com", 60_000);
+
+        assertThat(verifier.isTokenValid(token)).isFalse();
+
+        assertThat(await(() -> verifier.isTokenValid(token))).isTrue();
+        assertThat(fetches.get()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep the previous keys when a refresh fails")
+    void refresh_EndpointFails_KeepsPreviousKeys() throws Exception {
+        publish(issuerRing("ed-1", "EdDSA", generate("Ed25519")));
+        verifierWithResolver();
+        status.set(500);
+
+        resolver.refresh().get(5, TimeUnit.SECONDS);
+
+        assertThat(resolver.resolve("ed-1")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should stop accepting cached tokens once their key is withdrawn from the JWKS")
+    void refresh_KeyWithdrawn_ClearsVerifiedTokenCache() throws Exception {
+        JwtKeyRing issuer = issuerRing("ed-1", "EdDSA", generate("Ed25519"));
+        publish(issuer);
+        VerifiedTokenCache cache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100, 1_000_000);
+        JWTService verifier = verifierWithResolver(cache);
+        String token = new JWTService(issuer, null, null).generateToken(CLAIMS, "driver@karga.com", 60_000);
+        assertThat(verifier.isTokenValid(token)).isTrue();
+
+        publish(issuerRing("ed-2", "EdDSA", generate("Ed25519")));
+        resolver.refresh().get(5, TimeUnit.SECONDS);
+
+        assertThat(verifier.isTokenValid(token)).isFalse();
+    }
+
+    private JWTService verifierWithResolver() {
+        return verifierWithResolver(null);
+    }
+
+    private JWTService verifierWithResolver(VerifiedTokenCache cache) {
+        resolver = new JwksKeyResolver("http://127.0.0.1:" + server.getAddress().getPort() + "/.well-known/jwks.json",
+                300_000, 0, 2_000, cache);
+        resolver.start();
+        return new JWTService(new JwtKeyRing(new MockEnvironment(), cache, resolver), cache, null);
+    }
+
+    private void publish(JwtKeyRing issuer) throws Exception {
+        document.set(objectMapper.writeValueAsString(issuer.jwkSet()));
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private static JwtKeyRing issuerRing(String kid, String algorithm, KeyPair keyPair) {
+        Base64.Encoder encoder = Base64.getMimeEncoder();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.jwt.keys[0].kid", kid)
+                .withProperty("app.jwt.keys[0].algorithm", algorithm)
+                .withProperty("app.jwt.keys[0].public-key", encoder.encodeToString(keyPair.getPublic().getEncoded()))
+                .withProperty("app.jwt.keys[0].private-key", encoder.encodeToString(keyPair.getPrivate().getEncoded()));
+        return new JwtKeyRing(environment, null, null);
+    }
+
+    private static KeyPair generate(String algorithm) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+        if ("EC".equals(algorithm)) {
+            generator.initialize(256);
+        }
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,130 @@
+package com.alpeerkaraca.common.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        revocationService = new TokenRevocationService(redisTemplate, meterRegistry, 1_000, 0.001, 10_000);
+    }
+
+    @Test
+    @DisplayName("Should answer unknown token ids from the local filter without Redis")
+    void isRevoked_UnknownId_SkipsRedis() {
+        assertThat(revocationService.isRevoked("jti-unknown")).isFalse();
+
+        verify(redisTemplate, never()).hasKey(anyString());
+        assertThat(checks("negative")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should store a revoked id with the remaining token lifetime as TTL")
+    void revoke_ValidToken_StoresWithTtl() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        revocationService.revoke("jti-1", expiresAt);
+
+        verify(valueOperations).set(eq("revoked_jti:jti-1"), eq("1"),
+                longThat(ttl -> ttl > 590_000 && ttl <= 600_000), eq(TimeUnit.MILLISECONDS));
+        verify(zSetOperations).add("revoked_jti:index", "jti-1", expiresAt.toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("Should confirm probable hits in Redis")
+    void isRevoked_RevokedId_ReturnsTrue() {
+        revocationService.revoke("jti-1", Instant.now().plusSeconds(600));
+        when(redisTemplate.hasKey("revoked_jti:jti-1")).thenReturn(true);
+
+        assertThat(revocationService.isRevoked("jti-1")).isTrue();
+        assertThat(checks("revoked")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count a false positive when Redis no longer has the id")
+    void isRevoked_ExpiredInRedis_CountsFalsePositive() {
+        when(zSetOperations.rangeByScore(eq("revoked_jti:index"), anyDouble(), anyDouble()))
+                .thenReturn(Set.of("jti-2"));
+        revocationService.refresh();
+        when(redisTemplate.hasKey("revoked_jti:jti-2")).thenReturn(false);
+
+        assertThat(revocationService.isRevoked("jti-2")).isFalse();
+        assertThat(checks("false_positive")).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.revocation.filter.entries").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a probable hit when Redis is unavailable")
+    void isRevoked_RedisDown_FailsClosed() {
+        revocationService.revoke("jti-3", Instant.now().plusSeconds(600));
+        when(redisTemplate.hasKey("revoked_jti:jti-3")).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(revocationService.isRevoked("jti-3")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ignore tokens that have already expired")
+    void revoke_ExpiredToken_IsIgnored() {
+        revocationService.revoke("jti-4", Instant.now().minusSeconds(1));
+
+        verifyNoInteractions(valueOperations, zSetOperations);
+    }
+
+    @Test
+    @DisplayName("Should keep the false-positive rate of the filter near its target")
+    void bloomFilter_ManyEntries_StaysNearTargetRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(filter.mightContain("revoked-42")).isTrue();
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveProbability()).isLessThan(0.02);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("jwt.revocation.checks").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,134 @@
+package com.alpeerkaraca.common.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("VerifiedTokenCache Tests")
+class VerifiedTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthenticatedPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principal = new AuthenticatedPrincipal(
+                "0f8fad5b-d9cb-469f-a165-70867728950e",
+                "driver@karga.com",
+                List.of(new SimpleGrantedAuthority("ROLE_DRIVER")),
+                "5f1d7a3c-8c1e-4f6b-9d0a-2b7e4c9a1f3d",
+                Instant.now().plusSeconds(900)
+        );
+    }
+
+    @Test
+    @DisplayName("Should return cached principal for a known token and count a hit")
+    void get_KnownToken_ReturnsPrincipal() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 100, 1_000_000);
+        cache.put("token-a", principal, Instant.now().plusSeconds(60));
+
+        AuthenticatedPrincipal cached = cache.get("token-a");
+
+        assertThat(cached).isSameAs(principal);
+        assertThat(meterRegistry.get("jwt.token.cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should miss for an unknown token")
+    void get_UnknownToken_ReturnsNull() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 100, 1_000_000);
+
+        assertThat(cache.get("token-b")).isNull();
+        assertThat(meterRegistry.get("jwt.token.cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should never serve a token after its exp")
+    void get_ExpiredToken_IsEvicted() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 100, 1_000_000);
+        cache.put("token-c", principal, Instant.now().plusMillis(20));
+
+        Thread.sleep(40);
+
+        assertThat(cache.get("token-c")).isNull();
+        assertThat(meterRegistry.get("jwt.token.cache.evictions").tag("cause", "expired").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.token.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that are already expired")
+    void put_AlreadyExpired_IsIgnored() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 100, 1_000_000);
+        cache.put("token-d", principal, Instant.now().minusSeconds(1));
+
+        assertThat(cache.get("token-d")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict the entry closest to expiry when the entry cap is reached")
+    void put_OverEntryCap_EvictsSoonestExpiring() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 2, 1_000_000);
+        cache.put("soon", principal, Instant.now().plusSeconds(10));
+        cache.put("later", principal, Instant.now().plusSeconds(60));
+        cache.put("latest", principal, Instant.now().plusSeconds(120));
+
+        assertThat(cache.get("soon")).isNull();
+        assertThat(cache.get("later")).isNotNull();
+        assertThat(cache.get("latest")).isNotNull();
+        assertThat(meterRegistry.get("jwt.token.cache.evictions").tag("cause", "size").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep estimated memory under the configured cap")
+    void put_OverMemoryCap_EvictsEntries() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 1_000, 1_000);
+        for (int i = 0; i < 20; i++) {
+            cache.put("token-" + i, principal, Instant.now().plusSeconds(60 + i));
+        }
+
+        assertThat(meterRegistry.get("jwt.token.cache.weight").gauge().value()).isLessThanOrEqualTo(1_000);
+        assertThat(cache.get("token-19")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should stay within the entry cap and keep its accounting under concurrent puts")
+    void put_ConcurrentPuts_StaysWithinCap() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 50, 1_000_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        cache.put("token-" + thread + "-" + (i % 100), principal, Instant.now().plusSeconds(60 + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(meterRegistry.get("jwt.token.cache.size").gauge().value()).isLessThanOrEqualTo(50);
+
+        cache.invalidateAll();
+
+        assertThat(meterRegistry.get("jwt.token.cache.size").gauge().value()).isZero();
+        assertThat(meterRegistry.get("jwt.token.cache.weight").gauge().value()).isZero();
+    }
+}
@@ -1,65 +1,146 @@
 package com.alpeerkaraca.paymentservice.infra.kafka;
 
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
 import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.inbox.IdempotentConsumer;
+import com.alpeerkaraca.common.inbox.InboxBatchClaimer;
+import com.alpeerkaraca.common.inbox.InboxRepository;
+import com.alpeerkaraca.common.kafka.BatchKafkaConfig;
+import com.alpeerkaraca.common.kafka.DeadLetterPublisher;
+import com.alpeerkaraca.common.kafka.EventTypeFilter;
+import com.alpeerkaraca.common.kafka.KeyOrderedDispatcher;
+import com.alpeerkaraca.common.kafka.SagaRetryableTopic;
 import com.alpeerkaraca.common.model.TripEventTypes;
-import com.alpeerkaraca.paymentservice.model.PaymentInbox;
 import com.alpeerkaraca.paymentservice.repository.PaymentInboxRepository;
 import com.alpeerkaraca.paymentservice.service.StripePaymentService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class TripEventListener {
+public class TripEventListener extends IdempotentConsumer {
     private static final String TOPIC_TRIP_EVENTS = "trip_events";
     private final StripePaymentService paymentService;
     private final PaymentInboxRepository paymentInboxRepository;
-    private final ObjectMapper objectMapper;
+    private final InboxBatchClaimer inboxBatchClaimer;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final OutboxEventDecoder eventDecoder;
 
-    @KafkaListener(topics = TOPIC_TRIP_EVENTS, groupId = "payment-service-group")
+    /**
+     * Handles a trip event through the {@link KeyOrderedDispatcher}: with {@code kafka.key-ordered.enabled=true} the
+     * payment sessions of different trips are created in parallel, while the events of one trip stay in order. A failed
+     * event is retried from the {@link SagaRetryableTopic} delay topics, or dead-lettered by the dispatcher. Only
+     * {@code TRIP_COMPLETED} events reach it: the {@link EventTypeFilter} drops and acknowledges the others before
+     * their payload is read or the inbox is claimed.
+     */
+    @SagaRetryableTopic
+    @KafkaListener(topics = TOPIC_TRIP_EVENTS, groupId = "payment-service-group",
+            containerFactory = KeyOrderedDispatcher.CONTAINER_FACTORY, filter = EventTypeFilter.BEAN,
+            autoStartup = "#{!${trip-events.batch.enabled:false}}")
     public void handleTripEvent(
             @Payload String messagePayload,
             @Header("eventType") String eventType,
-            @Header("id") String messageId
+            @Header("id") String messageId,
+            ConsumerRecord<?, ?> record,
+            Acknowledgment acknowledgment
     ) {
-        if (paymentInboxRepository.existsById(messageId)) {
-            return;
+        keyOrderedDispatcher.dispatch(record, acknowledgment,
+                () -> consumeOnce(messageId, eventType, () -> applyTripEvent(messagePayload)));
+    }
+
+    /**
+     * Batch mode of {@link #handleTripEvent}, enabled with {@code trip-events.batch.enabled=true}.
+     * <p>
+     * The {@link EventTypeFilter} leaves the completed trips of a poll. They are claimed in the inbox with one query
+     * and one JDBC batch, and their payment sessions are created together, in one transaction. An event that cannot
+     * be read is marked FAILED without holding up the rest of the batch, and sent to the dead-letter topic once the
+     * transaction commits, so a batch that rolls back and is delivered again does not dead-letter it twice. A failure
+     * of the whole batch, e.g. of the database while the sessions are created, rolls it back; the
+     * {@link BatchKafkaConfig} error handler then retries the batch with a backoff and finally sends all of its records
+     * to the dead-letter topic.
+     * </p>
+     *
+     * @param records The polled records; their size is bounded by {@code spring.kafka.consumer.max-poll-records}.
+     */
+    @KafkaListener(id = "payment-trip-events-batch", topics = TOPIC_TRIP_EVENTS, groupId = "payment-service-group",
+            containerFactory = BatchKafkaConfig.CONTAINER_FACTORY, batch = "true", filter = EventTypeFilter.BEAN,
+            autoStartup = "${trip-events.batch.enabled:false}")
+    @Transactional
+    public void handleTripEvents(List<ConsumerRecord<String, String>> records) {
+        List<ConsumerRecord<String, String>> claimed = inboxBatchClaimer.claim(paymentInboxRepository, records,
+                record -> header(record, "id"), record -> header(record, "eventType"));
+
+        List<TripMessage> completedTrips = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : claimed) {
+            try {
+                TripMessage event = completedTrip(record.value());
+                if (event != null) {
+                    completedTrips.add(event);
+                }
+            } catch (Exception e) {
+                log.error("Payment failed or processing error", e);
+                markFailed(header(record, "id"));
+                deadLetterPublisher.publishAfterCommit(record, e);
+            }
+        }
+        if (!completedTrips.isEmpty()) {
+            paymentService.createPaymentSessions(completedTrips);
         }
+        log.info("Processed {} of {} trip events, {} completed trips", claimed.size(), records.size(), completedTrips.size());
+    }
+
+    @Override
+    protected InboxRepository<?> inboxRepository() {
+        return paymentInboxRepository;
+    }
+
+    private void applyTripEvent(String messagePayload) {
+        TripMessage event = completedTrip(messagePayload);
+        if (event != null) {
+            paymentService.createPaymentSession(
+                    event.getTripId(),
+                    event.getPassengerId(),
+                    event.getFare()
+            );
+        }
+    }
+
+    /**
+     * @return The event if it completes a trip, {@code null} for events that need no payment.
+     */
+    private TripMessage completedTrip(String messagePayload) {
         try {
-            JsonNode rootNode = objectMapper.readTree(messagePayload);
-            if (!rootNode.has("payload") || rootNode.get("payload").isNull()) {
+            TripMessage event = eventDecoder.decode(messagePayload, TripMessage.class);
+            if (event == null) {
                 log.warn("Received message without payload: {}", messagePayload);
-                return;
+                return null;
             }
-            String innerJson = rootNode.get("payload").asText();
-            TripMessage event = objectMapper.readValue(innerJson, TripMessage.class);
-            if (event.getEventType() == TripEventTypes.TRIP_COMPLETED) {
-                log.info("Trip completed event received: {}", event.getTripId());
-
-                paymentService.createPaymentSession(
-                        event.getTripId(),
-                        event.getPassengerId(),
-                        event.getFare()
-                );
+            if (event.getEventType() != TripEventTypes.TRIP_COMPLETED) {
+                return null;
             }
-            PaymentInbox paymentInbox = new PaymentInbox();
-            paymentInbox.setMessageId(messageId);
-            paymentInbox.setEventType(eventType);
-            paymentInbox.setProcessedAt(Instant.now());
-            paymentInboxRepository.save(paymentInbox);
-        } catch (Exception e) {
-            log.error("Payment failed or processing error", e);
-
-
+            log.info("Trip completed event received: {}", event.getTripId());
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable trip event", e);
         }
     }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        var header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
 }
@@ -1,6 +1,7 @@
 package com.alpeerkaraca.paymentservice.model;
 
 import com.alpeerkaraca.common.model.BaseClass;
+import com.alpeerkaraca.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -16,7 +17,7 @@ import java.util.UUID;
 @Entity
 public class Payment extends BaseClass {
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID paymentId;
 
     private UUID tripId;
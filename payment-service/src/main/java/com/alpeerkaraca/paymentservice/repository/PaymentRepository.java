@@ -4,6 +4,8 @@ import com.alpeerkaraca.paymentservice.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +14,6 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     Optional<Payment> findByStripeSessionId(String stripeSessionId);
 
     Optional<Payment> findByTripId(UUID tripId);
+
+    List<Payment> findByTripIdIn(Collection<UUID> tripIds);
 }
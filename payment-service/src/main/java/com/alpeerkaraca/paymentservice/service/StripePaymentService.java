@@ -1,9 +1,12 @@
 package com.alpeerkaraca.paymentservice.service;
 
 import com.alpeerkaraca.common.event.PaymentMessage;
+import com.alpeerkaraca.common.event.TripMessage;
 import com.alpeerkaraca.common.exception.ResourceNotFoundException;
 import com.alpeerkaraca.common.exception.SerializationException;
 import com.alpeerkaraca.common.model.TripEventTypes;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
+import com.alpeerkaraca.common.tracing.TraceContext;
 import com.alpeerkaraca.paymentservice.model.Payment;
 import com.alpeerkaraca.paymentservice.model.PaymentOutbox;
 import com.alpeerkaraca.paymentservice.model.PaymentStatus;
@@ -16,7 +19,9 @@ import com.stripe.model.Event;
 import com.stripe.model.PaymentIntent;
 import com.stripe.model.checkout.Session;
 import com.stripe.param.checkout.SessionCreateParams;
+import io.opentelemetry.context.Scope;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,7 +34,15 @@ import java.math.RoundingMode;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service managing Stripe API integration for payments.
@@ -46,16 +59,35 @@ public class StripePaymentService {
     private final PaymentRepository paymentRepository;
     private final ObjectMapper objectMapper;
     private final PaymentOutboxRepository paymentOutboxRepository;
+    private final OutboxWriter outboxWriter;
 
     @Value("${stripe.apiKey}")
     private String stripeApiKey;
 
+    @Value("${payment.sessions.parallelism:8}")
+    private int sessionParallelism;
+
+    private Executor sessionExecutor;
+
     /**
-     * Initializes the Stripe API key during application startup.
+     * Initializes the Stripe API key and the threads creating Checkout Sessions during application startup.
      */
     @PostConstruct
     public void init() {
         Stripe.apiKey = stripeApiKey;
+        AtomicInteger threads = new AtomicInteger();
+        sessionExecutor = Executors.newFixedThreadPool(sessionParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "stripe-session-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sessionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
     }
 
     /**
@@ -91,7 +123,64 @@ public class StripePaymentService {
             return null;
         }
 
+        openCheckoutSession(payment);
+        return paymentRepository.save(payment);
+    }
+
+    /**
+     * Creates the Checkout Sessions of several completed trips at once, for the batch consumer of trip events.
+     * <p>
+     * Trips that already have a payment are looked up with one query and skipped, the new payments are inserted
+     * together, and the Stripe calls, which dominate the cost, run in parallel on up to
+     * {@code payment.sessions.parallelism} threads. A trip repeated in the list gets one payment.
+     * </p>
+     *
+     * @param completedTrips The TRIP_COMPLETED events of the batch.
+     * @return The new {@link Payment} entities; FAILED for trips whose session could not be created.
+     */
+    @Transactional
+    public List<Payment> createPaymentSessions(List<TripMessage> completedTrips) {
+        Map<UUID, TripMessage> tripsById = new LinkedHashMap<>();
+        completedTrips.forEach(trip -> tripsById.putIfAbsent(trip.getTripId(), trip));
+        paymentRepository.findByTripIdIn(tripsById.keySet())
+                .forEach(existing -> tripsById.remove(existing.getTripId()));
+        if (tripsById.isEmpty()) {
+            return List.of();
+        }
+
+        List<Payment> payments = paymentRepository.saveAll(tripsById.values().stream()
+                .map(trip -> Payment.builder()
+                        .tripId(trip.getTripId())
+                        .passengerId(trip.getPassengerId())
+                        .paymentAmount(trip.getFare())
+                        .paymentStatus(PaymentStatus.PENDING)
+                        .build())
+                .toList());
+        CompletableFuture.allOf(payments.stream()
+                        .map(payment -> CompletableFuture.runAsync(() -> openCheckoutSession(payment), sessionExecutor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        return paymentRepository.saveAll(payments);
+    }
+
+    /**
+     * Creates the Stripe Checkout Session of a saved payment and records it on the payment, or marks the payment
+     * FAILED if Stripe rejects it.
+     */
+    private void openCheckoutSession(Payment payment) {
+        UUID tripId = payment.getTripId();
+        UUID passengerId = payment.getPassengerId();
+        BigDecimal paymentAmount = payment.getPaymentAmount();
         try {
+            SessionCreateParams.PaymentIntentData.Builder intentData = SessionCreateParams.PaymentIntentData.builder()
+                    .putMetadata("trip_id", tripId.toString())
+                    .putMetadata("passenger_id", passengerId.toString())
+                    .putMetadata("payment_id", payment.getPaymentId().toString());
+            // The webhook arrives in a trace of its own; this lets it continue the trip's.
+            String traceparent = TraceContext.current();
+            if (traceparent != null) {
+                intentData.putMetadata(TraceContext.TRACEPARENT_HEADER, traceparent);
+            }
             SessionCreateParams params = SessionCreateParams.builder()
                     .setMode(SessionCreateParams.Mode.PAYMENT)
                     .setSuccessUrl("http://localhost:8086/api/v1/payments/success?id=" + payment.getPaymentId())
@@ -108,12 +197,7 @@ public class StripePaymentService {
 
                             ).build())
                     .setClientReferenceId(payment.getPaymentId().toString())
-                    .setPaymentIntentData(SessionCreateParams.PaymentIntentData.builder()
-                            .putMetadata("trip_id", tripId.toString())
-                            .putMetadata("passenger_id", passengerId.toString())
-                            .putMetadata("payment_id", payment.getPaymentId().toString())
-                            .build()
-                    )
+                    .setPaymentIntentData(intentData.build())
                     .putMetadata("trip_id", tripId.toString())
                     .putMetadata("passenger_id", passengerId.toString())
                     .build();
@@ -123,12 +207,9 @@ public class StripePaymentService {
             payment.setStripeSessionUrl(session.getUrl());
             payment.setPaymentAmount(paymentAmount.setScale(2, RoundingMode.HALF_UP));
             payment.setPaymentStatus(PaymentStatus.PENDING);
-
-            return paymentRepository.save(payment);
         } catch (Exception e) {
             log.error("Stripe Error: {}", e.getMessage());
             payment.setPaymentStatus(PaymentStatus.FAILED);
-            return paymentRepository.save(payment);
         }
     }
 
@@ -178,27 +259,38 @@ public class StripePaymentService {
 
     @Transactional
     protected void approvePayment(PaymentIntent intent) {
-        Payment payment = paymentRepository.findById(UUID.fromString(intent.getMetadata().get("payment_id")))
-                .orElseThrow(() -> new ResourceNotFoundException("Payment could not found." + intent.toJson()));
-        payment.setPaymentStatus(PaymentStatus.COMPLETED);
-        payment.setPaidAt(Timestamp.valueOf(LocalDateTime.now()));
-        paymentRepository.save(payment);
+        try (Scope scope = TraceContext.restore(traceparent(intent))) {
+            Payment payment = paymentRepository.findById(UUID.fromString(intent.getMetadata().get("payment_id")))
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment could not found." + intent.toJson()));
+            payment.setPaymentStatus(PaymentStatus.COMPLETED);
+            payment.setPaidAt(Timestamp.valueOf(LocalDateTime.now()));
+            paymentRepository.save(payment);
 
-        saveToOutbox(payment, TripEventTypes.PAYMENT_SUCCESSFUL, null);
+            saveToOutbox(payment, TripEventTypes.PAYMENT_SUCCESSFUL, null);
+        }
     }
 
     @Transactional
     protected void failedPayment(PaymentIntent intent) {
-        Payment payment = paymentRepository.findByStripeSessionId(intent.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Payment could not found." + intent.toJson()));
-        payment.setPaymentStatus(PaymentStatus.FAILED);
+        try (Scope scope = TraceContext.restore(traceparent(intent))) {
+            Payment payment = paymentRepository.findByStripeSessionId(intent.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment could not found." + intent.toJson()));
+            payment.setPaymentStatus(PaymentStatus.FAILED);
 
-        // Send a notification or email to user.
-        paymentRepository.save(payment);
+            // Send a notification or email to user.
+            paymentRepository.save(payment);
 
-        String failureReason = intent.getLastPaymentError() != null ?
-                intent.getLastPaymentError().getMessage() : "Unknown reason";
-        saveToOutbox(payment, TripEventTypes.PAYMENT_FAILED, failureReason);
+            String failureReason = intent.getLastPaymentError() != null ?
+                    intent.getLastPaymentError().getMessage() : "Unknown reason";
+            saveToOutbox(payment, TripEventTypes.PAYMENT_FAILED, failureReason);
+        }
+    }
+
+    /**
+     * @return The trace context stored with the intent when its Checkout Session was created, if any.
+     */
+    private static String traceparent(PaymentIntent intent) {
+        return intent.getMetadata() == null ? null : intent.getMetadata().get(TraceContext.TRACEPARENT_HEADER);
     }
 
     private void saveToOutbox(Payment payment, TripEventTypes eventType, String failureReason) {
@@ -218,7 +310,7 @@ public class StripePaymentService {
             outbox.setEventType(eventType.toString());
             outbox.setPayload(objectMapper.writeValueAsString(message));
 
-            paymentOutboxRepository.save(outbox);
+            outboxWriter.publish(paymentOutboxRepository, outbox);
         } catch (JsonProcessingException e) {
             log.error("Outbox serialization error", e);
             throw new SerializationException("Error saving payment event");
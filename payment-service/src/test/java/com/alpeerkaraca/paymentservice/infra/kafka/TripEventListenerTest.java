@@ -1,23 +1,29 @@
 package com.alpeerkaraca.paymentservice.infra.kafka;
 
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
 import com.alpeerkaraca.common.event.TripMessage;
+import com.alpeerkaraca.common.inbox.InboxBatchClaimer;
+import com.alpeerkaraca.common.kafka.DeadLetterPublisher;
+import com.alpeerkaraca.common.kafka.KeyOrderedDispatcher;
 import com.alpeerkaraca.common.model.TripEventTypes;
 import com.alpeerkaraca.paymentservice.model.Payment;
 import com.alpeerkaraca.paymentservice.repository.PaymentInboxRepository;
 import com.alpeerkaraca.paymentservice.service.StripePaymentService;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -27,24 +33,29 @@ import static org.mockito.Mockito.*;
 @DisplayName("TripEventListener Tests")
 class TripEventListenerTest {
 
+    private static final ConsumerRecord<String, String> TRIP_RECORD =
+            new ConsumerRecord<>("trip_events", 0, 0L, "trip-1", "OUTER");
+
     @Mock
     private StripePaymentService paymentService;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private OutboxEventDecoder eventDecoder;
 
     @Mock
     private PaymentInboxRepository paymentInboxRepository;
+    @Mock
+    private InboxBatchClaimer inboxBatchClaimer;
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+    @Mock
+    private Acknowledgment acknowledgment;
+    @Spy
+    private KeyOrderedDispatcher keyOrderedDispatcher = new KeyOrderedDispatcher(null, null, null, false, 1, 1, 0);
 
     @InjectMocks
     private TripEventListener tripEventListener;
 
-    private JsonNode wrappedPayloadJson(String innerJson) {
-        ObjectNode root = new ObjectMapper().createObjectNode();
-        root.put("payload", innerJson);
-        return root;
-    }
-
     @Test
     @DisplayName("Should create payment session when trip is completed")
     void handleTripEvent_WhenTripCompleted_CreatesPaymentSession() throws JsonProcessingException {
@@ -71,14 +82,14 @@ class TripEventListenerTest {
                 .build();
 
         when(paymentService.createPaymentSession(tripId, passengerId, fare)).thenReturn(mockPayment);
-        when(paymentInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(paymentInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
         // Act
-        tripEventListener.handleTripEvent("OUTER", "TRIP_COMPLETED", UUID.randomUUID().toString());
+        tripEventListener.handleTripEvent("OUTER", "TRIP_COMPLETED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
 
         // Assert
         verify(paymentService).createPaymentSession(tripId, passengerId, fare);
+        verify(acknowledgment).acknowledge();
     }
 
     @Test
@@ -94,12 +105,11 @@ class TripEventListenerTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(paymentInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(paymentInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
         // Act
-        tripEventListener.handleTripEvent("OUTER", "TRIP_ACCEPTED", UUID.randomUUID().toString());
+        tripEventListener.handleTripEvent("OUTER", "TRIP_ACCEPTED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
 
         // Assert
         verify(paymentService, never()).createPaymentSession(any(), any(), any());
@@ -118,12 +128,11 @@ class TripEventListenerTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(paymentInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(paymentInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
         // Act
-        tripEventListener.handleTripEvent("OUTER", "TRIP_STARTED", UUID.randomUUID().toString());
+        tripEventListener.handleTripEvent("OUTER", "TRIP_STARTED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
 
 
         // Assert
@@ -143,12 +152,11 @@ class TripEventListenerTest {
                 .createdAt(Instant.now())
 
                 .build();
-        when(paymentInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue(eq("INNER"), eq(TripMessage.class))).thenReturn(message);
+        when(paymentInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
         // Act
-        tripEventListener.handleTripEvent("OUTER", "TRIP_CANCELLED", UUID.randomUUID().toString());
+        tripEventListener.handleTripEvent("OUTER", "TRIP_CANCELLED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
 
 
         // Assert
@@ -185,17 +193,14 @@ class TripEventListenerTest {
                 .createdAt(Instant.now())
 
                 .build();
-        when(paymentInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER_1"),
-                wrappedPayloadJson("INNER_2"));
-        when(objectMapper.readValue(eq("INNER_1"), eq(TripMessage.class))).thenReturn(message1);
-        when(objectMapper.readValue(eq("INNER_2"), eq(TripMessage.class))).thenReturn(message2);
+        when(paymentInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message1, message2);
 
         // Act
 
         // Act
-        tripEventListener.handleTripEvent("OUTER_1", "TRIP_COMPLETED", UUID.randomUUID().toString());
-        tripEventListener.handleTripEvent("OUTER_2", "TRIP_COMPLETED", UUID.randomUUID().toString());
+        tripEventListener.handleTripEvent("OUTER_1", "TRIP_COMPLETED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
+        tripEventListener.handleTripEvent("OUTER_2", "TRIP_COMPLETED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
 
         // Assert
         verify(paymentService, times(2)).createPaymentSession(any(), any(), any());
@@ -226,15 +231,58 @@ class TripEventListenerTest {
                 .build();
 
         when(paymentService.createPaymentSession(tripId, passengerId, highFare)).thenReturn(mockPayment);
-        when(paymentInboxRepository.existsById(anyString())).thenReturn(false);
-        when(objectMapper.readTree(anyString())).thenReturn(wrappedPayloadJson("INNER"));
-        when(objectMapper.readValue("INNER", TripMessage.class)).thenReturn(message);
+        when(paymentInboxRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(message);
 
         // Act
-        tripEventListener.handleTripEvent("OUTER", "TRIP_COMPLETED", UUID.randomUUID().toString());
+        tripEventListener.handleTripEvent("OUTER", "TRIP_COMPLETED", UUID.randomUUID().toString(), TRIP_RECORD, acknowledgment);
 
         // Assert
         verify(paymentService).createPaymentSession(tripId, passengerId, highFare);
     }
-}
 
+    @Test
+    @DisplayName("Should create the payment sessions of all completed trips of a batch together")
+    void handleTripEvents_MixedBatch_CreatesSessionsForCompletedTrips() throws JsonProcessingException {
+        TripMessage completed1 = tripMessage(TripEventTypes.TRIP_COMPLETED);
+        TripMessage started = tripMessage(TripEventTypes.TRIP_STARTED);
+        TripMessage completed2 = tripMessage(TripEventTypes.TRIP_COMPLETED);
+        when(inboxBatchClaimer.claim(eq(paymentInboxRepository), anyList(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(eventDecoder.decode(anyString(), eq(TripMessage.class))).thenReturn(completed1, started, completed2);
+
+        tripEventListener.handleTripEvents(List.of(
+                record("m1", "TRIP_COMPLETED"), record("m2", "TRIP_STARTED"), record("m3", "TRIP_COMPLETED")));
+
+        verify(paymentService).createPaymentSessions(List.of(completed1, completed2));
+        verify(paymentService, never()).createPaymentSession(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not call the payment service when a batch has no completed trips")
+    void handleTripEvents_NothingClaimed_CreatesNoSessions() {
+        when(inboxBatchClaimer.claim(eq(paymentInboxRepository), anyList(), any(), any())).thenReturn(List.of());
+
+        tripEventListener.handleTripEvents(List.of(record("m1", "TRIP_COMPLETED")));
+
+        verifyNoInteractions(paymentService, eventDecoder);
+    }
+
+    private static TripMessage tripMessage(TripEventTypes type) {
+        return TripMessage.builder()
+                .eventType(type)
+                .tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .driverId(UUID.randomUUID())
+                .fare(new BigDecimal("45.75"))
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private static ConsumerRecord<String, String> record(String messageId, String eventType) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("trip_events", 0, 0L, "key", "VALUE");
+        record.headers().add("id", messageId.getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,92 @@
+package com.alpeerkaraca.paymentservice.integration;
+
+import com.alpeerkaraca.common.outbox.OutboxWriter;
+import com.alpeerkaraca.paymentservice.AbstractIntegrationTest;
+import com.alpeerkaraca.paymentservice.model.Payment;
+import com.alpeerkaraca.paymentservice.model.PaymentOutbox;
+import com.alpeerkaraca.paymentservice.model.PaymentStatus;
+import com.alpeerkaraca.paymentservice.repository.PaymentOutboxRepository;
+import com.alpeerkaraca.paymentservice.repository.PaymentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Payment JDBC Batching Tests")
+class PaymentBatchingIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RedisTemplate<String, String> redisTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        paymentOutboxRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should insert the payments and the outbox rows of a transaction as one batch each and delete the rows with one statement")
+    void saveAll_PaymentsWithEvents_ThreeStatements() {
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            paymentRepository.saveAll(IntStream.range(0, 3).mapToObj(i -> payment()).toList())
+                    .forEach(payment -> outboxWriter.publish(paymentOutboxRepository, event(payment)));
+        });
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(6);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(paymentRepository.count()).isEqualTo(3);
+        assertThat(paymentOutboxRepository.count()).isZero();
+    }
+
+    private static Payment payment() {
+        return Payment.builder()
+                .tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .paymentAmount(new BigDecimal("35.50"))
+                .paymentStatus(PaymentStatus.PENDING)
+                .build();
+    }
+
+    private static PaymentOutbox event(Payment payment) {
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setAggregateType("PAYMENT");
+        outbox.setAggregateId(payment.getPaymentId().toString());
+        outbox.setEventType("PAYMENT_SUCCESSFUL");
+        outbox.setPayload("{\"paymentId\": \"" + payment.getPaymentId() + "\"}");
+        return outbox;
+    }
+}
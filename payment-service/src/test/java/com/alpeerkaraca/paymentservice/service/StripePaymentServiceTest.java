@@ -1,5 +1,6 @@
 package com.alpeerkaraca.paymentservice.service;
 
+import com.alpeerkaraca.common.event.TripMessage;
 import com.alpeerkaraca.paymentservice.model.Payment;
 import com.alpeerkaraca.paymentservice.model.PaymentStatus;
 import com.alpeerkaraca.paymentservice.repository.PaymentRepository;
@@ -18,11 +19,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -185,5 +189,40 @@ class StripePaymentServiceTest {
         // Assert
         verify(paymentRepository, atLeastOnce()).save(any(Payment.class));
     }
-}
 
+    @Test
+    @DisplayName("Should create one session per new trip of a batch and skip trips that have a payment")
+    void createPaymentSessions_Batch_SkipsExistingAndDuplicates() {
+        // Arrange
+        UUID paidTripId = UUID.randomUUID();
+        TripMessage newTrip = TripMessage.builder().tripId(tripId).passengerId(passengerId)
+                .fare(new BigDecimal("45.75")).build();
+        TripMessage paidTrip = TripMessage.builder().tripId(paidTripId).passengerId(passengerId)
+                .fare(new BigDecimal("20.00")).build();
+        ReflectionTestUtils.setField(stripePaymentService, "sessionExecutor", (Executor) Runnable::run);
+        when(paymentRepository.findByTripIdIn(any())).thenReturn(List.of(Payment.builder().tripId(paidTripId).build()));
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.stream().filter(p -> p.getPaymentId() == null).forEach(p -> p.setPaymentId(UUID.randomUUID()));
+            return payments;
+        });
+
+        try (MockedStatic<Session> sessionMock = mockStatic(Session.class)) {
+            Session session = new Session();
+            session.setId("cs_test_batch");
+            session.setUrl("https://checkout.stripe.com/pay/cs_test_batch");
+            sessionMock.when(() -> Session.create(any(SessionCreateParams.class))).thenReturn(session);
+
+            // Act
+            List<Payment> payments = stripePaymentService.createPaymentSessions(List.of(newTrip, paidTrip, newTrip));
+
+            // Assert
+            assertThat(payments).singleElement().satisfies(payment -> {
+                assertThat(payment.getTripId()).isEqualTo(tripId);
+                assertThat(payment.getStripeSessionId()).isEqualTo("cs_test_batch");
+                assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.PENDING);
+            });
+            sessionMock.verify(() -> Session.create(any(SessionCreateParams.class)), times(1));
+        }
+    }
+}
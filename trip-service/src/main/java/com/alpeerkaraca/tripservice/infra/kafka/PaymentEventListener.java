@@ -1,16 +1,19 @@
 package com.alpeerkaraca.tripservice.infra.kafka;
 
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
 import com.alpeerkaraca.common.event.PaymentMessage;
+import com.alpeerkaraca.common.inbox.IdempotentConsumer;
+import com.alpeerkaraca.common.inbox.InboxRepository;
+import com.alpeerkaraca.common.kafka.SagaRetryableTopic;
 import com.alpeerkaraca.common.model.TripEventTypes;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
 import com.alpeerkaraca.tripservice.model.Trip;
-import com.alpeerkaraca.tripservice.model.TripInbox;
 import com.alpeerkaraca.tripservice.model.TripOutbox;
 import com.alpeerkaraca.tripservice.model.TripStatus;
 import com.alpeerkaraca.tripservice.repository.TripInboxRepository;
 import com.alpeerkaraca.tripservice.repository.TripOutboxRepository;
 import com.alpeerkaraca.tripservice.repository.TripRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,15 +25,21 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class PaymentEventListener {
+public class PaymentEventListener extends IdempotentConsumer {
 
     private static final String PAYMENT_EVENTS_TOPIC = "payment_events";
     private final TripRepository tripRepository;
     private final TripInboxRepository tripInboxRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventDecoder eventDecoder;
     private final TripOutboxRepository tripOutboxRepository;
+    private final OutboxWriter outboxWriter;
 
 
+    /**
+     * Applies a payment result to its trip. A failure is retried from the {@link SagaRetryableTopic} delay topics
+     * instead of in place, so it does not hold up the other trips of the partition.
+     */
+    @SagaRetryableTopic
     @KafkaListener(topics = PAYMENT_EVENTS_TOPIC, groupId = "trip-service-saga-group")
     @Transactional
     public void handlePaymentEvent(
@@ -38,19 +47,21 @@ public class PaymentEventListener {
             @Header("eventType") String eventType,
             @Header(value = "id", required = false) String messageId
     ) {
-        if (messageId != null && tripInboxRepository.existsById(messageId)) {
-            log.info("Duplicate message ignored: {}", messageId);
-            return;
-        }
+        consumeOnce(messageId, eventType, () -> applyPaymentEvent(messagePayload, eventType));
+    }
+
+    @Override
+    protected InboxRepository<?> inboxRepository() {
+        return tripInboxRepository;
+    }
 
+    private void applyPaymentEvent(String messagePayload, String eventType) {
         try {
-            JsonNode rootNode = objectMapper.readTree(messagePayload);
-            if (!rootNode.has("payload") || rootNode.get("payload").isNull()) {
+            PaymentMessage event = eventDecoder.decode(messagePayload, PaymentMessage.class);
+            if (event == null) {
                 log.warn("Received message without payload: {}", messagePayload);
                 return;
             }
-            String innerJson = rootNode.get("payload").asText();
-            PaymentMessage event = objectMapper.readValue(innerJson, PaymentMessage.class);
 
             Trip trip = tripRepository.findById(event.getTripId())
                     .orElseThrow(() -> new RuntimeException("Trip not found: " + event.getTripId()));
@@ -66,19 +77,11 @@ public class PaymentEventListener {
                 tripOutbox.setAggregateId(trip.getTripId().toString());
                 tripOutbox.setEventType("TripCancelled");
                 tripOutbox.setPayload("{\"reason\": \"Payment Failed\"}");
-                tripOutboxRepository.save(tripOutbox);
+                outboxWriter.publish(tripOutboxRepository, tripOutbox);
             }
             tripRepository.save(trip);
-
-            if (messageId != null) {
-                TripInbox inbox = new TripInbox();
-                inbox.setMessageId(messageId);
-                inbox.setEventType(eventType);
-                tripInboxRepository.save(inbox);
-            }
-        } catch (Exception e) {
-            log.error("Error processing payment event", e);
-            throw new RuntimeException("Temporary failure processing payment event", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable payment event", e);
         }
     }
 }
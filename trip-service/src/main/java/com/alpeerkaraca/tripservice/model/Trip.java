@@ -1,5 +1,6 @@
 package com.alpeerkaraca.tripservice.model;
 
+import com.alpeerkaraca.common.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -16,7 +17,7 @@ import java.util.UUID;
 @Table(name = "trips")
 public class Trip {
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID tripId;
     private double startLatitude;
     private double startLongitude;
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +14,7 @@ import java.util.UUID;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, UUID> {
+    @Transactional(readOnly = true)
     @Query("SELECT t FROM Trip t WHERE t.tripStatus = 'REQUESTED'")
     List<Trip> findAvailableTrips();
 
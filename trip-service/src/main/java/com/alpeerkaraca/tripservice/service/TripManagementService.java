@@ -5,6 +5,7 @@ import com.alpeerkaraca.common.exception.ConflictException;
 import com.alpeerkaraca.common.exception.ResourceNotFoundException;
 import com.alpeerkaraca.common.exception.SerializationException;
 import com.alpeerkaraca.common.model.TripEventTypes;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
 import com.alpeerkaraca.tripservice.factory.PricingStrategyFactory;
 import com.alpeerkaraca.tripservice.model.PricingType;
 import com.alpeerkaraca.tripservice.model.Trip;
@@ -41,6 +42,7 @@ public class TripManagementService {
 
     private final TripRepository tripsRepository;
     private final TripOutboxRepository tripOutboxRepository;
+    private final OutboxWriter outboxWriter;
     private final ObjectMapper objectMapper;
     private final PricingStrategyFactory pricingStrategyFactory;
 
@@ -178,6 +180,6 @@ public class TripManagementService {
             log.error("Event serialization error for TripID: {}", tripId, e);
             throw new SerializationException("Error while serializing data");
         }
-        tripOutboxRepository.save(outbox);
+        outboxWriter.publish(tripOutboxRepository, outbox);
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.alpeerkaraca.tripservice.controller;
 
 import com.alpeerkaraca.common.exception.GlobalExceptionHandler;
+import com.alpeerkaraca.common.outbox.OutboxMode;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
 import com.alpeerkaraca.tripservice.dto.TripRequest;
 import com.alpeerkaraca.tripservice.factory.PricingStrategyFactory;
 import com.alpeerkaraca.tripservice.model.Trip;
@@ -267,6 +269,7 @@ class TripsControllerDiffblueTest {
                 new TripManagementService(
                         tripsRepository,
                         tripOutboxRepository,
+                        new OutboxWriter(OutboxMode.RETAIN),
                         objectMapper,
                         new PricingStrategyFactory(new ArrayList<>()));
         TripsController tripsController = new TripsController(null, tripManagementService);
@@ -436,6 +439,7 @@ class TripsControllerDiffblueTest {
                 new TripManagementService(
                         tripsRepository,
                         tripOutboxRepository,
+                        new OutboxWriter(OutboxMode.RETAIN),
                         objectMapper,
                         new PricingStrategyFactory(new ArrayList<>()));
         TripsController tripsController = new TripsController(null, tripManagementService);
@@ -559,6 +563,7 @@ class TripsControllerDiffblueTest {
                 new TripManagementService(
                         tripsRepository,
                         tripOutboxRepository,
+                        new OutboxWriter(OutboxMode.RETAIN),
                         objectMapper,
                         new PricingStrategyFactory(new ArrayList<>()));
         TripsController tripsController = new TripsController(null, tripManagementService);
@@ -744,6 +749,7 @@ class TripsControllerDiffblueTest {
                 new TripManagementService(
                         tripsRepository,
                         tripOutboxRepository,
+                        new OutboxWriter(OutboxMode.RETAIN),
                         objectMapper,
                         new PricingStrategyFactory(new ArrayList<>()));
         TripsController tripsController = new TripsController(null, tripManagementService);
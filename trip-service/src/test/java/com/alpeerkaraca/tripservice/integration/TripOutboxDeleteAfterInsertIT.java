@@ -0,0 +1,111 @@
+package com.alpeerkaraca.tripservice.integration;
+
+import com.alpeerkaraca.common.outbox.OutboxWriter;
+import com.alpeerkaraca.tripservice.AbstractIntegrationTest;
+import com.alpeerkaraca.tripservice.model.Trip;
+import com.alpeerkaraca.tripservice.model.TripOutbox;
+import com.alpeerkaraca.tripservice.model.TripStatus;
+import com.alpeerkaraca.tripservice.repository.TripOutboxRepository;
+import com.alpeerkaraca.tripservice.repository.TripRepository;
+import com.alpeerkaraca.tripservice.service.TripManagementService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "outbox.mode=DELETE_AFTER_INSERT",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("Trip Outbox Delete-After-Insert Batching Tests")
+class TripOutboxDeleteAfterInsertIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private TripManagementService tripManagementService;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripOutboxRepository tripOutboxRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        tripRepository.deleteAll();
+        tripOutboxRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should insert the events of one transaction as one batch and delete them with one statement")
+    void publish_SeveralEvents_OneInsertAndOneDelete() {
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                outboxWriter.publish(tripOutboxRepository, event());
+            }
+        });
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(tripOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load the trip, then write the update, the outbox row and its delete")
+    void startTrip_Transition_FourStatements() {
+        UUID tripId = tripRepository.save(trip(TripStatus.ACCEPTED)).getTripId();
+        statistics.clear();
+
+        tripManagementService.startTrip(tripId);
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(tripOutboxRepository.count()).isZero();
+    }
+
+    private static Trip trip(TripStatus status) {
+        return Trip.builder()
+                .passengerId(UUID.randomUUID())
+                .driverId(UUID.randomUUID())
+                .startLatitude(41.0082)
+                .startLongitude(28.9784)
+                .endLatitude(41.0200)
+                .endLongitude(28.9900)
+                .tripStatus(status)
+                .requestedAt(Instant.now())
+                .build();
+    }
+
+    private static TripOutbox event() {
+        TripOutbox outbox = new TripOutbox();
+        outbox.setAggregateType("TRIP");
+        outbox.setAggregateId(UUID.randomUUID().toString());
+        outbox.setEventType("TRIP_REQUESTED");
+        outbox.setPayload("{\"tripId\": \"" + outbox.getAggregateId() + "\"}");
+        return outbox;
+    }
+}
@@ -2,6 +2,7 @@ package com.alpeerkaraca.tripservice.service;
 
 import com.alpeerkaraca.common.exception.ConflictException;
 import com.alpeerkaraca.common.exception.ResourceNotFoundException;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
 import com.alpeerkaraca.tripservice.model.Trip;
 import com.alpeerkaraca.tripservice.model.TripStatus;
 import com.alpeerkaraca.tripservice.repository.TripOutboxRepository;
@@ -40,6 +41,9 @@ class TripManagementServiceTest {
     @Mock
     private TripOutboxRepository tripOutboxRepository;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @Test
     void acceptTrip_ValidTrip_ShouldAcceptAndPublishEvent() {
         UUID tripId = UUID.randomUUID();
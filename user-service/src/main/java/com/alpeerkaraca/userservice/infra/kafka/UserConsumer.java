@@ -1,14 +1,16 @@
 package com.alpeerkaraca.userservice.infra.kafka;
 
-import com.alpeerkaraca.common.model.InboxStatus;
+import com.alpeerkaraca.common.event.OutboxEventDecoder;
+import com.alpeerkaraca.common.inbox.IdempotentConsumer;
+import com.alpeerkaraca.common.inbox.InboxRepository;
+import com.alpeerkaraca.common.kafka.SagaRetryableTopic;
+import com.alpeerkaraca.common.outbox.OutboxWriter;
 import com.alpeerkaraca.userservice.dto.UserRegisterMessage;
-import com.alpeerkaraca.userservice.model.UserInbox;
 import com.alpeerkaraca.userservice.model.UserOutbox;
 import com.alpeerkaraca.userservice.model.UserProfile;
 import com.alpeerkaraca.userservice.repository.UserInboxRepository;
 import com.alpeerkaraca.userservice.repository.UserOutboxRepository;
 import com.alpeerkaraca.userservice.repository.UserProfileRepository;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,10 +32,12 @@ import java.util.UUID;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class UserConsumer {
+public class UserConsumer extends IdempotentConsumer {
     private final UserProfileRepository userProfileRepository;
     private final UserInboxRepository userInboxRepository;
     private final UserOutboxRepository userOutboxRepository;
+    private final OutboxWriter outboxWriter;
+    private final OutboxEventDecoder eventDecoder;
     private final ObjectMapper objectMapper;
 
     /**
@@ -42,24 +46,28 @@ public class UserConsumer {
      * This method handles incoming messages that contain a nested JSON payload
      * representing a `UserRegisterMessage`. It performs the following steps:
      * 1. Logs receipt of the event.
-     * 2. Performs an idempotency check using `UserInboxRepository` to skip messages
-     * that were already processed.
+     * 2. Claims the message id in `UserInboxRepository` with a single insert, skipping
+     * messages that were already processed.
      * 3. Parses the outer JSON envelope and extracts the inner `payload`.
      * 4. Maps the inner payload to `UserRegisterMessage` and creates a `UserProfile`
      * when the `eventType` equals `UserCreated` and the profile does not already
      * exist.
-     * 5. Writes a `UserInbox` entry with status COMPLETED on success or FAILED on error.
+     * 5. Leaves the claimed `UserInbox` entry as COMPLETED on success or marks it FAILED on error.
+     * <p>
+     * A failure that escapes the handler, such as a saga reply that could not be written, is retried from the
+     * `SagaRetryableTopic` delay topics.
      * <p>
      * The method is transactional: database operations (profile creation and inbox
      * write) occur within a single transaction.
      * <p>
      * Parameters:
      *
-     * @param messagePayload the raw JSON message received from Kafka (expected to be an envelope with a `payload` field)
+     * @param messagePayload the raw JSON message received from Kafka (an outbox event, see `OutboxEnvelope`)
      * @param messageId      the unique message identifier provided in the Kafka header `id`
      * @param eventType      the business event type provided in the Kafka header `eventType`
      **/
     // TODO: Add a activation notification email when profile is created.
+    @SagaRetryableTopic
     @KafkaListener(topics = "auth_events", groupId = "user-service-group")
     @Transactional
     public void consumeUserCreatedMessage(
@@ -68,21 +76,23 @@ public class UserConsumer {
             @Header("eventType") String eventType) {
 
         log.info("Event received: Type={}, ID={}", eventType, messageId);
-        if (userInboxRepository.existsById(messageId)) {
-            log.info("Message already processed: {}", messageId);
-            return;
-        }
-        String payloadPlaceholder = "payload";
+        consumeOnce(messageId, eventType, () -> createProfile(messagePayload, messageId, eventType));
+    }
+
+    @Override
+    protected InboxRepository<?> inboxRepository() {
+        return userInboxRepository;
+    }
+
+    private void createProfile(String messagePayload, String messageId, String eventType) {
         UUID userId = null;
 
         try {
-            JsonNode rootNode = objectMapper.readTree(messagePayload);
-            if (!rootNode.has(payloadPlaceholder) || rootNode.get(payloadPlaceholder).isNull()) {
+            UserRegisterMessage message = eventDecoder.decode(messagePayload, UserRegisterMessage.class);
+            if (message == null) {
                 log.warn("Payload is empty, skipping.");
                 return;
             }
-            String innerJson = rootNode.get(payloadPlaceholder).asText();
-            UserRegisterMessage message = objectMapper.readValue(innerJson, UserRegisterMessage.class);
             userId = UUID.fromString(message.getId());
 
             if ("UserCreated".equals(eventType)) {
@@ -103,12 +113,6 @@ public class UserConsumer {
                 log.info("User profile created for userId: {}", userId);
 
                 sendSagaReply(userId, "ProfileCreated", "Profile created successfully");
-
-                UserInbox inboxEntry = new UserInbox();
-                inboxEntry.setMessageId(messageId);
-                inboxEntry.setEventType(eventType);
-                inboxEntry.setStatus(InboxStatus.COMPLETED);
-                userInboxRepository.save(inboxEntry);
             }
         } catch (Exception e) {
             log.error("Error processing message ID {}: {}", messageId, e.getMessage());
@@ -117,11 +121,7 @@ public class UserConsumer {
                 sendSagaReply(userId, "ProfileCreateFailed", "Error: " + e.getMessage());
             }
 
-            UserInbox inboxEntry = new UserInbox();
-            inboxEntry.setMessageId(messageId);
-            inboxEntry.setEventType(eventType);
-            inboxEntry.setStatus(InboxStatus.FAILED);
-            userInboxRepository.save(inboxEntry);
+            markFailed(messageId);
         }
     }
 
@@ -130,8 +130,8 @@ public class UserConsumer {
             UserOutbox outboxEvent = new UserOutbox();
             outboxEvent.setAggregateId(userId.toString());
             outboxEvent.setEventType(eventType);
-            outboxEvent.setPayload(payload);
-            userOutboxRepository.save(outboxEvent);
+            outboxEvent.setPayload(objectMapper.createObjectNode().put("message", payload).toString());
+            outboxWriter.publish(userOutboxRepository, outboxEvent);
             log.info("Saga reply for userId: {}, eventType: {}", userId, eventType);
         } catch (Exception e) {
             log.error("Failed to send saga reply for userId: {}, error: {}", userId, e.getMessage());
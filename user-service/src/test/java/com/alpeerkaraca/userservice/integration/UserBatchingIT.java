@@ -0,0 +1,75 @@
+package com.alpeerkaraca.userservice.integration;
+
+import com.alpeerkaraca.userservice.AbstractIntegrationTest;
+import com.alpeerkaraca.userservice.dto.UserRegisterMessage;
+import com.alpeerkaraca.userservice.infra.kafka.UserConsumer;
+import com.alpeerkaraca.userservice.repository.UserOutboxRepository;
+import com.alpeerkaraca.userservice.repository.UserProfileRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedKafka(partitions = 1, topics = {"auth_events"})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("User JDBC Batching Tests")
+class UserBatchingIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserConsumer userConsumer;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userProfileRepository.deleteAll();
+        userOutboxRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should claim the message, create the profile and write the saga reply with one flush of inserts")
+    void consumeUserCreatedMessage_NewUser_SixStatements() throws Exception {
+        UUID userId = UUID.randomUUID();
+        String payload = objectMapper.writeValueAsString(UserRegisterMessage.builder()
+                .id(userId.toString())
+                .email("batching@example.com")
+                .firstName("Batching")
+                .lastName("Test")
+                .phoneNumber("+1234567890")
+                .rating(0.0)
+                .build());
+        statistics.clear();
+
+        userConsumer.consumeUserCreatedMessage(payload, UUID.randomUUID().toString(), "UserCreated");
+
+        // The claim, the existence check and the merge lookup of the profile's assigned id,
+        // then the profile and outbox inserts and the outbox delete.
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(userProfileRepository.existsById(userId)).isTrue();
+        assertThat(userOutboxRepository.count()).isZero();
+    }
+}